@@ -0,0 +1,24 @@
+package projects.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * BenchmarkRunner class
+ *  - Entry point of benchmarks.jar. Runs JMH with the given arguments and, unless a result
+ *    format is given, writes the results as JSON to jmh-result.json so runs can be compared.
+ */
+
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+
+		if (!jmhArgs.contains("-rf")) {
+			jmhArgs.addAll(List.of("-rf", "json", "-rff", "jmh-result.json"));
+		}
+
+		org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+	}
+}
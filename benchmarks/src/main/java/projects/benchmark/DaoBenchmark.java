@@ -0,0 +1,139 @@
+package projects.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import projects.benchmark.EntityBenchmark.BenchmarkData;
+import projects.dao.CategoryDictionary;
+import projects.dao.DbConnection;
+import projects.dao.ProjectDao;
+import projects.entity.Project;
+import projects.exception.DbException;
+
+/*
+ * DaoBenchmark class
+ *  - End-to-end benchmarks of ProjectDao against a local MySQL instance. Each trial recreates
+ *    the tables from projects-schema.sql and seeds tableSize projects, each with childCount
+ *    materials, steps and categories.
+ *  - All tables in the configured schema are dropped. Use a disposable database.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+	private static final String SCHEMA_RESOURCE = "projects-schema.sql";
+
+	@Param({ "100", "10000" })
+	private int tableSize;
+
+	@Param({ "0", "10" })
+	private int childCount;
+
+	private ProjectDao projectDao = new ProjectDao();
+	private List<Integer> projectIds;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		createTables();
+		seedProjects();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		DbConnection.shutdown();
+	}
+
+	@Benchmark
+	public Project insertProject() {
+		return projectDao.insertProject(BenchmarkData.project(0, 0));
+	}
+
+	@Benchmark
+	public List<Project> fetchAllProjects() {
+		return projectDao.fetchAllProjects();
+	}
+
+	@Benchmark
+	public Optional<Project> fetchProjectById() {
+		int index = ThreadLocalRandom.current().nextInt(projectIds.size());
+		return projectDao.fetchProjectById(projectIds.get(index));
+	}
+
+	/* createTables() method - runs projects-schema.sql one statement at a time */
+	private void createTables() {
+		String script = readSchema();
+
+		try (Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement()) {
+			for (String sql : script.split(";")) {
+				if (!sql.isBlank()) {
+					stmt.execute(sql);
+				}
+			}
+
+			CategoryDictionary.getInstance().reload(conn);
+		} catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/* seedProjects() method - inserts tableSize projects, in batches when there are no children */
+	private void seedProjects() {
+		List<Project> projects = new ArrayList<>(tableSize);
+
+		for (int number = 1; number <= tableSize; number++) {
+			projects.add(BenchmarkData.project(number, childCount));
+		}
+
+		projectIds = new ArrayList<>(tableSize);
+
+		if (childCount == 0) {
+			for (Project project : projectDao.insertProjects(projects)) {
+				projectIds.add(project.getProjectId());
+			}
+		} else {
+			for (Project project : projects) {
+				projectIds.add(projectDao.insertProjectGraph(project).getProjectId());
+			}
+		}
+	}
+
+	/* readSchema() method - loads the schema script from the application jar */
+	private String readSchema() {
+		try (InputStream in = DaoBenchmark.class.getClassLoader().getResourceAsStream(SCHEMA_RESOURCE)) {
+			if (in == null) {
+				throw new DbException("Resource " + SCHEMA_RESOURCE + " not found on the classpath");
+			}
+
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new DbException(e);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package projects.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/*
+ * EntityBenchmark class
+ *  - Measures Project.toString(), which the menu prints on every loop, for projects with
+ *    childCount materials, steps and categories.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+	@Param({ "0", "10", "100" })
+	private int childCount;
+
+	private Project project;
+
+	@Setup
+	public void setUp() {
+		project = BenchmarkData.project(1, childCount);
+	}
+
+	@Benchmark
+	public String projectToString() {
+		return project.toString();
+	}
+
+	/*
+	 * BenchmarkData class
+	 *  - Builds detached project graphs for the benchmarks.
+	 */
+	static class BenchmarkData {
+
+		static Project project(int number, int childCount) {
+			Project project = new Project();
+			project.setProjectName("Project " + number);
+			project.setEstimatedHours(new BigDecimal("8.00"));
+			project.setActualHours(new BigDecimal("6.00"));
+			project.setDifficulty(number % 5 + 1);
+			project.setNotes("Notes for project " + number);
+
+			for (int child = 1; child <= childCount; child++) {
+				Material material = new Material();
+				material.setMaterialName("Material " + child);
+				material.setNumRequired(child);
+				material.setCost(new BigDecimal("1.25"));
+				project.getMaterials().add(material);
+
+				Step step = new Step();
+				step.setStepText("Step " + child + " of project " + number);
+				project.getSteps().add(step);
+
+				Category category = new Category();
+				category.setCategoryName("Category " + child);
+				project.getCategories().add(category);
+			}
+
+			return project;
+		}
+	}
+}
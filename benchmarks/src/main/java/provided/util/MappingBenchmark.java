@@ -0,0 +1,113 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import projects.entity.Project;
+
+/**
+ * Micro-benchmarks for the {@link DaoBase} mapping and parameter helpers. The result set and
+ * prepared statement are in-memory stubs, so no database is needed.
+ *
+ * @author Promineo
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+  private static final String[] PROJECT_LABELS = {"project_id", "project_name", "estimated_hours",
+      "actual_hours", "difficulty", "notes"};
+
+  private final BenchmarkDao dao = new BenchmarkDao();
+  private ResultSet projectRow;
+  private RowMapper<Project> projectMapper;
+  private PreparedStatement stmt;
+
+  /**
+   * Builds the stub row and warms the row mapper cache.
+   *
+   * @throws SQLException Never thrown by the stubs.
+   */
+  @Setup
+  public void setUp() throws SQLException {
+    projectRow = StubJdbc.singleRow(PROJECT_LABELS, new Object[] {42, "Paint bedroom walls",
+        new BigDecimal("8.00"), new BigDecimal("6.00"), 2, "Buy blue paint and paint brushes"});
+    projectMapper = RowMapper.forResultSet(projectRow, Project.class);
+    stmt = StubJdbc.noOpStatement();
+  }
+
+  /**
+   * {@link DaoBase#extract(ResultSet, Class)}, which looks up the mapper for every row.
+   */
+  @Benchmark
+  public Project extract() {
+    return dao.extract(projectRow, Project.class);
+  }
+
+  /**
+   * A mapper obtained once before the loop, as ProjectDao uses it.
+   */
+  @Benchmark
+  public Project mapWithCachedMapper() {
+    return projectMapper.map(projectRow);
+  }
+
+  /**
+   * {@link DaoBase#setParameter(PreparedStatement, int, Object, Class)} for each project column.
+   *
+   * @throws SQLException Never thrown by the stub.
+   */
+  @Benchmark
+  public void setParameter() throws SQLException {
+    dao.setParameter(stmt, 1, "Paint bedroom walls", String.class);
+    dao.setParameter(stmt, 2, BigDecimal.TEN, BigDecimal.class);
+    dao.setParameter(stmt, 3, null, BigDecimal.class);
+    dao.setParameter(stmt, 4, 2, Integer.class);
+    dao.setParameter(stmt, 5, "Buy blue paint and paint brushes", String.class);
+  }
+
+  /**
+   * {@link DaoBase#camelCaseToSnakeCase(String)}.
+   */
+  @Benchmark
+  public String camelCaseToSnakeCase() {
+    return DaoBase.camelCaseToSnakeCase("estimatedHours");
+  }
+
+  /**
+   * Exposes the protected {@link DaoBase} methods to the benchmarks.
+   */
+  static class BenchmarkDao extends DaoBase {
+    @Override
+    protected <T> T extract(ResultSet rs, Class<T> classType) {
+      return super.extract(rs, classType);
+    }
+
+    @Override
+    protected void setParameter(PreparedStatement stmt, int parameterIndex, Object value,
+        Class<?> classType) throws SQLException {
+      super.setParameter(stmt, parameterIndex, value, classType);
+    }
+  }
+}
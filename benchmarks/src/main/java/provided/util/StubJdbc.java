@@ -0,0 +1,81 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+
+/**
+ * In-memory stand-ins for the JDBC objects used by the mapping micro-benchmarks. The result set
+ * always sits on one row with the given column labels and values, so benchmarks measure the
+ * mapping code rather than a driver.
+ *
+ * @author Promineo
+ *
+ */
+public final class StubJdbc {
+  private StubJdbc() {}
+
+  /**
+   * Returns a result set positioned on a single row. Only the metadata and by-index getters
+   * used by {@link RowMapper} are supported.
+   *
+   * @param labels The column labels.
+   * @param values The column values, in the same order as the labels.
+   * @return The result set.
+   */
+  public static ResultSet singleRow(String[] labels, Object[] values) {
+    ResultSetMetaData meta = (ResultSetMetaData)Proxy.newProxyInstance(
+        StubJdbc.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class},
+        (proxy, method, args) -> {
+          switch(method.getName()) {
+            case "getColumnCount":
+              return labels.length;
+            case "getColumnLabel":
+            case "getColumnName":
+              return labels[(Integer)args[0] - 1];
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+
+    boolean[] wasNull = new boolean[1];
+
+    return (ResultSet)Proxy.newProxyInstance(StubJdbc.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+          switch(method.getName()) {
+            case "getMetaData":
+              return meta;
+            case "wasNull":
+              return wasNull[0];
+            case "getInt": {
+              Object value = values[(Integer)args[0] - 1];
+              wasNull[0] = value == null;
+              return value == null ? 0 : value;
+            }
+            case "getString":
+            case "getBigDecimal":
+            case "getObject": {
+              Object value = values[(Integer)args[0] - 1];
+              wasNull[0] = value == null;
+              return value;
+            }
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  /**
+   * Returns a prepared statement whose setters do nothing.
+   *
+   * @return The prepared statement.
+   */
+  public static PreparedStatement noOpStatement() {
+    return (PreparedStatement)Proxy.newProxyInstance(StubJdbc.class.getClassLoader(),
+        new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> null);
+  }
+}
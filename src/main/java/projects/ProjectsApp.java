@@ -1,12 +1,20 @@
 package projects;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
+import projects.analytics.CatalogColumns;
 import projects.entity.Project;
+import projects.entity.ProjectSearchHit;
 import projects.exception.DbException;
+import projects.exception.OptimisticLockException;
+import projects.io.ExportFormat;
 import projects.service.ProjectService;
 
 public class ProjectsApp {
@@ -21,11 +29,27 @@ public class ProjectsApp {
 			"2.) List Projects.",
 			"3.) Select a Project.",
 			"4.) Update Project Details.",
-			"5.) Delete a Project."
+			"5.) Delete a Project.",
+			"6.) Show Slow Queries.",
+			"7.) Search Projects.",
+			"8.) Show Cost and Effort Report.",
+			"9.) Export Projects.",
+			"10.) Import Projects.",
+			"11.) Write Catalog Snapshot.",
+			"12.) Show Catalog Analytics."
 	);
 	// @formatter:on
 
+	/*
+	 * main() method
+	 *  - With "--batch [file]" runs the commands in the file, or on standard input if no file
+	 *    is named, instead of the menu. See ProjectsBatch.
+	 */
 	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("--batch")) {
+			System.exit(ProjectsBatch.run(args.length > 1 ? args[1] : "-"));
+		}
+		
 		new ProjectsApp().processUserSelection();
 	}
 
@@ -59,6 +83,27 @@ public class ProjectsApp {
 				case 5:
 					deleteProject();
 					break;
+				case 6:
+					showSlowQueries();
+					break;
+				case 7:
+					searchProjects();
+					break;
+				case 8:
+					showRollupReport();
+					break;
+				case 9:
+					exportProjects();
+					break;
+				case 10:
+					importProjects();
+					break;
+				case 11:
+					writeSnapshot();
+					break;
+				case 12:
+					showCatalogAnalytics();
+					break;
 				default:
 					System.out.println("\n" + selection + " is not a valid selection. Try again.");
 				}
@@ -68,6 +113,130 @@ public class ProjectsApp {
 		}
 	}
 	
+	/*
+	 * exportProjects() method
+	 *  - Writes every project graph to a file, as CSV if the name ends in .csv and NDJSON
+	 *    otherwise.
+	 */
+	private void exportProjects() throws IOException {
+		String fileName = getStringInput("Enter the file to export to");
+		long start = System.nanoTime();
+		long count = projectService.exportProjects(Path.of(fileName), 
+				ExportFormat.forFileName(fileName));
+		
+		System.out.println("Exported " + count + " projects to " + fileName + " in " 
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+	}
+	
+	/*
+	 * importProjects() method
+	 *  - Adds every project graph in an exported file to the database, with new IDs.
+	 */
+	private void importProjects() throws IOException {
+		String fileName = getStringInput("Enter the file to import from");
+		long start = System.nanoTime();
+		long count = projectService.importProjects(Path.of(fileName), 
+				ExportFormat.forFileName(fileName));
+		
+		System.out.println("Imported " + count + " projects from " + fileName + " in " 
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+	}
+	
+	/*
+	 * writeSnapshot() method
+	 *  - Writes every project graph to a binary snapshot for SnapshotProjectService.
+	 */
+	private void writeSnapshot() throws IOException {
+		String fileName = getStringInput("Enter the snapshot file to write");
+		long start = System.nanoTime();
+		long count = projectService.writeSnapshot(Path.of(fileName));
+		
+		System.out.println("Wrote " + count + " projects to " + fileName + " in " 
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+	}
+	
+	/*
+	 * showCatalogAnalytics() method
+	 *  - Loads the projects and materials into a column store and prints the material cost of
+	 *    each difficulty and the most expensive materials, with the load and query times.
+	 */
+	private void showCatalogAnalytics() {
+		long start = System.nanoTime();
+		CatalogColumns columns = projectService.loadCatalogColumns();
+		long loaded = System.nanoTime();
+		Map<Integer, BigDecimal> costByDifficulty = columns.totalCostByDifficulty();
+		List<Map.Entry<String, BigDecimal>> topMaterials = columns.topMaterialsByCost(5);
+		long queried = System.nanoTime();
+		
+		System.out.println("\nLoaded " + columns.getProjectCount() + " projects and " 
+				+ columns.getMaterialCount() + " materials in " 
+				+ TimeUnit.NANOSECONDS.toMillis(loaded - start) + " ms.");
+		System.out.println("\nMaterial cost by difficulty:");
+		costByDifficulty.forEach((difficulty, cost) -> System.out.println("   " 
+				+ (Objects.isNull(difficulty) ? "none" : difficulty) + ": " + cost));
+		System.out.println("\nMost expensive materials:");
+		topMaterials.forEach(entry -> System.out.println("   " + entry.getKey() + ": " 
+				+ entry.getValue()));
+		System.out.println("\nQueried in " 
+				+ TimeUnit.NANOSECONDS.toMicros(queried - loaded) + " us.");
+	}
+	
+	/*
+	 * showRollupReport() method
+	 *  - Prints the five most expensive projects, the five largest overruns and the totals of
+	 *    each category, all read from the pre-aggregated project rollups.
+	 */
+	private void showRollupReport() {
+		System.out.println("\nMost expensive projects:");
+		projectService.fetchTopProjectsByCost(5).forEach(rollup -> System.out.println("   " 
+				+ rollup.getProjectId() + ": " + rollup.getProjectName() + " - $" 
+				+ rollup.getMaterialCost()));
+		
+		System.out.println("\nLargest overruns:");
+		projectService.fetchTopProjectsByOverrun(5).forEach(rollup -> System.out.println("   " 
+				+ rollup.getProjectId() + ": " + rollup.getProjectName() + " - " 
+				+ rollup.getHoursVariance() + " hours over"));
+		
+		System.out.println("\nCategories:");
+		projectService.fetchCategoryRollups().forEach(rollup -> System.out.println("   " 
+				+ rollup.getCategoryName() + ": " + rollup.getProjectCount() + " projects, $" 
+				+ rollup.getMaterialCost() + ", " + rollup.getStepCount() + " steps"));
+	}
+	
+	/*
+	 * searchProjects() method
+	 *  - Prints the ten projects that best match the search text, most relevant first.
+	 */
+	private void searchProjects() {
+		String query = getStringInput("Enter search text");
+		List<ProjectSearchHit> results = projectService.searchProjects(query, 10);
+		
+		if (results.isEmpty()) {
+			System.out.println("\nNo projects match.");
+			return;
+		}
+		
+		System.out.println("\nMatching projects:");
+		results.forEach(summary -> System.out.println("   " 
+				+ summary.getProjectId() + ": " + summary.getProjectName()));
+	}
+	
+	/*
+	 * showSlowQueries() method
+	 *  - Prints the operations that exceeded the slow query threshold, oldest first.
+	 */
+	private void showSlowQueries() {
+		if (!projectService.isSlowQueryLogEnabled()) {
+			System.out.println("\nThe slow query log is disabled. Start with "
+					+ "-Dprojects.slowQuery.thresholdMillis=<millis> to enable it.");
+			return;
+		}
+		
+		String report = projectService.getSlowQueryReport();
+		
+		System.out.println(report.isEmpty() ? "\nNo slow queries have been logged." : "\n" + report);
+	}
+	
 	/*
 	 * deleteProject() method
 	 *  - calls the deleteProject() method from ProjectService.
@@ -113,17 +282,33 @@ public class ProjectsApp {
 		String notes = getStringInput("Enter project notes, if any [" + curProject.getNotes()
 				+ "]");
 		
-		Project project = new Project();
-		project.setProjectName(projectName);
-		project.setEstimatedHours(estHours);
-		project.setActualHours(actualHours);
-		project.setDifficulty(difficulty);
-		project.setNotes(notes);
+		/* Only the values the user entered are set, so only those columns are written. */
+		if (Objects.nonNull(projectName)) {
+			curProject.setProjectName(projectName);
+		}
 		
-		project.setProjectId(curProject.getProjectId());
+		if (Objects.nonNull(estHours)) {
+			curProject.setEstimatedHours(estHours);
+		}
 		
-		projectService.modifyProjectDetails(project);
-		curProject = projectService.fetchProjectById(curProject.getProjectId());
+		if (Objects.nonNull(actualHours)) {
+			curProject.setActualHours(actualHours);
+		}
+		
+		if (Objects.nonNull(difficulty)) {
+			curProject.setDifficulty(difficulty);
+		}
+		
+		if (Objects.nonNull(notes)) {
+			curProject.setNotes(notes);
+		}
+		
+		try {
+			curProject = projectService.modifyProjectDetails(curProject);
+		} catch (OptimisticLockException e) {
+			curProject = projectService.fetchProjectById(curProject.getProjectId());
+			throw e;
+		}
 	}
 
 	/*
@@ -0,0 +1,479 @@
+package projects;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import projects.dao.DeleteResult;
+import projects.entity.Project;
+import projects.io.JsonLines;
+import projects.service.ProjectService;
+
+/*
+ * ProjectsBatch class
+ *  - Runs ProjectsApp commands read from a file or standard input, one JSON object per line,
+ *    through the same ProjectService, and writes one JSON result line per command:
+ *      {"op":"add","projectName":"Paint walls","estimatedHours":8,"materials":[...]}
+ *      {"op":"addAll","projects":[{"projectName":"Fence"},{"projectName":"Deck"}]}
+ *      {"op":"list"}
+ *      {"op":"select","projectId":12}
+ *      {"op":"update","projectId":12,"version":3,"actualHours":6.5}
+ *      {"op":"delete","projectId":12}
+ *      {"op":"deleteAll","projectIds":[12,13,14]}
+ *    add and addAll take the fields of an NDJSON export line. Blank lines and lines starting
+ *    with # are skipped.
+ *  - Each result echoes the input line number and op, then "ok":true with the command's
+ *    output or "ok":false with an "error". A failed command does not stop the run. The last
+ *    line is a summary with the counts, the elapsed time and the commands per second.
+ *  - Consecutive add commands are pipelined: up to groupSize of them are inserted with one
+ *    addProjectGraphs() call, which is one transaction with one batched INSERT per table.
+ *    Consecutive deletes are grouped into one deleteProjects() call the same way. A group
+ *    runs when a different command arrives, when it is full or at the end of the input. If
+ *    a group fails, its commands are retried one at a time, each add with a project parsed
+ *    again from its line, so only the bad ones fail.
+ *  - update applies to the selected project when projectId is left out, and sets only the
+ *    fields present in the command. With a version the update is written without reading
+ *    the project first; without one the project is fetched for its current version.
+ *  - Deleting a project that does not exist is not an error, so scripts can be rerun.
+ *  - Output is buffered and only flushed when no more input is ready, so a script that
+ *    pipes commands in still sees each result without a flush per line.
+ */
+
+public class ProjectsBatch {
+
+	private static final int GROUP_SIZE = Integer.getInteger("projects.batch.groupSize", 500);
+	private static final String ADD = "add";
+	private static final String DELETE = "delete";
+
+	private final ProjectService projectService;
+	private final BufferedReader in;
+	private final Writer out;
+	private final int groupSize;
+	private final StringBuilder line = new StringBuilder(256);
+	private final List<Command> pending = new ArrayList<>();
+	private String pendingOp;
+	private Integer currentProjectId;
+	private long succeeded;
+	private long failed;
+
+	public ProjectsBatch(ProjectService projectService, Reader in, Writer out, int groupSize) {
+		this.projectService = projectService;
+		this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+		this.out = out;
+		this.groupSize = Math.max(groupSize, 1);
+	}
+
+	/*
+	 * run(String x) method
+	 *  - Runs the commands in the named file, or on standard input if the name is "-", and
+	 *    writes the results to standard output. Diagnostics printed by other code during the
+	 *    run are sent to standard error.
+	 *  - Returns the process exit status: 0 if every command succeeded, 1 if any failed and 2
+	 *    if the input could not be read.
+	 */
+	public static int run(String source) {
+		PrintStream results = System.out;
+		
+		/* Anything else printed during the run goes to stderr, so stdout holds only results. */
+		System.setOut(System.err);
+		
+		Writer out = new BufferedWriter(new OutputStreamWriter(results, StandardCharsets.UTF_8), 
+				64 * 1024);
+		
+		try (Reader in = "-".equals(source) 
+				? new InputStreamReader(System.in, StandardCharsets.UTF_8) 
+				: Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+			ProjectsBatch batch = new ProjectsBatch(new ProjectService(), in, out, GROUP_SIZE);
+			
+			return batch.process() ? 0 : 1;
+		} catch (IOException e) {
+			System.err.println("Batch input " + source + " could not be read: " + e);
+			return 2;
+		}
+	}
+
+	/*
+	 * process() method
+	 *  - Runs every command in the input and writes the results and the summary.
+	 *  - Returns true if every command succeeded.
+	 */
+	public boolean process() throws IOException {
+		long start = System.nanoTime();
+		long lineNumber = 0;
+		String text;
+		
+		while (Objects.nonNull(text = nextLine())) {
+			lineNumber++;
+			
+			if (text.isBlank() || text.trim().startsWith("#")) {
+				continue;
+			}
+			
+			Command command = new Command(lineNumber);
+			
+			try {
+				command.json = JsonLines.parseObject(text);
+				command.op = Objects.requireNonNull(stringField(command.json, "op"), 
+						"The command has no op.");
+				dispatch(command);
+			} catch (RuntimeException e) {
+				flushPending();
+				fail(command, e);
+			}
+		}
+		
+		flushPending();
+		
+		long elapsedNanos = System.nanoTime() - start;
+		long commands = succeeded + failed;
+		Map<String, Object> summary = new LinkedHashMap<>();
+		
+		summary.put("summary", true);
+		summary.put("commands", commands);
+		summary.put("succeeded", succeeded);
+		summary.put("failed", failed);
+		summary.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+		summary.put("commandsPerSecond", 
+				elapsedNanos == 0 ? 0 : commands * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+		write(summary);
+		out.flush();
+		return failed == 0;
+	}
+
+	/*
+	 * nextLine() method
+	 *  - Flushes the buffered results before blocking for more input.
+	 */
+	private String nextLine() throws IOException {
+		if (!in.ready()) {
+			out.flush();
+		}
+		
+		return in.readLine();
+	}
+
+	/*
+	 * dispatch(Command x) method
+	 *  - Queues add and delete commands for their group; runs any other command after the
+	 *    pending group.
+	 */
+	private void dispatch(Command command) throws IOException {
+		switch (command.op) {
+		case ADD:
+			command.project = JsonLines.toProject(command.json);
+			enqueue(command);
+			break;
+		case DELETE:
+			command.projectId = requiredInteger(command.json, "projectId");
+			enqueue(command);
+			break;
+		default:
+			flushPending();
+			succeed(command, runSingle(command));
+		}
+	}
+
+	private void enqueue(Command command) throws IOException {
+		if (!command.op.equals(pendingOp)) {
+			flushPending();
+		}
+		
+		pending.add(command);
+		pendingOp = command.op;
+		
+		if (pending.size() >= groupSize) {
+			flushPending();
+		}
+	}
+
+	/*
+	 * flushPending() method
+	 *  - Runs the pending group. If the group fails, each of its commands is run on its own.
+	 */
+	private void flushPending() throws IOException {
+		if (pending.isEmpty()) {
+			return;
+		}
+		
+		try {
+			runGroup(pending);
+		} catch (RuntimeException e) {
+			if (pending.size() == 1) {
+				fail(pending.get(0), e);
+			} else {
+				for (Command command : pending) {
+					try {
+						/* Retry with a fresh project so nothing from the failed group is reused. */
+						if (ADD.equals(command.op)) {
+							command.project = JsonLines.toProject(command.json);
+						}
+						
+						runGroup(List.of(command));
+					} catch (RuntimeException commandFailure) {
+						fail(command, commandFailure);
+					}
+				}
+			}
+		}
+		
+		pending.clear();
+		pendingOp = null;
+	}
+
+	private void runGroup(List<Command> group) throws IOException {
+		if (ADD.equals(group.get(0).op)) {
+			List<Project> projects = new ArrayList<>(group.size());
+			
+			group.forEach(command -> projects.add(command.project));
+			projectService.addProjectGraphs(projects);
+			
+			for (Command command : group) {
+				succeed(command, Map.of("projectId", command.project.getProjectId()));
+			}
+		} else {
+			List<Integer> projectIds = new ArrayList<>(group.size());
+			
+			group.forEach(command -> projectIds.add(command.projectId));
+			projectService.deleteProjects(projectIds);
+			clearCurrentProject(projectIds);
+			
+			for (Command command : group) {
+				succeed(command, Map.of("projectId", command.projectId));
+			}
+		}
+	}
+
+	/*
+	 * runSingle(Command x) method
+	 *  - Runs a command that is not grouped and returns its output fields.
+	 */
+	private Map<String, Object> runSingle(Command command) {
+		Map<String, Object> json = command.json;
+		
+		switch (command.op) {
+		case "addAll": {
+			List<Project> projects = new ArrayList<>();
+			List<Integer> projectIds = new ArrayList<>();
+			
+			for (Object element : listField(json, "projects")) {
+				projects.add(JsonLines.toProject(asObject(element)));
+			}
+			
+			projectService.addProjectGraphs(projects);
+			projects.forEach(project -> projectIds.add(project.getProjectId()));
+			return Map.of("projectIds", projectIds);
+		}
+		case "list": {
+			List<Map<String, Object>> projects = new ArrayList<>();
+			
+			for (Project project : projectService.fetchAllProjects()) {
+				Map<String, Object> summary = new LinkedHashMap<>();
+				
+				summary.put("projectId", project.getProjectId());
+				summary.put("projectName", project.getProjectName());
+				projects.add(summary);
+			}
+			
+			return Map.of("projects", projects);
+		}
+		case "select": {
+			Project project = projectService.fetchProjectById(requiredInteger(json, "projectId"));
+			
+			currentProjectId = project.getProjectId();
+			return Map.of("project", project);
+		}
+		case "update":
+			return update(json);
+		case "deleteAll": {
+			List<Integer> projectIds = new ArrayList<>();
+			
+			for (Object element : listField(json, "projectIds")) {
+				projectIds.add(asInteger(element));
+			}
+			
+			DeleteResult result = projectService.deleteProjects(projectIds);
+			Map<String, Object> deleted = new LinkedHashMap<>();
+			
+			clearCurrentProject(projectIds);
+			deleted.put("projects", result.getProjects());
+			deleted.put("materials", result.getMaterials());
+			deleted.put("steps", result.getSteps());
+			deleted.put("projectCategories", result.getProjectCategories());
+			return Map.of("deleted", deleted);
+		}
+		default:
+			throw new IllegalArgumentException("Unknown op " + command.op + ".");
+		}
+	}
+
+	/*
+	 * update(Map x) method
+	 *  - Writes the project fields present in the command. The project is built from its ID
+	 *    and version rather than changed in place, so a cached copy is never modified.
+	 */
+	private Map<String, Object> update(Map<String, Object> json) {
+		Integer projectId = json.containsKey("projectId") ? requiredInteger(json, "projectId") 
+				: currentProjectId;
+		
+		if (Objects.isNull(projectId)) {
+			throw new IllegalArgumentException("No projectId was given and no project is "
+					+ "selected.");
+		}
+		
+		Project project = new Project();
+		
+		project.setProjectId(projectId);
+		project.setVersion(json.containsKey("version") ? requiredInteger(json, "version") 
+				: projectService.fetchProjectById(projectId).getVersion());
+		
+		if (json.containsKey("projectName")) {
+			project.setProjectName(stringField(json, "projectName"));
+		}
+		
+		if (json.containsKey("estimatedHours")) {
+			project.setEstimatedHours(decimalField(json, "estimatedHours"));
+		}
+		
+		if (json.containsKey("actualHours")) {
+			project.setActualHours(decimalField(json, "actualHours"));
+		}
+		
+		if (json.containsKey("difficulty")) {
+			project.setDifficulty(asInteger(json.get("difficulty")));
+		}
+		
+		if (json.containsKey("notes")) {
+			project.setNotes(stringField(json, "notes"));
+		}
+		
+		if (!project.isDirty()) {
+			throw new IllegalArgumentException("The update has no project fields.");
+		}
+		
+		Project modified = projectService.modifyProjectDetails(project);
+		Map<String, Object> result = new LinkedHashMap<>();
+		
+		result.put("projectId", modified.getProjectId());
+		result.put("version", modified.getVersion());
+		return result;
+	}
+
+	private void clearCurrentProject(List<Integer> deletedIds) {
+		if (Objects.nonNull(currentProjectId) && deletedIds.contains(currentProjectId)) {
+			currentProjectId = null;
+		}
+	}
+
+	private void succeed(Command command, Map<String, Object> output) throws IOException {
+		Map<String, Object> result = result(command, true);
+		
+		result.putAll(output);
+		write(result);
+		succeeded++;
+	}
+
+	private void fail(Command command, RuntimeException e) throws IOException {
+		Map<String, Object> result = result(command, false);
+		
+		result.put("error", Objects.isNull(e.getMessage()) ? e.toString() : e.getMessage());
+		write(result);
+		failed++;
+	}
+
+	private static Map<String, Object> result(Command command, boolean ok) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		
+		result.put("line", command.lineNumber);
+		result.put("op", command.op);
+		result.put("ok", ok);
+		return result;
+	}
+
+	private void write(Map<String, Object> result) throws IOException {
+		line.setLength(0);
+		JsonLines.append(line, result).append('\n');
+		out.write(line.toString());
+	}
+
+	private static String stringField(Map<String, Object> json, String name) {
+		Object value = json.get(name);
+		return Objects.isNull(value) ? null : value.toString();
+	}
+
+	private static BigDecimal decimalField(Map<String, Object> json, String name) {
+		Object value = json.get(name);
+		return Objects.isNull(value) ? null : new BigDecimal(value.toString()).setScale(2);
+	}
+
+	private static Integer requiredInteger(Map<String, Object> json, String name) {
+		Integer value = asInteger(json.get(name));
+		
+		if (Objects.isNull(value)) {
+			throw new IllegalArgumentException("The command has no " + name + ".");
+		}
+		
+		return value;
+	}
+
+	private static Integer asInteger(Object value) {
+		if (Objects.isNull(value)) {
+			return null;
+		}
+		
+		if (!(value instanceof BigDecimal)) {
+			throw new IllegalArgumentException("Expected a number but found " + value);
+		}
+		
+		return ((BigDecimal) value).intValueExact();
+	}
+
+	private static List<?> listField(Map<String, Object> json, String name) {
+		Object value = json.get(name);
+		
+		if (!(value instanceof List)) {
+			throw new IllegalArgumentException("The command has no " + name + " array.");
+		}
+		
+		return (List<?>) value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> asObject(Object value) {
+		if (!(value instanceof Map)) {
+			throw new IllegalArgumentException("Expected a JSON object but found " + value);
+		}
+		
+		return (Map<String, Object>) value;
+	}
+
+	/*
+	 * Command class
+	 *  - One input line with what was parsed from it.
+	 */
+	private static class Command {
+		private final long lineNumber;
+		private Map<String, Object> json;
+		private String op;
+		private Project project;
+		private Integer projectId;
+
+		Command(long lineNumber) {
+			this.lineNumber = lineNumber;
+		}
+	}
+}
@@ -0,0 +1,489 @@
+package projects.analytics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * CatalogColumns class
+ *  - An in-memory, column-oriented copy of the project and material tables for analytics.
+ *    Each column is one primitive array indexed by row, so a million materials take four
+ *    arrays instead of millions of entity objects, boxed numbers and list nodes:
+ *      project:  int projectId, int projectName (dictionary code), byte difficulty,
+ *                long estimatedHours and actualHours (hundredths)
+ *      material: int projectRow (row of its project), int materialName (dictionary code),
+ *                int numRequired, long cost (cents)
+ *  - Aggregations split the rows into ranges on the common fork-join pool. Each range adds
+ *    into its own long[] of group totals and the partial arrays are summed as the tasks join,
+ *    so a scan allocates one small array per range and no entities. Per-project totals have
+ *    too many groups for that, so their ranges end on project boundaries and each writes its
+ *    own slice of a single result array.
+ *  - A null difficulty is stored as NO_DIFFICULTY and grouped in the UNKNOWN_DIFFICULTY
+ *    bucket. A null cost or num_required is stored as 0; like the project rollups, such a
+ *    material adds nothing to a cost total.
+ *  - The columns are immutable once built, so queries may run from any number of threads.
+ */
+
+public final class CatalogColumns {
+
+	public static final byte NO_DIFFICULTY = -1;
+	public static final long NO_HOURS = Long.MIN_VALUE;
+	public static final int MAX_DIFFICULTY = Byte.MAX_VALUE;
+	public static final int UNKNOWN_DIFFICULTY = MAX_DIFFICULTY + 1;
+	public static final int DIFFICULTY_BUCKETS = UNKNOWN_DIFFICULTY + 1;
+
+	/* Ranges below this many rows are not split further. */
+	private static final int MIN_SPLIT_ROWS = 8 * 1024;
+
+	private final int projectCount;
+	private final int[] projectIds;
+	private final int[] projectNames;
+	private final byte[] difficulties;
+	private final long[] estimatedHours;
+	private final long[] actualHours;
+	private final StringDictionary projectNameDictionary;
+
+	private final int materialCount;
+	private final int[] materialProjectRows;
+	private final int[] materialNames;
+	private final int[] numRequired;
+	private final long[] costCents;
+	private final StringDictionary materialNameDictionary;
+
+	private CatalogColumns(Builder builder) {
+		projectCount = builder.projectCount;
+		projectIds = Arrays.copyOf(builder.projectIds, projectCount);
+		projectNames = Arrays.copyOf(builder.projectNames, projectCount);
+		difficulties = Arrays.copyOf(builder.difficulties, projectCount);
+		estimatedHours = Arrays.copyOf(builder.estimatedHours, projectCount);
+		actualHours = Arrays.copyOf(builder.actualHours, projectCount);
+		projectNameDictionary = builder.projectNameDictionary;
+		
+		materialCount = builder.materialCount;
+		materialProjectRows = Arrays.copyOf(builder.materialProjectRows, materialCount);
+		materialNames = Arrays.copyOf(builder.materialNames, materialCount);
+		numRequired = Arrays.copyOf(builder.numRequired, materialCount);
+		costCents = Arrays.copyOf(builder.costCents, materialCount);
+		materialNameDictionary = builder.materialNameDictionary;
+	}
+
+	public int getProjectCount() {
+		return projectCount;
+	}
+
+	public int getMaterialCount() {
+		return materialCount;
+	}
+
+	public StringDictionary getProjectNameDictionary() {
+		return projectNameDictionary;
+	}
+
+	public StringDictionary getMaterialNameDictionary() {
+		return materialNameDictionary;
+	}
+
+	/*
+	 * materialCostCentsByDifficulty() method
+	 *  - Returns the material cost (cost * num_required, in cents) of the projects of each
+	 *    difficulty, indexed by difficulty, with projects that have none at UNKNOWN_DIFFICULTY.
+	 */
+	public long[] materialCostCentsByDifficulty() {
+		return groupSum(materialCount, DIFFICULTY_BUCKETS, (from, to, totals) -> {
+			for (int row = from; row < to; row++) {
+				totals[bucket(difficulties[materialProjectRows[row]])] += 
+						costCents[row] * numRequired[row];
+			}
+		});
+	}
+
+	/*
+	 * projectCountByDifficulty() method
+	 *  - Returns the number of projects of each difficulty, indexed like
+	 *    materialCostCentsByDifficulty().
+	 */
+	public long[] projectCountByDifficulty() {
+		return groupSum(projectCount, DIFFICULTY_BUCKETS, (from, to, totals) -> {
+			for (int row = from; row < to; row++) {
+				totals[bucket(difficulties[row])]++;
+			}
+		});
+	}
+
+	/*
+	 * totalCostByDifficulty() method
+	 *  - Returns the material cost of each difficulty that has projects, in difficulty order,
+	 *    with projects of unknown difficulty under a null key at the end.
+	 */
+	public Map<Integer, BigDecimal> totalCostByDifficulty() {
+		long[] costs = materialCostCentsByDifficulty();
+		long[] projects = projectCountByDifficulty();
+		Map<Integer, BigDecimal> totals = new LinkedHashMap<>();
+		
+		for (int bucket = 0; bucket < DIFFICULTY_BUCKETS; bucket++) {
+			if (projects[bucket] > 0) {
+				totals.put(bucket == UNKNOWN_DIFFICULTY ? null : bucket, 
+						BigDecimal.valueOf(costs[bucket], 2));
+			}
+		}
+		
+		return totals;
+	}
+
+	/*
+	 * hoursOverrunByDifficulty() method
+	 *  - Returns the sum of actual minus estimated hours (in hundredths) of the projects of
+	 *    each difficulty, indexed like materialCostCentsByDifficulty(). Projects missing either
+	 *    figure are left out.
+	 */
+	public long[] hoursOverrunByDifficulty() {
+		return groupSum(projectCount, DIFFICULTY_BUCKETS, (from, to, totals) -> {
+			for (int row = from; row < to; row++) {
+				if (estimatedHours[row] != NO_HOURS && actualHours[row] != NO_HOURS) {
+					totals[bucket(difficulties[row])] += actualHours[row] - estimatedHours[row];
+				}
+			}
+		});
+	}
+
+	/*
+	 * totalCostCents(int x, int y) method
+	 *  - Returns the material cost, in cents, of the projects whose difficulty is between
+	 *    minDifficulty and maxDifficulty inclusive.
+	 */
+	public long totalCostCents(int minDifficulty, int maxDifficulty) {
+		return groupSum(materialCount, 1, (from, to, totals) -> {
+			long total = 0;
+			
+			for (int row = from; row < to; row++) {
+				int difficulty = difficulties[materialProjectRows[row]];
+				
+				if (difficulty != NO_DIFFICULTY && difficulty >= minDifficulty 
+						&& difficulty <= maxDifficulty) {
+					total += costCents[row] * numRequired[row];
+				}
+			}
+			
+			totals[0] += total;
+		})[0];
+	}
+
+	/*
+	 * materialCostCentsByProject() method
+	 *  - Returns the material cost, in cents, of each project, indexed by project row. Use
+	 *    getProjectId() to turn a row into an ID.
+	 */
+	public long[] materialCostCentsByProject() {
+		long[] totals = new long[projectCount];
+		
+		ForkJoinPool.commonPool().invoke(
+				new ProjectCostTask(0, materialCount, splitRows(materialCount), totals));
+		return totals;
+	}
+
+	/*
+	 * topMaterialsByCost(int x) method
+	 *  - Returns the limit material names with the highest total cost across all projects,
+	 *    highest first. Materials are grouped by their dictionary code, so no strings are
+	 *    compared during the scan.
+	 */
+	public List<Map.Entry<String, BigDecimal>> topMaterialsByCost(int limit) {
+		long[] totals = groupSum(materialCount, materialNameDictionary.size(), (from, to, sums) -> {
+			for (int row = from; row < to; row++) {
+				if (materialNames[row] != StringDictionary.NULL_CODE) {
+					sums[materialNames[row]] += costCents[row] * numRequired[row];
+				}
+			}
+		});
+		Integer[] codes = new Integer[totals.length];
+		
+		for (int code = 0; code < codes.length; code++) {
+			codes[code] = code;
+		}
+		
+		Arrays.sort(codes, Comparator.comparingLong((Integer code) -> totals[code]).reversed());
+		
+		List<Map.Entry<String, BigDecimal>> top = new ArrayList<>();
+		
+		for (int index = 0; index < Math.min(limit, codes.length); index++) {
+			int code = codes[index];
+			
+			top.add(Map.entry(materialNameDictionary.decode(code), 
+					BigDecimal.valueOf(totals[code], 2)));
+		}
+		
+		return top;
+	}
+
+	/*
+	 * getProjectId(int x) method
+	 *  - Returns the project ID of a project row.
+	 */
+	public int getProjectId(int projectRow) {
+		return projectIds[projectRow];
+	}
+
+	/*
+	 * getProjectName(int x) method
+	 *  - Returns the project name of a project row.
+	 */
+	public String getProjectName(int projectRow) {
+		return projectNameDictionary.decode(projectNames[projectRow]);
+	}
+
+	private static int bucket(byte difficulty) {
+		return difficulty == NO_DIFFICULTY ? UNKNOWN_DIFFICULTY : difficulty;
+	}
+
+	/*
+	 * groupSum() method
+	 *  - Runs the aggregator over rows 0 up to rows in parallel and returns the element-wise sum
+	 *    of the group totals of every range.
+	 */
+	private static long[] groupSum(int rows, int groups, RangeAggregator aggregator) {
+		return ForkJoinPool.commonPool().invoke(
+				new GroupSumTask(0, rows, splitRows(rows), groups, aggregator));
+	}
+
+	private static int splitRows(int rows) {
+		int ranges = ForkJoinPool.getCommonPoolParallelism() * 4;
+		
+		return Math.max(MIN_SPLIT_ROWS, rows / Math.max(ranges, 1));
+	}
+
+	/*
+	 * projectBoundary(int x, int y, int z) method
+	 *  - Returns the first material row in from up to to whose project row is at least
+	 *    projectRow. Material rows are in project row order.
+	 */
+	private int projectBoundary(int from, int to, int projectRow) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			
+			if (materialProjectRows[middle] < projectRow) {
+				from = middle + 1;
+			} else {
+				to = middle;
+			}
+		}
+		
+		return from;
+	}
+
+	/*
+	 * RangeAggregator interface
+	 *  - Adds the rows from (inclusive) to to (exclusive) into the group totals.
+	 */
+	@FunctionalInterface
+	private interface RangeAggregator {
+		void accumulate(int from, int to, long[] totals);
+	}
+
+	/*
+	 * GroupSumTask class
+	 *  - Halves its range until it is at most splitRows long, aggregates the leaves and sums
+	 *    the two halves' totals on the way back up.
+	 */
+	private static final class GroupSumTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+		private final int splitRows;
+		private final int groups;
+		private final transient RangeAggregator aggregator;
+
+		GroupSumTask(int from, int to, int splitRows, int groups, RangeAggregator aggregator) {
+			this.from = from;
+			this.to = to;
+			this.splitRows = splitRows;
+			this.groups = groups;
+			this.aggregator = aggregator;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (to - from <= splitRows) {
+				long[] totals = new long[groups];
+				
+				aggregator.accumulate(from, to, totals);
+				return totals;
+			}
+			
+			int middle = (from + to) >>> 1;
+			GroupSumTask left = new GroupSumTask(from, middle, splitRows, groups, aggregator);
+			
+			left.fork();
+			
+			long[] totals = new GroupSumTask(middle, to, splitRows, groups, aggregator).compute();
+			long[] leftTotals = left.join();
+			
+			for (int group = 0; group < groups; group++) {
+				totals[group] += leftTotals[group];
+			}
+			
+			return totals;
+		}
+	}
+
+	/*
+	 * ProjectCostTask class
+	 *  - Halves its material range at the project boundary nearest the middle until it is at
+	 *    most splitRows long or holds a single project. No project spans two leaves, so the
+	 *    leaves add into disjoint elements of the shared totals array.
+	 */
+	private final class ProjectCostTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+		private final int splitRows;
+		private final long[] totals;
+
+		ProjectCostTask(int from, int to, int splitRows, long[] totals) {
+			this.from = from;
+			this.to = to;
+			this.splitRows = splitRows;
+			this.totals = totals;
+		}
+
+		@Override
+		protected void compute() {
+			int split = to - from <= splitRows ? from : split();
+			
+			if (split == from) {
+				for (int row = from; row < to; row++) {
+					totals[materialProjectRows[row]] += costCents[row] * numRequired[row];
+				}
+				return;
+			}
+			
+			invokeAll(new ProjectCostTask(from, split, splitRows, totals),
+					new ProjectCostTask(split, to, splitRows, totals));
+		}
+
+		/*
+		 * split() method
+		 *  - Returns the project boundary strictly inside the range nearest its middle, or from
+		 *    if the whole range belongs to one project.
+		 */
+		private int split() {
+			int middle = (from + to) >>> 1;
+			int projectRow = materialProjectRows[middle];
+			int before = projectBoundary(from, middle, projectRow);
+			int after = projectBoundary(middle, to, projectRow + 1);
+			
+			if (before == from) {
+				return after == to ? from : after;
+			}
+			
+			return after == to || middle - before <= after - middle ? before : after;
+		}
+	}
+
+	/*
+	 * Builder class
+	 *  - Appends rows to growable column arrays. Projects must be added in increasing project
+	 *    ID order, before their materials, so each material's project row can be found by
+	 *    binary search. Materials must be added in project order.
+	 */
+	public static final class Builder {
+		private int projectCount;
+		private int[] projectIds = new int[1024];
+		private int[] projectNames = new int[1024];
+		private byte[] difficulties = new byte[1024];
+		private long[] estimatedHours = new long[1024];
+		private long[] actualHours = new long[1024];
+		private final StringDictionary projectNameDictionary = new StringDictionary();
+
+		private int materialCount;
+		private int[] materialProjectRows = new int[4096];
+		private int[] materialNames = new int[4096];
+		private int[] numRequired = new int[4096];
+		private long[] costCents = new long[4096];
+		private final StringDictionary materialNameDictionary = new StringDictionary();
+
+		/*
+		 * addProject() method
+		 *  - Hours are in hundredths, or NO_HOURS for null. difficulty must be null or between
+		 *    0 and MAX_DIFFICULTY.
+		 */
+		public Builder addProject(int projectId, String projectName, Integer difficulty, 
+				long estimatedHundredths, long actualHundredths) {
+			if (projectCount > 0 && projectId <= projectIds[projectCount - 1]) {
+				throw new IllegalArgumentException("Projects must be added in increasing project "
+						+ "ID order, but " + projectId + " followed " 
+						+ projectIds[projectCount - 1]);
+			}
+			
+			if (Objects.nonNull(difficulty) && (difficulty < 0 || difficulty > MAX_DIFFICULTY)) {
+				throw new IllegalArgumentException("Project " + projectId + " has difficulty " 
+						+ difficulty + "; the analytics store holds 0 to " + MAX_DIFFICULTY + ".");
+			}
+			
+			if (projectCount == projectIds.length) {
+				int capacity = projectCount * 2;
+				
+				projectIds = Arrays.copyOf(projectIds, capacity);
+				projectNames = Arrays.copyOf(projectNames, capacity);
+				difficulties = Arrays.copyOf(difficulties, capacity);
+				estimatedHours = Arrays.copyOf(estimatedHours, capacity);
+				actualHours = Arrays.copyOf(actualHours, capacity);
+			}
+			
+			projectIds[projectCount] = projectId;
+			projectNames[projectCount] = projectNameDictionary.encode(projectName);
+			difficulties[projectCount] = Objects.isNull(difficulty) ? NO_DIFFICULTY 
+					: difficulty.byteValue();
+			estimatedHours[projectCount] = estimatedHundredths;
+			actualHours[projectCount] = actualHundredths;
+			projectCount++;
+			return this;
+		}
+
+		/*
+		 * addMaterial() method
+		 *  - The cost is in cents. Pass 0 for a null cost or num_required.
+		 */
+		public Builder addMaterial(int projectId, String materialName, int required, long cents) {
+			int projectRow = Arrays.binarySearch(projectIds, 0, projectCount, projectId);
+			
+			if (projectRow < 0) {
+				throw new IllegalArgumentException("Material of unknown project " + projectId);
+			}
+			
+			if (materialCount > 0 && projectRow < materialProjectRows[materialCount - 1]) {
+				throw new IllegalArgumentException("Material of project " + projectId 
+						+ " is out of project order");
+			}
+			
+			if (materialCount == materialProjectRows.length) {
+				int capacity = materialCount * 2;
+				
+				materialProjectRows = Arrays.copyOf(materialProjectRows, capacity);
+				materialNames = Arrays.copyOf(materialNames, capacity);
+				numRequired = Arrays.copyOf(numRequired, capacity);
+				costCents = Arrays.copyOf(costCents, capacity);
+			}
+			
+			materialProjectRows[materialCount] = projectRow;
+			materialNames[materialCount] = materialNameDictionary.encode(materialName);
+			numRequired[materialCount] = required;
+			costCents[materialCount] = cents;
+			materialCount++;
+			return this;
+		}
+
+		public CatalogColumns build() {
+			return new CatalogColumns(this);
+		}
+	}
+}
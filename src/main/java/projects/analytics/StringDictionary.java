@@ -0,0 +1,75 @@
+package projects.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+ * StringDictionary class
+ *  - Dictionary encoding for a string column: each distinct value is stored once and rows hold
+ *    its int code. Codes are assigned in first-seen order starting at 0; null has the code
+ *    NULL_CODE.
+ */
+
+public final class StringDictionary {
+
+	public static final int NULL_CODE = -1;
+
+	private final Map<String, Integer> codes = new HashMap<>();
+	private String[] values = new String[256];
+	private int size;
+
+	StringDictionary() {
+	}
+
+	/*
+	 * encode() method
+	 *  - Returns the code of the value, adding it if it is new.
+	 */
+	int encode(String value) {
+		if (Objects.isNull(value)) {
+			return NULL_CODE;
+		}
+		
+		Integer code = codes.get(value);
+		
+		if (Objects.nonNull(code)) {
+			return code;
+		}
+		
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		
+		values[size] = value;
+		codes.put(value, size);
+		return size++;
+	}
+
+	/*
+	 * codeOf() method
+	 *  - Returns the code of the value, or NULL_CODE if the column never holds it.
+	 */
+	public int codeOf(String value) {
+		Integer code = Objects.isNull(value) ? null : codes.get(value);
+		return Objects.isNull(code) ? NULL_CODE : code;
+	}
+
+	/*
+	 * decode() method
+	 *  - Returns the value with the given code.
+	 */
+	public String decode(int code) {
+		if (code == NULL_CODE) {
+			return null;
+		}
+		
+		Objects.checkIndex(code, size);
+		return values[code];
+	}
+
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,227 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import projects.entity.Category;
+import provided.util.DaoBase;
+import provided.util.SqlRegistry;
+
+/*
+ * CategoryDictionary class
+ *  - A process-wide, in-memory copy of the small category table.
+ *  - Each category is held as a single interned Category instance, so project loads fetch only
+ *    category IDs from project_category and resolve them here instead of joining category.
+ *    The shared instances are read-only: their setters throw UnsupportedOperationException.
+ *  - The whole table is loaded on first use and reloaded every reloadIntervalMillis. In
+ *    between, an unknown ID triggers an incremental refresh of rows with a higher
+ *    category_id than any already loaded.
+ */
+
+public class CategoryDictionary extends DaoBase {
+
+	private static final String CATEGORY_TABLE = "category";
+
+	// @formatter:off
+	private static final String LOAD_CATEGORIES_SQL = SqlRegistry.register(
+			"loadCategories", ""
+			+ "SELECT * FROM " + CATEGORY_TABLE + " ORDER BY category_id");
+
+	private static final String LOAD_NEW_CATEGORIES_SQL = SqlRegistry.register(
+			"loadNewCategories", ""
+			+ "SELECT * FROM " + CATEGORY_TABLE + " "
+			+ "WHERE category_id > ? "
+			+ "ORDER BY category_id");
+	// @formatter:on
+
+	private static final CategoryDictionary INSTANCE = new CategoryDictionary(
+			Long.getLong("projects.categories.reloadIntervalMillis", 300_000));
+
+	private final long reloadIntervalMillis;
+
+	private volatile Map<Integer, Category> byId = Collections.emptyMap();
+	private volatile Map<String, Category> byName = Collections.emptyMap();
+	private volatile long loadedAt;
+	private volatile boolean loaded;
+	private int highestId;
+
+	CategoryDictionary(long reloadIntervalMillis) {
+		this.reloadIntervalMillis = reloadIntervalMillis;
+	}
+
+	public static CategoryDictionary getInstance() {
+		return INSTANCE;
+	}
+
+	/*
+	 * resolve(Connection x, Integer y) method
+	 *  - Returns the interned Category for the ID, refreshing from the database if the ID is
+	 *    unknown or the dictionary is due for a reload.
+	 *  - Returns null if the category does not exist.
+	 */
+	public Category resolve(Connection conn, Integer categoryId) throws SQLException {
+		ensureFresh(conn);
+
+		Category category = byId.get(categoryId);
+
+		if (Objects.isNull(category)) {
+			refresh(conn);
+			category = byId.get(categoryId);
+		}
+
+		return category;
+	}
+
+	/*
+	 * findByName(Connection x, String y) method
+	 *  - Returns the interned Category with the given name, or null if it is not known.
+	 *  - Does not query for unknown names; new names are picked up by the next refresh.
+	 */
+	public Category findByName(Connection conn, String categoryName) throws SQLException {
+		ensureFresh(conn);
+		return byName.get(categoryName);
+	}
+
+	/*
+	 * register(Category x) method
+	 *  - Adds a category that was just inserted, so it resolves without a refresh.
+	 */
+	public synchronized void register(Category category) {
+		if (byId.containsKey(category.getCategoryId())) {
+			return;
+		}
+
+		Category interned = new InternedCategory(category);
+
+		Map<Integer, Category> newById = new HashMap<>(byId);
+		Map<String, Category> newByName = new HashMap<>(byName);
+
+		newById.put(interned.getCategoryId(), interned);
+		newByName.putIfAbsent(interned.getCategoryName(), interned);
+
+		byId = Collections.unmodifiableMap(newById);
+		byName = Collections.unmodifiableMap(newByName);
+	}
+
+	/*
+	 * reload(Connection x) method
+	 *  - Replaces the dictionary with the current contents of the category table.
+	 */
+	public synchronized void reload(Connection conn) throws SQLException {
+		Map<Integer, Category> newById = new HashMap<>();
+		Map<String, Category> newByName = new HashMap<>();
+		int newHighestId = 0;
+
+		try (PreparedStatement stmt = conn.prepareStatement(LOAD_CATEGORIES_SQL)) {
+			try (ResultSet rs = stmt.executeQuery()) {
+				for (Category row : extractAll(rs, Category.class)) {
+					Category category = new InternedCategory(row);
+					newById.put(category.getCategoryId(), category);
+					newByName.putIfAbsent(category.getCategoryName(), category);
+					newHighestId = Math.max(newHighestId, category.getCategoryId());
+				}
+			}
+		}
+
+		byId = Collections.unmodifiableMap(newById);
+		byName = Collections.unmodifiableMap(newByName);
+		highestId = newHighestId;
+		loadedAt = System.currentTimeMillis();
+		loaded = true;
+	}
+
+	/*
+	 * refresh(Connection x) method
+	 *  - Loads only the categories added since the last load.
+	 */
+	public synchronized void refresh(Connection conn) throws SQLException {
+		Map<Integer, Category> newById = null;
+		Map<String, Category> newByName = null;
+
+		try (PreparedStatement stmt = conn.prepareStatement(LOAD_NEW_CATEGORIES_SQL)) {
+			setParameter(stmt, 1, highestId, Integer.class);
+
+			try (ResultSet rs = stmt.executeQuery()) {
+				for (Category row : extractAll(rs, Category.class)) {
+					Category category = new InternedCategory(row);
+
+					if (Objects.isNull(newById)) {
+						newById = new HashMap<>(byId);
+						newByName = new HashMap<>(byName);
+					}
+
+					newById.put(category.getCategoryId(), category);
+					newByName.putIfAbsent(category.getCategoryName(), category);
+					highestId = Math.max(highestId, category.getCategoryId());
+				}
+			}
+		}
+
+		if (Objects.nonNull(newById)) {
+			byId = Collections.unmodifiableMap(newById);
+			byName = Collections.unmodifiableMap(newByName);
+		}
+	}
+
+	/*
+	 * intern(Category x) method
+	 *  - Returns the shared instance for a category with the same ID and name, or a read-only
+	 *    copy if the dictionary does not hold one.
+	 */
+	public Category intern(Category category) {
+		if (category instanceof InternedCategory) {
+			return category;
+		}
+
+		Category known = byId.get(category.getCategoryId());
+
+		if (Objects.nonNull(known)
+				&& Objects.equals(known.getCategoryName(), category.getCategoryName())) {
+			return known;
+		}
+
+		return new InternedCategory(category);
+	}
+
+	public int size() {
+		return byId.size();
+	}
+
+	private void ensureFresh(Connection conn) throws SQLException {
+		if (!loaded || System.currentTimeMillis() - loadedAt >= reloadIntervalMillis) {
+			synchronized (this) {
+				if (!loaded || System.currentTimeMillis() - loadedAt >= reloadIntervalMillis) {
+					reload(conn);
+				}
+			}
+		}
+	}
+
+	/*
+	 * InternedCategory class
+	 *  - A Category that cannot be changed once it is shared.
+	 */
+	private static final class InternedCategory extends Category {
+
+		InternedCategory(Category source) {
+			super.setCategoryId(source.getCategoryId());
+			super.setCategoryName(source.getCategoryName());
+		}
+
+		@Override
+		public void setCategoryId(Integer categoryId) {
+			throw new UnsupportedOperationException("Dictionary categories are read-only");
+		}
+
+		@Override
+		public void setCategoryName(String categoryName) {
+			throw new UnsupportedOperationException("Dictionary categories are read-only");
+		}
+	}
+}
@@ -0,0 +1,887 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import projects.exception.DbException;
+import provided.util.QueryTrace;
+import provided.util.SqlRegistry;
+
+/*
+ * ConnectionPool class
+ *  - Keeps a bounded set of physical MySQL connections open and lends them out.
+ *  - getConnection() hands back a proxy whose close() returns the physical connection to the
+ *    pool, so the DAO's try-with-resources blocks work unchanged.
+ *  - Connections that sat idle longer than the validation threshold are validated on borrow;
+ *    ones returned more recently are handed out as they are. Connections are retired once
+ *    they pass their max lifetime, evicted after sitting idle, and, if leak detection is
+ *    enabled, reported when held longer than the leak threshold.
+ *  - Each physical connection keeps a StatementCache, so closing a prepared statement parks
+ *    it for the next borrower that prepares the same SQL.
+ *  - A borrower may switch a connection to read-only; release() switches it back to the
+ *    pool's readOnly setting.
+ *  - The connection and statement proxies only unwrap to interfaces they implement
+ *    themselves, never to the driver's objects, which must not escape the pool.
+ */
+
+public class ConnectionPool implements AutoCloseable {
+
+	private static final long[] ACQUIRE_BUCKET_BOUNDS_MICROS =
+		{ 100, 1_000, 10_000, 100_000, 1_000_000 };
+
+	private final PoolConfig config;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = lock.newCondition();
+	private final Deque<PooledEntry> idle = new ArrayDeque<>();
+	private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+	private int totalConnections;
+	private int waiters;
+	private boolean closed;
+
+	private final LongAdder[] acquireHistogram = new LongAdder[ACQUIRE_BUCKET_BOUNDS_MICROS.length + 1];
+	private final LongAdder acquireCount = new LongAdder();
+	private final LongAdder acquireTimeouts = new LongAdder();
+	private final LongAdder connectionsCreated = new LongAdder();
+	private final LongAdder connectionsRetired = new LongAdder();
+	private final LongAdder leaksDetected = new LongAdder();
+
+	private final ScheduledExecutorService housekeeper;
+
+	public ConnectionPool(PoolConfig config) {
+		if (config.getMinSize() < 0 || config.getMaxSize() < 1
+				|| config.getMinSize() > config.getMaxSize()) {
+			throw new DbException("Invalid pool size: " + config);
+		}
+
+		this.config = config;
+
+		for (int i = 0; i < acquireHistogram.length; i++) {
+			acquireHistogram[i] = new LongAdder();
+		}
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "projects-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		fillToMinimum();
+
+		long interval = config.getHousekeepingIntervalMillis();
+
+		if (interval > 0) {
+			housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/*
+	 * getConnection() method
+	 *  - Borrows a validated connection, opening a new one if the pool is below its max size.
+	 *  - Waits up to acquireTimeoutMillis for a connection to be returned, then throws a
+	 *    DbException.
+	 */
+	public Connection getConnection() {
+		return getConnection(null);
+	}
+
+	/*
+	 * getConnection(Runnable x) method
+	 *  - Same as getConnection(), and runs writeReleaseListener (if not null) on the
+	 *    returning thread when the connection comes back without the read-only flag, i.e.
+	 *    after work that may have written.
+	 */
+	public Connection getConnection(Runnable writeReleaseListener) {
+		return borrow(writeReleaseListener, true);
+	}
+
+	/*
+	 * tryGetConnection() method
+	 *  - Same as getConnection(), but returns null at once instead of waiting when every
+	 *    connection is borrowed and the pool is at its max size. Does not count as an acquire
+	 *    timeout, so callers with somewhere else to go can tell a busy pool from a broken one.
+	 */
+	public Connection tryGetConnection() {
+		return borrow(null, false);
+	}
+
+	private Connection borrow(Runnable writeReleaseListener, boolean wait) {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getAcquireTimeoutMillis());
+
+		while (true) {
+			PooledEntry entry = null;
+			boolean create = false;
+
+			lock.lock();
+
+			try {
+				while (Objects.isNull(entry) && !create) {
+					if (closed) {
+						throw new DbException("The connection pool is closed.");
+					}
+
+					entry = idle.pollFirst();
+
+					if (Objects.isNull(entry)) {
+						if (totalConnections < config.getMaxSize()) {
+							totalConnections++;
+							create = true;
+						} else if (wait) {
+							awaitAvailable(deadline);
+						} else {
+							return null;
+						}
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			if (create) {
+				try {
+					entry = new PooledEntry(openPhysicalConnection(),
+							config.getStatementCacheSize());
+				} catch (SQLException e) {
+					releaseSlot();
+					throw new DbException(e);
+				}
+			} else if (!isUsable(entry)) {
+				retire(entry);
+				continue;
+			}
+
+			entry.writeReleaseListener = writeReleaseListener;
+			entry.borrowedAt = System.currentTimeMillis();
+			entry.leakReported = false;
+			entry.borrowSite = config.getLeakDetectionThresholdMillis() > 0
+					? new Throwable("Connection borrowed here") : null;
+			borrowed.add(entry);
+
+			recordAcquire(System.nanoTime() - start);
+
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new ConnectionHandle(entry));
+		}
+	}
+
+	/*
+	 * owns(Connection x) method
+	 *  - Returns true if the connection was borrowed from this pool.
+	 */
+	public boolean owns(Connection conn) {
+		return Proxy.isProxyClass(conn.getClass())
+				&& Proxy.getInvocationHandler(conn) instanceof ConnectionHandle
+				&& ((ConnectionHandle) Proxy.getInvocationHandler(conn)).getPool() == this;
+	}
+
+	/*
+	 * getActiveCount() method
+	 *  - Returns the number of borrowed connections without taking the pool lock, for callers
+	 *    that route on load.
+	 */
+	public int getActiveCount() {
+		return borrowed.size();
+	}
+
+	/*
+	 * getStats() method
+	 *  - Returns a point-in-time snapshot of the pool counters.
+	 */
+	public PoolStats getStats() {
+		int idleCount;
+		int total;
+		int waiting;
+
+		lock.lock();
+
+		try {
+			idleCount = idle.size();
+			total = totalConnections;
+			waiting = waiters;
+		} finally {
+			lock.unlock();
+		}
+
+		long[] histogram = new long[acquireHistogram.length];
+
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = acquireHistogram[i].sum();
+		}
+
+		return new PoolStats(borrowed.size(), idleCount, total, waiting, config.getMaxSize(),
+				acquireCount.sum(), acquireTimeouts.sum(), connectionsCreated.sum(),
+				connectionsRetired.sum(), leaksDetected.sum(), ACQUIRE_BUCKET_BOUNDS_MICROS, histogram);
+	}
+
+	/*
+	 * close() method
+	 *  - Stops housekeeping and closes every idle connection. Borrowed connections are closed
+	 *    as they are returned.
+	 */
+	@Override
+	public void close() {
+		List<PooledEntry> toClose;
+
+		lock.lock();
+
+		try {
+			closed = true;
+			toClose = new ArrayList<>(idle);
+			idle.clear();
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+
+		housekeeper.shutdownNow();
+		toClose.forEach(this::retire);
+	}
+
+	/*
+	 * awaitAvailable() method
+	 *  - Must be called with the lock held. Blocks until a connection is returned or the
+	 *    deadline passes.
+	 */
+	private void awaitAvailable(long deadline) {
+		long remaining = deadline - System.nanoTime();
+
+		if (remaining <= 0) {
+			acquireTimeouts.increment();
+			throw new DbException("Timed out after " + config.getAcquireTimeoutMillis()
+					+ "ms waiting for a database connection.");
+		}
+
+		waiters++;
+
+		try {
+			available.awaitNanos(remaining);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while waiting for a database connection.", e);
+		} finally {
+			waiters--;
+		}
+	}
+
+	/*
+	 * unwrap() method
+	 *  - Answers Wrapper.unwrap() for a connection or statement proxy with the proxy itself.
+	 *    The driver's object is never returned: a borrower holding it could keep using or
+	 *    close the physical connection after handing the proxy back.
+	 */
+	private static Object unwrap(Object proxy, Class<?> iface) throws SQLException {
+		if (iface.isInstance(proxy)) {
+			return proxy;
+		}
+
+		throw new SQLException("A pooled connection or statement cannot be unwrapped to "
+				+ iface.getName() + ".");
+	}
+
+	private Connection openPhysicalConnection() throws SQLException {
+		Connection conn = DriverManager.getConnection(config.getUrl(), config.getUser(),
+				config.getPassword());
+
+		if (config.isReadOnly()) {
+			try {
+				conn.setReadOnly(true);
+			} catch (SQLException e) {
+				conn.close();
+				throw e;
+			}
+		}
+
+		connectionsCreated.increment();
+		return conn;
+	}
+
+	/*
+	 * isUsable() method
+	 *  - A connection past its max lifetime is not usable. One returned within the last
+	 *    validationIdleThresholdMillis was working moments ago and is used without a check;
+	 *    older ones cost an isValid() round trip.
+	 */
+	private boolean isUsable(PooledEntry entry) {
+		long now = System.currentTimeMillis();
+
+		if (isExpired(entry, now)) {
+			return false;
+		}
+
+		if (now - entry.lastReturnedAt < config.getValidationIdleThresholdMillis()) {
+			return true;
+		}
+
+		try {
+			return entry.connection.isValid(config.getValidationTimeoutSeconds());
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private boolean isExpired(PooledEntry entry, long now) {
+		long maxLifetime = config.getMaxLifetimeMillis();
+		return maxLifetime > 0 && now - entry.createdAt >= maxLifetime;
+	}
+
+	/*
+	 * release() method
+	 *  - Called when a borrower closes its handle. Rolls back any open transaction and restores
+	 *    auto-commit and the read-only flag so the next borrower starts clean.
+	 */
+	private void release(PooledEntry entry) {
+		borrowed.remove(entry);
+		entry.borrowSite = null;
+
+		boolean readOnly;
+
+		try {
+			Connection conn = entry.connection;
+
+			if (!conn.getAutoCommit()) {
+				conn.rollback();
+				conn.setAutoCommit(true);
+			}
+
+			readOnly = conn.isReadOnly();
+
+			if (readOnly != config.isReadOnly()) {
+				conn.setReadOnly(config.isReadOnly());
+			}
+		} catch (SQLException e) {
+			retire(entry);
+			return;
+		}
+
+		Runnable listener = entry.writeReleaseListener;
+
+		entry.writeReleaseListener = null;
+
+		if (!readOnly && Objects.nonNull(listener)) {
+			listener.run();
+		}
+
+		long now = System.currentTimeMillis();
+
+		lock.lock();
+
+		try {
+			if (!closed && !isExpired(entry, now)) {
+				entry.lastReturnedAt = now;
+				idle.offerFirst(entry);
+				available.signal();
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		retire(entry);
+	}
+
+	private void retire(PooledEntry entry) {
+		entry.statementCache.closeAll();
+
+		try {
+			entry.connection.close();
+		} catch (SQLException e) {
+			/* The connection is being discarded anyway. */
+		}
+
+		connectionsRetired.increment();
+		releaseSlot();
+	}
+
+	private void releaseSlot() {
+		lock.lock();
+
+		try {
+			totalConnections--;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void recordAcquire(long elapsedNanos) {
+		long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+		int bucket = 0;
+
+		while (bucket < ACQUIRE_BUCKET_BOUNDS_MICROS.length
+				&& micros >= ACQUIRE_BUCKET_BOUNDS_MICROS[bucket]) {
+			bucket++;
+		}
+
+		acquireHistogram[bucket].increment();
+		acquireCount.increment();
+	}
+
+	/*
+	 * housekeep() method
+	 *  - Runs on the housekeeper thread. Reports leaks, evicts idle and expired connections,
+	 *    then tops the pool back up to its minimum size.
+	 */
+	private void housekeep() {
+		try {
+			long now = System.currentTimeMillis();
+
+			reportLeaks(now);
+			evictIdle(now);
+			fillToMinimum();
+		} catch (RuntimeException e) {
+			System.err.println("Connection pool housekeeping failed: " + e);
+		}
+	}
+
+	private void reportLeaks(long now) {
+		long threshold = config.getLeakDetectionThresholdMillis();
+
+		if (threshold <= 0) {
+			return;
+		}
+
+		for (PooledEntry entry : borrowed) {
+			Throwable borrowSite = entry.borrowSite;
+
+			if (!entry.leakReported && Objects.nonNull(borrowSite)
+					&& now - entry.borrowedAt > threshold) {
+				entry.leakReported = true;
+				leaksDetected.increment();
+
+				System.err.println("Possible connection leak: connection held for "
+						+ (now - entry.borrowedAt) + "ms.");
+				borrowSite.printStackTrace(System.err);
+			}
+		}
+	}
+
+	private void evictIdle(long now) {
+		List<PooledEntry> toClose = new ArrayList<>();
+		long idleTimeout = config.getIdleTimeoutMillis();
+
+		lock.lock();
+
+		try {
+			/* The tail of the deque holds the connections that have been idle longest. */
+			Iterator<PooledEntry> it = idle.descendingIterator();
+
+			while (it.hasNext()) {
+				PooledEntry entry = it.next();
+				boolean idleTooLong = idleTimeout > 0 && now - entry.lastReturnedAt >= idleTimeout
+						&& totalConnections - toClose.size() > config.getMinSize();
+
+				if (idleTooLong || isExpired(entry, now)) {
+					it.remove();
+					toClose.add(entry);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		toClose.forEach(this::retire);
+	}
+
+	private void fillToMinimum() {
+		while (true) {
+			lock.lock();
+
+			try {
+				if (closed || totalConnections >= config.getMinSize()) {
+					return;
+				}
+
+				totalConnections++;
+			} finally {
+				lock.unlock();
+			}
+
+			PooledEntry entry;
+
+			try {
+				entry = new PooledEntry(openPhysicalConnection(), config.getStatementCacheSize());
+			} catch (SQLException e) {
+				releaseSlot();
+				System.err.println("Unable to open a pooled connection: " + e.getMessage());
+				return;
+			}
+
+			lock.lock();
+
+			try {
+				idle.offerLast(entry);
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/*
+	 * PooledEntry class
+	 *  - One physical connection plus the bookkeeping the pool needs for it.
+	 */
+	private static class PooledEntry {
+		private final Connection connection;
+		private final StatementCache statementCache;
+		private final long createdAt;
+		private volatile long lastReturnedAt;
+		private volatile long borrowedAt;
+		private volatile Throwable borrowSite;
+		private volatile Runnable writeReleaseListener;
+		private volatile boolean leakReported;
+
+		PooledEntry(Connection connection, int statementCacheSize) {
+			this.connection = connection;
+			this.statementCache = new StatementCache(statementCacheSize);
+			this.createdAt = System.currentTimeMillis();
+			this.lastReturnedAt = createdAt;
+		}
+	}
+
+	/*
+	 * ConnectionHandle class
+	 *  - The invocation handler behind each borrowed Connection proxy. close() returns the
+	 *    physical connection to the pool once; every other call is forwarded.
+	 *  - prepareStatement() is served from the connection's statement cache when possible.
+	 *    Statements that bypass the cache are still wrapped while a QueryTrace or a
+	 *    QueryCanceller is bound to the thread, so neither depends on the cache being enabled.
+	 */
+	private class ConnectionHandle implements InvocationHandler {
+		private final PooledEntry entry;
+		private boolean handleClosed;
+
+		ConnectionHandle(PooledEntry entry) {
+			this.entry = entry;
+		}
+
+		ConnectionPool getPool() {
+			return ConnectionPool.this;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!handleClosed) {
+					handleClosed = true;
+					release(entry);
+				}
+				return null;
+			case "isClosed":
+				if (handleClosed) {
+					return true;
+				}
+				break;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection[" + entry.connection + "]";
+			case "unwrap":
+				return unwrap(proxy, (Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			default:
+				break;
+			}
+
+			if (handleClosed) {
+				throw new SQLException("Connection has already been returned to the pool.");
+			}
+
+			if (method.getName().equals("prepareStatement")) {
+				if (isCacheable(args)) {
+					return prepareCached((Connection) proxy, method, args);
+				}
+
+				if ((Objects.nonNull(QueryTrace.current())
+						|| Objects.nonNull(QueryCanceller.current())) && args[0] instanceof String) {
+					return prepareTraced((Connection) proxy, method, args);
+				}
+			}
+
+			try {
+				return method.invoke(entry.connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		/*
+		 * isCacheable() method
+		 *  - Caches prepareStatement(sql), (sql, autoGeneratedKeys) and (sql, type, concurrency).
+		 *    The column index and column name variants take arrays and are not cached.
+		 */
+		private boolean isCacheable(Object[] args) {
+			if (!entry.statementCache.isEnabled()) {
+				return false;
+			}
+
+			for (Object arg : args) {
+				if (!(arg instanceof String) && !(arg instanceof Integer)) {
+					return false;
+				}
+			}
+
+			return args.length <= 3;
+		}
+
+		private Object prepareCached(Connection connectionProxy, Method method, Object[] args)
+				throws Throwable {
+			List<Object> key = List.of(args);
+			PreparedStatement stmt = entry.statementCache.take(key);
+			boolean hit = Objects.nonNull(stmt);
+
+			if (!hit) {
+				try {
+					stmt = (PreparedStatement) method.invoke(entry.connection, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+
+			SqlRegistry.recordPrepare((String) args[0], hit);
+
+			return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class },
+					new StatementHandle(entry, key, stmt, connectionProxy, true));
+		}
+
+		/*
+		 * prepareTraced() method
+		 *  - Prepares a statement outside the cache and wraps it so the running trace or
+		 *    canceller sees it. Closing the wrapper closes the statement.
+		 */
+		private Object prepareTraced(Connection connectionProxy, Method method, Object[] args)
+				throws Throwable {
+			PreparedStatement stmt;
+
+			try {
+				stmt = (PreparedStatement) method.invoke(entry.connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+
+			return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class },
+					new StatementHandle(entry, List.of(args), stmt, connectionProxy, false));
+		}
+	}
+
+	/*
+	 * StatementHandle class
+	 *  - The invocation handler behind each wrapped PreparedStatement proxy. close() returns a
+	 *    cached statement to its connection's cache once, or closes an uncached one; every
+	 *    other call is forwarded.
+	 *  - While a QueryTrace is running on the calling thread, the bound parameters are kept and
+	 *    each execute is timed and reported to the trace with its SQL. Result sets are wrapped
+	 *    so that the time spent in next() is reported as fetch time.
+	 *  - While a QueryCanceller is bound to the calling thread, each execute is registered
+	 *    with it so another thread can cancel the statement.
+	 */
+	private static class StatementHandle implements InvocationHandler {
+		private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery",
+				"executeUpdate", "executeLargeUpdate", "executeBatch");
+
+		private final PooledEntry entry;
+		private final List<Object> key;
+		private final PreparedStatement stmt;
+		private final Connection connectionProxy;
+		private final boolean cached;
+		private boolean handleClosed;
+		private Object[] parameters = new Object[0];
+		private int batchSize;
+
+		StatementHandle(PooledEntry entry, List<Object> key, PreparedStatement stmt,
+				Connection connectionProxy, boolean cached) {
+			this.entry = entry;
+			this.key = key;
+			this.stmt = stmt;
+			this.connectionProxy = connectionProxy;
+			this.cached = cached;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!handleClosed) {
+					handleClosed = true;
+
+					if (cached) {
+						entry.statementCache.give(key, stmt);
+					} else {
+						stmt.close();
+					}
+				}
+				return null;
+			case "isClosed":
+				return handleClosed || stmt.isClosed();
+			case "getConnection":
+				return connectionProxy;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return (cached ? "CachedStatement[" : "TracedStatement[") + stmt + "]";
+			case "unwrap":
+				return unwrap(proxy, (Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			default:
+				break;
+			}
+
+			if (handleClosed) {
+				throw new SQLException("Statement has already been closed.");
+			}
+
+			QueryCanceller canceller = QueryCanceller.current();
+
+			if (Objects.isNull(canceller) || !EXECUTE_METHODS.contains(method.getName())) {
+				return invokeOrTrace(proxy, method, args);
+			}
+
+			canceller.starting(stmt);
+
+			try {
+				return invokeOrTrace(proxy, method, args);
+			} finally {
+				canceller.finished();
+			}
+		}
+
+		private Object invokeOrTrace(Object proxy, Method method, Object[] args) throws Throwable {
+			QueryTrace trace = QueryTrace.current();
+
+			if (Objects.nonNull(trace)) {
+				return invokeTraced(trace, proxy, method, args);
+			}
+
+			return forward(method, args);
+		}
+
+		private Object forward(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(stmt, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		/*
+		 * invokeTraced() method
+		 *  - Forwards the call, keeping parameters and reporting executes and result sets to the
+		 *    trace.
+		 */
+		private Object invokeTraced(QueryTrace trace, Object proxy, Method method, Object[] args)
+				throws Throwable {
+			String name = method.getName();
+
+			if (name.startsWith("set") && Objects.nonNull(args) && args.length >= 2
+					&& args[0] instanceof Integer) {
+				bindParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+			} else if (name.equals("clearParameters")) {
+				parameters = new Object[0];
+			} else if (name.equals("addBatch") && Objects.isNull(args)) {
+				batchSize++;
+			} else if (EXECUTE_METHODS.contains(name) && Objects.isNull(args)) {
+				long start = System.nanoTime();
+				Object result = forward(method, args);
+				long nanos = System.nanoTime() - start;
+
+				trace.recordExecute((String) key.get(0), parameters.clone(), batchSize, nanos, 
+						updateCount(result));
+				batchSize = 0;
+
+				return result instanceof ResultSet 
+						? traceResultSet(trace, proxy, (ResultSet) result) : result;
+			} else if (name.equals("getResultSet")) {
+				ResultSet rs = (ResultSet) forward(method, args);
+				return Objects.isNull(rs) ? null : traceResultSet(trace, proxy, rs);
+			}
+
+			return forward(method, args);
+		}
+
+		private void bindParameter(int parameterIndex, Object value) {
+			if (parameterIndex > parameters.length) {
+				parameters = Arrays.copyOf(parameters, parameterIndex);
+			}
+
+			parameters[parameterIndex - 1] = value;
+		}
+
+		/*
+		 * updateCount() method
+		 *  - Returns the rows written by an executeUpdate or executeBatch result. Batch entries
+		 *    the driver reports as SUCCESS_NO_INFO count as one row.
+		 */
+		private static long updateCount(Object result) {
+			if (result instanceof Number) {
+				return ((Number) result).longValue();
+			}
+
+			long rows = 0;
+
+			if (result instanceof int[]) {
+				for (int count : (int[]) result) {
+					rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+				}
+			}
+
+			return rows;
+		}
+
+		private static ResultSet traceResultSet(QueryTrace trace, Object statementProxy, 
+				ResultSet rs) {
+			return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+					new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+						switch (method.getName()) {
+						case "next": {
+							long start = System.nanoTime();
+							boolean found = rs.next();
+							trace.recordFetch(System.nanoTime() - start, found);
+							return found;
+						}
+						case "getStatement":
+							return statementProxy;
+						default:
+							try {
+								return method.invoke(rs, args);
+							} catch (InvocationTargetException e) {
+								throw e.getCause();
+							}
+						}
+					});
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package projects.dao;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 import projects.exception.DbException;
 
@@ -12,26 +14,228 @@ import projects.exception.DbException;
  */
 
 public class DbConnection {
-	
+
 	private static String HOST = "localhost";
 	private static int PORT  = 3306;
 	private static String SCHEMA = "projects";
 	private static String USER = "projects";
 	private static String PASSWORD = "projects";
-	
+
+	private static volatile ConnectionPool pool;
+	private static volatile ReplicaSet replicas;
+
+	/*
+	 * getConnection() method
+	 *  - Borrows a connection to the primary from the shared pool. Use it for writes.
+	 *  - Closing the returned connection hands it back to the pool.
+	 */
 	public static Connection getConnection() {
-		String url = String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s&useSSL=false", 
-				HOST, PORT, SCHEMA, USER, PASSWORD);
+		return getPool().getConnection();
+	}
+
+	/*
+	 * getConnection(ReadSession x) method
+	 *  - Borrows a connection to the primary for the session. Returning it without the
+	 *    read-only flag records a write on the session, which then reads its own writes.
+	 */
+	public static Connection getConnection(ReadSession session) {
+		return getPool().getConnection(Objects.isNull(session) ? null : session::recordWrite);
+	}
+
+	/*
+	 * getReadConnection() method
+	 *  - Borrows a read-only connection for queries, from a healthy replica when there is one.
+	 *    Read-only transactions let InnoDB skip allocating a transaction ID.
+	 *  - No session is tracked, so the read may not see writes that have not replicated yet.
+	 */
+	public static Connection getReadConnection() {
+		return getReadConnection(null);
+	}
+
+	/*
+	 * getReadConnection(ReadSession x) method
+	 *  - Same as getReadConnection(), but reads from the primary while the session has
+	 *    written within the last readYourWritesMillis (see ReadSession), so the session always
+	 *    sees its own recent writes. With no healthy replica, a primary connection is switched
+	 *    to read-only instead.
+	 */
+	public static Connection getReadConnection(ReadSession session) {
+		if (Objects.isNull(session) || !session.isRecentWriter()) {
+			Connection conn = getReplicas().getConnection();
+
+			if (Objects.nonNull(conn)) {
+				return conn;
+			}
+		}
+
+		return getPrimaryReadConnection();
+	}
 
-		System.out.println("Connecting to - " + url);
+	/*
+	 * getPrimaryReadConnection() method
+	 *  - Borrows a primary connection switched to read-only, for reads that must not lag the
+	 *    primary.
+	 */
+	public static Connection getPrimaryReadConnection() {
+		Connection conn = getPool().getConnection();
 
 		try {
-			Connection conn = DriverManager.getConnection(url);
-			System.out.println("Successfuly obtained connection!");
+			conn.setReadOnly(true);
 			return conn;
 		} catch (SQLException e) {
-			System.out.println("Error getting connection.");
+			try {
+				conn.close();
+			} catch (SQLException closeFailure) {
+				e.addSuppressed(closeFailure);
+			}
+
 			throw new DbException(e);
 		}
 	}
+
+	/*
+	 * isPrimary(Connection x) method
+	 *  - Returns true if the connection was borrowed from the primary's pool rather than a
+	 *    replica's.
+	 */
+	public static boolean isPrimary(Connection conn) {
+		return getPool().owns(conn);
+	}
+
+	/*
+	 * getReplicaStatus() method
+	 *  - Returns one line per configured replica with its health, lag and read count.
+	 */
+	public static List<String> getReplicaStatus() {
+		return getReplicas().getStatus();
+	}
+
+	/*
+	 * getPoolStats() method
+	 *  - Returns a snapshot of the active, idle and waiting counts and the acquire-time histogram.
+	 */
+	public static PoolStats getPoolStats() {
+		return getPool().getStats();
+	}
+
+	/*
+	 * shutdown() method
+	 *  - Closes the shared pool. The next getConnection() call opens a new one.
+	 */
+	public static synchronized void shutdown() {
+		if (Objects.nonNull(pool)) {
+			pool.close();
+			pool = null;
+		}
+
+		if (Objects.nonNull(replicas)) {
+			replicas.close();
+			replicas = null;
+		}
+	}
+
+	private static ConnectionPool getPool() {
+		ConnectionPool result = pool;
+
+		if (Objects.isNull(result)) {
+			synchronized (DbConnection.class) {
+				result = pool;
+
+				if (Objects.isNull(result)) {
+					result = new ConnectionPool(buildPoolConfig(
+							System.getProperty("projects.db.host", HOST),
+							Integer.getInteger("projects.db.port", PORT)));
+					pool = result;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private static ReplicaSet getReplicas() {
+		ReplicaSet result = replicas;
+
+		if (Objects.isNull(result)) {
+			synchronized (DbConnection.class) {
+				result = replicas;
+
+				if (Objects.isNull(result)) {
+					result = buildReplicaSet();
+					replicas = result;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * buildReplicaSet() method
+	 *  - Replicas are listed as -Dprojects.db.replicas=host:port[,host:port...] and share the
+	 *    schema, credentials and pool settings of the primary. None are configured by default.
+	 *  - -Dprojects.db.readRouting=ROUND_ROBIN|LEAST_LOADED picks the routing,
+	 *    -Dprojects.db.maxReplicaLagSeconds (default 5) the lag above which a replica is
+	 *    skipped, and -Dprojects.db.replicaCheckMillis (default 1000) how often lag is checked.
+	 */
+	private static ReplicaSet buildReplicaSet() {
+		List<PoolConfig> configs = new ArrayList<>();
+		String endpoints = System.getProperty("projects.db.replicas", "");
+
+		for (String endpoint : endpoints.split(",")) {
+			if (endpoint.isBlank()) {
+				continue;
+			}
+
+			String[] hostPort = endpoint.trim().split(":");
+			int port = hostPort.length > 1 ? Integer.parseInt(hostPort[1]) : PORT;
+
+			configs.add(buildPoolConfig(hostPort[0], port));
+		}
+
+		return new ReplicaSet(configs,
+				ReadRouting.valueOf(System.getProperty("projects.db.readRouting", "ROUND_ROBIN")),
+				Long.getLong("projects.db.maxReplicaLagSeconds", 5),
+				Long.getLong("projects.db.replicaCheckMillis", 1000));
+	}
+
+	/*
+	 * buildPoolConfig() method
+	 *  - Pool settings can be overridden with -Dprojects.pool.<setting>=<value> system properties.
+	 *  - The host, port, schema, user and password can be overridden with
+	 *    -Dprojects.db.<setting>=<value>, e.g. to point benchmarks at a scratch database.
+	 *  - The password is passed separately from the URL so it is never printed.
+	 *  - useLocalSessionState lets the pool check the auto-commit and read-only flags on
+	 *    every release without a round trip.
+	 */
+	private static PoolConfig buildPoolConfig(String host, int port) {
+		PoolConfig config = new PoolConfig();
+
+		config.setUrl(String.format("jdbc:mysql://%s:%d/%s?useSSL=false&allowMultiQueries=true"
+				+ "&useCursorFetch=true&rewriteBatchedStatements=true&useServerPrepStmts=true"
+				+ "&useLocalSessionState=true",
+				host, port, System.getProperty("projects.db.schema", SCHEMA)));
+		config.setUser(System.getProperty("projects.db.user", USER));
+		config.setPassword(System.getProperty("projects.db.password", PASSWORD));
+
+		config.setMinSize(Integer.getInteger("projects.pool.minSize", config.getMinSize()));
+		config.setMaxSize(Integer.getInteger("projects.pool.maxSize", config.getMaxSize()));
+		config.setAcquireTimeoutMillis(Long.getLong("projects.pool.acquireTimeoutMillis",
+				config.getAcquireTimeoutMillis()));
+		config.setIdleTimeoutMillis(Long.getLong("projects.pool.idleTimeoutMillis",
+				config.getIdleTimeoutMillis()));
+		config.setMaxLifetimeMillis(Long.getLong("projects.pool.maxLifetimeMillis",
+				config.getMaxLifetimeMillis()));
+		config.setLeakDetectionThresholdMillis(Long.getLong(
+				"projects.pool.leakDetectionThresholdMillis", config.getLeakDetectionThresholdMillis()));
+		config.setValidationIdleThresholdMillis(Long.getLong(
+				"projects.pool.validationIdleThresholdMillis",
+				config.getValidationIdleThresholdMillis()));
+		config.setStatementCacheSize(Integer.getInteger("projects.pool.statementCacheSize",
+				config.getStatementCacheSize()));
+
+		System.err.println("Connecting to - " + config.getUrl() + " (" + config + ")");
+
+		return config;
+	}
 }
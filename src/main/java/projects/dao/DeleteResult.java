@@ -0,0 +1,63 @@
+package projects.dao;
+
+/*
+ * DeleteResult class
+ *  - An immutable count of the rows removed by a bulk delete, per table, and of the chunks
+ *    committed so far. Bulk deletes pass one to the progress callback after every chunk and
+ *    return the final one.
+ */
+
+public class DeleteResult {
+
+	private final int chunks;
+	private final long projects;
+	private final long materials;
+	private final long steps;
+	private final long projectCategories;
+	private final long elapsedMillis;
+
+	DeleteResult(int chunks, long projects, long materials, long steps, long projectCategories,
+			long elapsedMillis) {
+		this.chunks = chunks;
+		this.projects = projects;
+		this.materials = materials;
+		this.steps = steps;
+		this.projectCategories = projectCategories;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public int getChunks() {
+		return chunks;
+	}
+
+	public long getProjects() {
+		return projects;
+	}
+
+	public long getMaterials() {
+		return materials;
+	}
+
+	public long getSteps() {
+		return steps;
+	}
+
+	public long getProjectCategories() {
+		return projectCategories;
+	}
+
+	public long getTotalRows() {
+		return projects + materials + steps + projectCategories;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "DeleteResult[chunks=" + chunks + ", projects=" + projects + ", materials=" + materials
+				+ ", steps=" + steps + ", projectCategories=" + projectCategories + ", elapsedMillis="
+				+ elapsedMillis + "]";
+	}
+}
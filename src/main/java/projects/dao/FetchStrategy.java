@@ -0,0 +1,16 @@
+package projects.dao;
+
+/*
+ * FetchStrategy enum
+ *  - Selects how ProjectDao.fetchProjectById() loads a project with its materials, steps and
+ *    categories.
+ *     - SEPARATE_QUERIES: one query for the project and one per child table (four round trips).
+ *     - MULTI_STATEMENT: all four SELECTs sent as one statement, read back as four result sets
+ *       (one round trip). Requires allowMultiQueries=true on the JDBC URL.
+ *     - JOIN: a single LEFT JOIN across all child tables, de-duplicated in memory (one round
+ *       trip). The join returns materials x steps x categories rows, so it suits small graphs.
+ */
+
+public enum FetchStrategy {
+	SEPARATE_QUERIES, MULTI_STATEMENT, JOIN
+}
@@ -0,0 +1,152 @@
+package projects.dao;
+
+/*
+ * PoolConfig class
+ *  - Holds the sizing and timing settings used by ConnectionPool.
+ *  - All times are in milliseconds. A value of 0 disables that check.
+ *  - Leak detection is off by default because it records a stack trace on every borrow.
+ *  - A connection is only validated on borrow if it has been idle for at least
+ *    validationIdleThresholdMillis; 0 validates on every borrow.
+ *  - readOnly opens every connection read-only, for pools that point at a replica.
+ */
+
+public class PoolConfig {
+
+	private String url;
+	private String user;
+	private String password;
+
+	private int minSize = 2;
+	private int maxSize = 10;
+	private long acquireTimeoutMillis = 30_000;
+	private long idleTimeoutMillis = 600_000;
+	private long maxLifetimeMillis = 1_800_000;
+	private long leakDetectionThresholdMillis;
+	private long housekeepingIntervalMillis = 30_000;
+	private long validationIdleThresholdMillis = 1_000;
+	private int validationTimeoutSeconds = 5;
+	private int statementCacheSize = 64;
+	private boolean readOnly;
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public String getUser() {
+		return user;
+	}
+
+	public void setUser(String user) {
+		this.user = user;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public long getAcquireTimeoutMillis() {
+		return acquireTimeoutMillis;
+	}
+
+	public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+	}
+
+	public long getIdleTimeoutMillis() {
+		return idleTimeoutMillis;
+	}
+
+	public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+		this.idleTimeoutMillis = idleTimeoutMillis;
+	}
+
+	public long getMaxLifetimeMillis() {
+		return maxLifetimeMillis;
+	}
+
+	public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+		this.maxLifetimeMillis = maxLifetimeMillis;
+	}
+
+	public long getLeakDetectionThresholdMillis() {
+		return leakDetectionThresholdMillis;
+	}
+
+	public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+		this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+	}
+
+	public long getHousekeepingIntervalMillis() {
+		return housekeepingIntervalMillis;
+	}
+
+	public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) {
+		this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+	}
+
+	public long getValidationIdleThresholdMillis() {
+		return validationIdleThresholdMillis;
+	}
+
+	public void setValidationIdleThresholdMillis(long validationIdleThresholdMillis) {
+		this.validationIdleThresholdMillis = validationIdleThresholdMillis;
+	}
+
+	public int getValidationTimeoutSeconds() {
+		return validationTimeoutSeconds;
+	}
+
+	public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+	}
+
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
+	@Override
+	public String toString() {
+		return "minSize=" + minSize + ", maxSize=" + maxSize + ", acquireTimeoutMillis="
+				+ acquireTimeoutMillis + ", idleTimeoutMillis=" + idleTimeoutMillis
+				+ ", maxLifetimeMillis=" + maxLifetimeMillis + ", leakDetectionThresholdMillis="
+				+ leakDetectionThresholdMillis + ", validationIdleThresholdMillis="
+				+ validationIdleThresholdMillis + ", statementCacheSize=" + statementCacheSize
+				+ ", readOnly=" + readOnly;
+	}
+}
@@ -0,0 +1,101 @@
+package projects.dao;
+
+import java.util.Arrays;
+
+/*
+ * PoolStats class
+ *  - An immutable snapshot of the state of a ConnectionPool.
+ *  - The acquire-time histogram holds one count per bucket. Bucket i counts borrows that
+ *    took less than getAcquireBucketBoundsMicros()[i] microseconds; the final bucket counts
+ *    everything slower than the largest bound.
+ */
+
+public class PoolStats {
+
+	private final int active;
+	private final int idle;
+	private final int total;
+	private final int waiters;
+	private final int maxSize;
+	private final long acquireCount;
+	private final long acquireTimeouts;
+	private final long connectionsCreated;
+	private final long connectionsRetired;
+	private final long leaksDetected;
+	private final long[] acquireBucketBoundsMicros;
+	private final long[] acquireHistogram;
+
+	PoolStats(int active, int idle, int total, int waiters, int maxSize, long acquireCount,
+			long acquireTimeouts, long connectionsCreated, long connectionsRetired, long leaksDetected,
+			long[] acquireBucketBoundsMicros, long[] acquireHistogram) {
+		this.active = active;
+		this.idle = idle;
+		this.total = total;
+		this.waiters = waiters;
+		this.maxSize = maxSize;
+		this.acquireCount = acquireCount;
+		this.acquireTimeouts = acquireTimeouts;
+		this.connectionsCreated = connectionsCreated;
+		this.connectionsRetired = connectionsRetired;
+		this.leaksDetected = leaksDetected;
+		this.acquireBucketBoundsMicros = acquireBucketBoundsMicros.clone();
+		this.acquireHistogram = acquireHistogram.clone();
+	}
+
+	public int getActive() {
+		return active;
+	}
+
+	public int getIdle() {
+		return idle;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public int getWaiters() {
+		return waiters;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getAcquireCount() {
+		return acquireCount;
+	}
+
+	public long getAcquireTimeouts() {
+		return acquireTimeouts;
+	}
+
+	public long getConnectionsCreated() {
+		return connectionsCreated;
+	}
+
+	public long getConnectionsRetired() {
+		return connectionsRetired;
+	}
+
+	public long getLeaksDetected() {
+		return leaksDetected;
+	}
+
+	public long[] getAcquireBucketBoundsMicros() {
+		return acquireBucketBoundsMicros.clone();
+	}
+
+	public long[] getAcquireHistogram() {
+		return acquireHistogram.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "active=" + active + ", idle=" + idle + ", total=" + total + ", waiters=" + waiters
+				+ ", maxSize=" + maxSize + ", acquireCount=" + acquireCount + ", acquireTimeouts="
+				+ acquireTimeouts + ", created=" + connectionsCreated + ", retired="
+				+ connectionsRetired + ", leaksDetected=" + leaksDetected + ", acquireHistogram(us <"
+				+ Arrays.toString(acquireBucketBoundsMicros) + ")=" + Arrays.toString(acquireHistogram);
+	}
+}
@@ -1,21 +1,56 @@
 package projects.dao;
 
 import java.math.BigDecimal;
+import java.text.Collator;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import projects.analytics.CatalogColumns;
 import projects.entity.Category;
+import projects.entity.CategoryRollup;
 import projects.entity.Material;
 import projects.entity.Project;
+import projects.entity.ProjectRollup;
+import projects.entity.ProjectSearchHit;
 import projects.entity.Step;
 import projects.exception.DbException;
+import projects.exception.OptimisticLockException;
 import provided.util.DaoBase;
+import provided.util.DaoMetrics;
+import provided.util.JmxMetricsExporter;
+import provided.util.OperationMetrics;
+import provided.util.RowMapper;
+import provided.util.SlowQueryLog;
+import provided.util.SqlRegistry;
 
 public class ProjectDao extends DaoBase {
 	
@@ -24,6 +59,419 @@ public class ProjectDao extends DaoBase {
 	private static final String PROJECT_TABLE = "project";
 	private static final String PROJECT_CATEGORY_TABLE = "project_category";
 	private static final String STEP_TABLE = "step";
+	private static final String PROJECT_SUMMARY_TABLE = "project_summary";
+	
+	/*
+	 * Fixed SQL is built once and registered by name in the SqlRegistry, which reports the
+	 * statement cache hit rate for each name.
+	 */
+	// @formatter:off
+	private static final String INSERT_PROJECT_SQL = SqlRegistry.register(
+			"insertProject", ""
+			+ "INSERT INTO " + PROJECT_TABLE + " "
+			+ "(project_name, estimated_hours, actual_hours, difficulty, notes) "
+			+ "VALUES "
+			+ "(?, ?, ?, ?, ?)");
+	
+	private static final String FETCH_PROJECT_SQL = SqlRegistry.register(
+			"fetchProject", ""
+			+ "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?");
+	
+	private static final String FETCH_PROJECT_GRAPH_MULTI_SQL = SqlRegistry.register(
+			"fetchProjectGraphMultiStatement", ""
+			+ "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?; "
+			+ "SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id = ?; "
+			+ "SELECT * FROM " + STEP_TABLE + " WHERE project_id = ? ORDER BY step_order; "
+			+ "SELECT category_id FROM " + PROJECT_CATEGORY_TABLE + " "
+			+ "WHERE project_id = ? ORDER BY category_id");
+	
+	private static final String FETCH_PROJECT_GRAPH_JOIN_SQL = SqlRegistry.register(
+			"fetchProjectGraphJoin", ""
+			+ "SELECT p.*, "
+			+ "m.material_id, m.material_name, m.num_required, m.cost, "
+			+ "s.step_id, s.step_text, s.step_order, "
+			+ "pc.category_id "
+			+ "FROM " + PROJECT_TABLE + " p "
+			+ "LEFT JOIN " + MATERIAL_TABLE + " m ON m.project_id = p.project_id "
+			+ "LEFT JOIN " + STEP_TABLE + " s ON s.project_id = p.project_id "
+			+ "LEFT JOIN " + PROJECT_CATEGORY_TABLE + " pc ON pc.project_id = p.project_id "
+			+ "WHERE p.project_id = ? "
+			+ "ORDER BY s.step_order, s.step_id");
+	
+	private static final String FETCH_MATERIALS_SQL = SqlRegistry.register(
+			"fetchMaterialsForProject", ""
+			+ "SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id = ?");
+	
+	private static final String FETCH_STEPS_SQL = SqlRegistry.register(
+			"fetchStepsForProject", ""
+			+ "SELECT * FROM " + STEP_TABLE + " WHERE project_id = ? ORDER BY step_order");
+	
+	private static final String FETCH_CATEGORY_IDS_SQL = SqlRegistry.register(
+			"fetchCategoryIdsForProject", ""
+			+ "SELECT category_id FROM " + PROJECT_CATEGORY_TABLE + " "
+			+ "WHERE project_id = ? "
+			+ "ORDER BY category_id");
+	
+	/*
+	 * Each MATCH names exactly the columns of a FULLTEXT index (project_text and step_text in
+	 * the schema), so both branches are answered from the full-text indexes. A project's
+	 * relevance is the sum of its own score and the scores of its matching steps.
+	 */
+	private static final String SEARCH_PROJECTS_SQL = SqlRegistry.register(
+			"searchProjects", ""
+			+ "SELECT p.project_id, p.project_name, p.estimated_hours, p.actual_hours, "
+			+ "p.difficulty, hits.relevance "
+			+ "FROM ("
+			+ "SELECT project_id, SUM(score) AS relevance FROM ("
+			+ "SELECT project_id, MATCH (project_name, notes) AGAINST (?) AS score "
+			+ "FROM " + PROJECT_TABLE + " WHERE MATCH (project_name, notes) AGAINST (?) "
+			+ "UNION ALL "
+			+ "SELECT project_id, MATCH (step_text) AGAINST (?) AS score "
+			+ "FROM " + STEP_TABLE + " WHERE MATCH (step_text) AGAINST (?)"
+			+ ") scored GROUP BY project_id"
+			+ ") hits "
+			+ "JOIN " + PROJECT_TABLE + " p ON p.project_id = hits.project_id "
+			+ "ORDER BY hits.relevance DESC, p.project_id "
+			+ "LIMIT ? OFFSET ?");
+	
+	/*
+	 * The rollup queries read project_summary, which the schema's triggers keep up to date as
+	 * projects, materials, steps and category links change. The top-N queries walk the
+	 * material_cost_id and hours_variance_id indexes backwards and stop after limit rows.
+	 */
+	private static final String FETCH_PROJECT_ROLLUP_SQL = SqlRegistry.register(
+			"fetchProjectRollup", ""
+			+ "SELECT ps.*, p.project_name "
+			+ "FROM " + PROJECT_SUMMARY_TABLE + " ps "
+			+ "JOIN " + PROJECT_TABLE + " p ON p.project_id = ps.project_id "
+			+ "WHERE ps.project_id = ?");
+	
+	private static final String FETCH_TOP_PROJECTS_BY_COST_SQL = SqlRegistry.register(
+			"fetchTopProjectsByCost", ""
+			+ "SELECT ps.*, p.project_name "
+			+ "FROM " + PROJECT_SUMMARY_TABLE + " ps "
+			+ "JOIN " + PROJECT_TABLE + " p ON p.project_id = ps.project_id "
+			+ "ORDER BY ps.material_cost DESC, ps.project_id DESC "
+			+ "LIMIT ?");
+	
+	private static final String FETCH_TOP_PROJECTS_BY_OVERRUN_SQL = SqlRegistry.register(
+			"fetchTopProjectsByOverrun", ""
+			+ "SELECT ps.*, p.project_name "
+			+ "FROM " + PROJECT_SUMMARY_TABLE + " ps "
+			+ "JOIN " + PROJECT_TABLE + " p ON p.project_id = ps.project_id "
+			+ "WHERE ps.hours_variance > 0 "
+			+ "ORDER BY ps.hours_variance DESC, ps.project_id DESC "
+			+ "LIMIT ?");
+	
+	private static final String FETCH_CATEGORY_ROLLUPS_SQL = SqlRegistry.register(
+			"fetchCategoryRollups", ""
+			+ "SELECT c.category_id, c.category_name, COUNT(*) AS project_count, "
+			+ "SUM(ps.material_cost) AS material_cost, SUM(ps.step_count) AS step_count, "
+			+ "AVG(ps.hours_variance) AS average_hours_variance "
+			+ "FROM " + CATEGORY_TABLE + " c "
+			+ "JOIN " + PROJECT_CATEGORY_TABLE + " pc ON pc.category_id = c.category_id "
+			+ "JOIN " + PROJECT_SUMMARY_TABLE + " ps ON ps.project_id = pc.project_id "
+			+ "GROUP BY c.category_id, c.category_name "
+			+ "ORDER BY c.category_name");
+	
+	private static final String REBUILD_PROJECT_SUMMARIES_SQL = SqlRegistry.register(
+			"rebuildProjectSummaries", ""
+			+ "INSERT INTO " + PROJECT_SUMMARY_TABLE + " "
+			+ "(project_id, material_cost, material_count, step_count, category_count, "
+			+ "hours_variance) "
+			+ "SELECT * FROM ("
+			+ "SELECT p.project_id, COALESCE(m.material_cost, 0) AS material_cost, "
+			+ "COALESCE(m.material_count, 0) AS material_count, "
+			+ "COALESCE(s.step_count, 0) AS step_count, "
+			+ "COALESCE(c.category_count, 0) AS category_count, "
+			+ "p.actual_hours - p.estimated_hours AS hours_variance "
+			+ "FROM " + PROJECT_TABLE + " p "
+			+ "LEFT JOIN (SELECT project_id, "
+			+ "SUM(COALESCE(cost * num_required, 0)) AS material_cost, "
+			+ "COUNT(*) AS material_count FROM " + MATERIAL_TABLE + " GROUP BY project_id) m "
+			+ "ON m.project_id = p.project_id "
+			+ "LEFT JOIN (SELECT project_id, COUNT(*) AS step_count FROM " + STEP_TABLE + " "
+			+ "GROUP BY project_id) s ON s.project_id = p.project_id "
+			+ "LEFT JOIN (SELECT project_id, COUNT(*) AS category_count "
+			+ "FROM " + PROJECT_CATEGORY_TABLE + " GROUP BY project_id) c "
+			+ "ON c.project_id = p.project_id"
+			+ ") rebuilt "
+			+ "ON DUPLICATE KEY UPDATE material_cost = rebuilt.material_cost, "
+			+ "material_count = rebuilt.material_count, step_count = rebuilt.step_count, "
+			+ "category_count = rebuilt.category_count, hours_variance = rebuilt.hours_variance");
+	
+	/*
+	 * The export cursors read each table in project ID order so they can be merge-joined. The
+	 * child tables are ordered by (project_id, primary key), which their project_id indexes
+	 * already hold; steps are put in step_order per project in memory.
+	 */
+	private static final String EXPORT_PROJECTS_SQL = SqlRegistry.register(
+			"exportProjects", ""
+			+ "SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_id");
+	
+	private static final String EXPORT_MATERIALS_SQL = SqlRegistry.register(
+			"exportMaterials", ""
+			+ "SELECT * FROM " + MATERIAL_TABLE + " ORDER BY project_id, material_id");
+	
+	private static final String EXPORT_STEPS_SQL = SqlRegistry.register(
+			"exportSteps", ""
+			+ "SELECT * FROM " + STEP_TABLE + " ORDER BY project_id, step_id");
+	
+	private static final String EXPORT_CATEGORY_IDS_SQL = SqlRegistry.register(
+			"exportCategoryIds", ""
+			+ "SELECT project_id, category_id FROM " + PROJECT_CATEGORY_TABLE + " "
+			+ "ORDER BY project_id, category_id");
+	
+	/*
+	 * The analytics cursors convert decimals to integer hundredths in SQL so each column is
+	 * read with getLong() and nothing is boxed per row.
+	 */
+	private static final String LOAD_CATALOG_PROJECTS_SQL = SqlRegistry.register(
+			"loadCatalogProjects", ""
+			+ "SELECT project_id, project_name, difficulty, "
+			+ "CAST(estimated_hours * 100 AS SIGNED) AS estimated_hundredths, "
+			+ "CAST(actual_hours * 100 AS SIGNED) AS actual_hundredths "
+			+ "FROM " + PROJECT_TABLE + " ORDER BY project_id");
+	
+	private static final String LOAD_CATALOG_MATERIALS_SQL = SqlRegistry.register(
+			"loadCatalogMaterials", ""
+			+ "SELECT project_id, material_name, COALESCE(num_required, 0) AS num_required, "
+			+ "COALESCE(CAST(cost * 100 AS SIGNED), 0) AS cost_cents "
+			+ "FROM " + MATERIAL_TABLE + " ORDER BY project_id, material_id");
+	
+	private static final String INSERT_MATERIAL_SQL = SqlRegistry.register(
+			"insertMaterial", ""
+			+ "INSERT INTO " + MATERIAL_TABLE + " "
+			+ "(project_id, material_name, num_required, cost) "
+			+ "VALUES "
+			+ "(?, ?, ?, ?)");
+	
+	private static final String INSERT_STEP_SQL = SqlRegistry.register(
+			"insertStep", ""
+			+ "INSERT INTO " + STEP_TABLE + " "
+			+ "(project_id, step_text, step_order) "
+			+ "VALUES "
+			+ "(?, ?, ?)");
+	
+	private static final String INSERT_PROJECT_CATEGORY_SQL = SqlRegistry.register(
+			"insertProjectCategory", ""
+			+ "INSERT INTO " + PROJECT_CATEGORY_TABLE + " "
+			+ "(project_id, category_id) "
+			+ "VALUES "
+			+ "(?, ?)");
+	
+	private static final String DELETE_PROJECT_SQL = SqlRegistry.register(
+			"deleteProject", ""
+			+ "DELETE FROM " + PROJECT_TABLE + " WHERE project_id = ?");
+	
+	private static final String FETCH_ALL_PROJECTS_SQL = SqlRegistry.register(
+			"fetchAllProjects", ""
+			+ "SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_name");
+	
+	private static final String FETCH_PROJECTS_FIRST_PAGE_SQL = SqlRegistry.register(
+			"fetchProjectsFirstPage", ""
+			+ "SELECT * FROM " + PROJECT_TABLE + " "
+			+ "ORDER BY project_name, project_id "
+			+ "LIMIT ?");
+	
+	private static final String FETCH_PROJECTS_NEXT_PAGE_SQL = SqlRegistry.register(
+			"fetchProjectsNextPage", ""
+			+ "SELECT * FROM " + PROJECT_TABLE + " "
+			+ "WHERE project_name > ? OR (project_name = ? AND project_id > ?) "
+			+ "ORDER BY project_name, project_id "
+			+ "LIMIT ?");
+	
+	private static final String LOCK_STEP_ORDER_SQL = SqlRegistry.register(
+			"lockStepOrder", ""
+			+ "SELECT step_id, step_order FROM " + STEP_TABLE + " "
+			+ "WHERE project_id = ? "
+			+ "ORDER BY step_order, step_id "
+			+ "FOR UPDATE");
+	
+	private static final String UPDATE_STEP_ORDER_SQL = SqlRegistry.register(
+			"updateStepOrder", ""
+			+ "UPDATE " + STEP_TABLE + " SET step_order = ? WHERE step_id = ?");
+	
+	private static final String DELETE_STEP_SQL = SqlRegistry.register(
+			"deleteStep", ""
+			+ "DELETE FROM " + STEP_TABLE + " WHERE step_id = ?");
+	
+	private static final String INSERT_CATEGORY_SQL = SqlRegistry.register(
+			"insertCategory", ""
+			+ "INSERT INTO " + CATEGORY_TABLE + " (category_name) VALUES (?) "
+			+ "ON DUPLICATE KEY UPDATE category_name = category_name");
+	
+	/*
+	 * IN-list templates. IN_LIST stands for the parenthesized placeholder list, which
+	 * inListSql() expands and registers once per list size, e.g. as fetchProjectsByIds[64].
+	 */
+	private static final String IN_LIST = "(:in)";
+	
+	private static final String FETCH_PROJECTS_BY_IDS_SQL = ""
+			+ "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id IN " + IN_LIST;
+	
+	private static final String FETCH_MATERIALS_BY_PROJECT_IDS_SQL = ""
+			+ "SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id IN " + IN_LIST + " "
+			+ "ORDER BY project_id, material_id";
+	
+	private static final String FETCH_STEPS_BY_PROJECT_IDS_SQL = ""
+			+ "SELECT * FROM " + STEP_TABLE + " WHERE project_id IN " + IN_LIST + " "
+			+ "ORDER BY project_id, step_order";
+	
+	private static final String FETCH_CATEGORY_IDS_BY_PROJECT_IDS_SQL = ""
+			+ "SELECT project_id, category_id FROM " + PROJECT_CATEGORY_TABLE + " "
+			+ "WHERE project_id IN " + IN_LIST + " "
+			+ "ORDER BY project_id, category_id";
+	
+	private static final String FETCH_CATEGORY_IDS_BY_NAME_SQL = ""
+			+ "SELECT category_id, category_name FROM " + CATEGORY_TABLE + " "
+			+ "WHERE category_name IN " + IN_LIST;
+	
+	private static final String DELETE_PROJECT_CHUNK_SQL = ""
+			+ "SELECT COUNT(*) FROM " + PROJECT_TABLE + " "
+			+ "WHERE project_id IN " + IN_LIST + " FOR UPDATE; "
+			+ "SELECT "
+			+ "(SELECT COUNT(*) FROM " + MATERIAL_TABLE + " WHERE project_id IN " + IN_LIST + "), "
+			+ "(SELECT COUNT(*) FROM " + STEP_TABLE + " WHERE project_id IN " + IN_LIST + "), "
+			+ "(SELECT COUNT(*) FROM " + PROJECT_CATEGORY_TABLE + " "
+			+ "WHERE project_id IN " + IN_LIST + "); "
+			+ "DELETE FROM " + PROJECT_TABLE + " WHERE project_id IN " + IN_LIST;
+	// @formatter:on
+	
+	/*
+	 * modifyProjectDetails() statements, one for each set of dirty columns with and without a
+	 * version check, built and registered when the class loads. Columns are always written in
+	 * PROJECT_DETAIL_COLUMNS order, so a set of dirty columns has a single statement whatever
+	 * order they were changed in.
+	 */
+	private static final List<String> PROJECT_DETAIL_COLUMNS = List.of("project_name", 
+			"estimated_hours", "actual_hours", "difficulty", "notes");
+	
+	private static final String[] MODIFY_PROJECT_DETAILS_SQL = modifyProjectDetailsSql();
+	
+	private static final ConcurrentMap<String, String> IN_LIST_SQL = new ConcurrentHashMap<>();
+	
+	private static final int ID_CHUNK_SIZE = 1000;
+	private static final int INSERT_BATCH_SIZE = 1000;
+	private static final int STEP_ORDER_GAP = 1024;
+
+	/*
+	 * Every operation records its latency, rows read and written, connection acquire time,
+	 * commits, rollbacks and errors by SQLState. The recorders are exported as JMX MBeans in
+	 * the projects.dao domain unless -Dprojects.metrics.jmx=false. The child fetch operations
+	 * are only recorded by the SEPARATE_QUERIES strategy; the other strategies read the
+	 * children in the fetchProjectById round trip.
+	 */
+	// @formatter:off
+	private static final OperationMetrics INSERT_PROJECT_METRICS =
+			DaoMetrics.operation("insertProject");
+	private static final OperationMetrics INSERT_PROJECTS_METRICS =
+			DaoMetrics.operation("insertProjects");
+	private static final OperationMetrics INSERT_PROJECT_GRAPH_METRICS =
+			DaoMetrics.operation("insertProjectGraph");
+	private static final OperationMetrics ADD_STEPS_METRICS =
+			DaoMetrics.operation("addSteps");
+	private static final OperationMetrics INSERT_STEP_METRICS =
+			DaoMetrics.operation("insertStep");
+	private static final OperationMetrics MOVE_STEP_METRICS =
+			DaoMetrics.operation("moveStep");
+	private static final OperationMetrics DELETE_STEP_METRICS =
+			DaoMetrics.operation("deleteStep");
+	private static final OperationMetrics FETCH_ALL_PROJECTS_METRICS =
+			DaoMetrics.operation("fetchAllProjects");
+	private static final OperationMetrics FETCH_PROJECTS_PAGE_METRICS =
+			DaoMetrics.operation("fetchProjectsPage");
+	private static final OperationMetrics STREAM_ALL_PROJECTS_METRICS =
+			DaoMetrics.operation("streamAllProjects");
+	private static final OperationMetrics FETCH_PROJECT_BY_ID_METRICS =
+			DaoMetrics.operation("fetchProjectById");
+	private static final OperationMetrics FETCH_PROJECTS_BY_IDS_METRICS =
+			DaoMetrics.operation("fetchProjectsByIds");
+	private static final OperationMetrics SEARCH_PROJECTS_METRICS =
+			DaoMetrics.operation("searchProjects");
+	private static final OperationMetrics FETCH_PROJECT_ROLLUP_METRICS =
+			DaoMetrics.operation("fetchProjectRollup");
+	private static final OperationMetrics FETCH_TOP_PROJECTS_BY_COST_METRICS =
+			DaoMetrics.operation("fetchTopProjectsByCost");
+	private static final OperationMetrics FETCH_TOP_PROJECTS_BY_OVERRUN_METRICS =
+			DaoMetrics.operation("fetchTopProjectsByOverrun");
+	private static final OperationMetrics FETCH_CATEGORY_ROLLUPS_METRICS =
+			DaoMetrics.operation("fetchCategoryRollups");
+	private static final OperationMetrics REBUILD_PROJECT_SUMMARIES_METRICS =
+			DaoMetrics.operation("rebuildProjectSummaries");
+	private static final OperationMetrics EXPORT_PROJECT_GRAPHS_METRICS =
+			DaoMetrics.operation("exportProjectGraphs");
+	private static final OperationMetrics IMPORT_PROJECT_GRAPHS_METRICS =
+			DaoMetrics.operation("importProjectGraphs");
+	private static final OperationMetrics LOAD_CATALOG_COLUMNS_METRICS =
+			DaoMetrics.operation("loadCatalogColumns");
+	private static final OperationMetrics FETCH_MATERIALS_METRICS =
+			DaoMetrics.operation("fetchMaterialsForProject");
+	private static final OperationMetrics FETCH_STEPS_METRICS =
+			DaoMetrics.operation("fetchStepsForProject");
+	private static final OperationMetrics FETCH_CATEGORIES_METRICS =
+			DaoMetrics.operation("fetchCategoriesForProject");
+	private static final OperationMetrics MODIFY_PROJECT_METRICS =
+			DaoMetrics.operation("modifyProjectDetails");
+	private static final OperationMetrics DELETE_PROJECT_METRICS =
+			DaoMetrics.operation("deleteProject");
+	private static final OperationMetrics DELETE_PROJECTS_METRICS =
+			DaoMetrics.operation("deleteProjects");
+	private static final OperationMetrics DELETE_PROJECTS_WHERE_METRICS =
+			DaoMetrics.operation("deleteProjectsWhere");
+	// @formatter:on
+
+	/*
+	 * Operations slower than -Dprojects.slowQuery.thresholdMillis are kept in the SlowQueryLog
+	 * ring buffer of -Dprojects.slowQuery.capacity entries. The default of -1 disables the log,
+	 * and with it the per-operation trace and result set wrapping, so set a threshold to enable
+	 * it. Parameter values are logged only with -Dprojects.slowQuery.redactParameters=false,
+	 * and EXPLAIN plans are captured with -Dprojects.slowQuery.explain=true.
+	 */
+	static {
+		if (Boolean.parseBoolean(System.getProperty("projects.metrics.jmx", "true"))) {
+			DaoMetrics.addExporter(new JmxMetricsExporter("projects.dao"));
+		}
+		
+		boolean redact = Boolean.parseBoolean(
+				System.getProperty("projects.slowQuery.redactParameters", "true"));
+		Supplier<Connection> explainSource = Boolean.getBoolean("projects.slowQuery.explain") 
+				? DbConnection::getConnection : null;
+		
+		SlowQueryLog.configure(Long.getLong("projects.slowQuery.thresholdMillis", -1), 
+				Integer.getInteger("projects.slowQuery.capacity", 256), redact, explainSource);
+	}
+
+	private int streamFetchSize = Integer.getInteger("projects.fetchSize", 500);
+	
+	/*
+	 * deleteChunk() binds every ID five times, and MySQL allows at most 65535 placeholders in
+	 * one statement.
+	 */
+	private static final int MAX_DELETE_CHUNK_SIZE = 65_535 / 5;
+	
+	private int deleteChunkSize = validDeleteChunkSize(
+			Integer.getInteger("projects.delete.chunkSize", 500));
+	private long deletePauseMillis = Long.getLong("projects.delete.pauseMillis", 0);
+	
+	private CategoryDictionary categoryDictionary = CategoryDictionary.getInstance();
+	
+	private FetchStrategy fetchStrategy = FetchStrategy.valueOf(
+			System.getProperty("projects.fetchStrategy", FetchStrategy.MULTI_STATEMENT.name()));
+	
+	private final ReadSession session;
+	
+	public ProjectDao() {
+		this(new ReadSession());
+	}
+	
+	/*
+	 * ProjectDao(ReadSession x) constructor
+	 *  - Reads through this DAO see the writes made through every DAO sharing the session.
+	 */
+	public ProjectDao(ReadSession session) {
+		this.session = session;
+	}
 	
 	/*
 	 * insertProjecet() method
@@ -32,281 +480,2408 @@ public class ProjectDao extends DaoBase {
 	 *  - Returns the Project object with the primary key.
 	 */
 	public Project insertProject(Project project) {
-		// @formatter:off
-		String sql = ""
-				+ "INSERT INTO " + PROJECT_TABLE + " "
-				+ "(project_name, estimated_hours, actual_hours, difficulty, notes) "
-				+ "VALUES "
-				+ "(?, ?, ?, ?, ?)";
-		// @formatter:on
-		
-		try (Connection conn = DbConnection.getConnection()) {
+		long start = startOperation(INSERT_PROJECT_METRICS);
+		
+		try (Connection conn = getConnection(INSERT_PROJECT_METRICS)) {
 			startTransaction(conn);
 			
-			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-				setParameter(stmt, 1, project.getProjectName(), String.class);
-				setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-				setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-				setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-				setParameter(stmt, 5, project.getNotes(), String.class);
+			try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL, 
+					Statement.RETURN_GENERATED_KEYS)) {
+				setProjectParameters(stmt, project);
 				
-				stmt.executeUpdate();
+				int rows = stmt.executeUpdate();
 				
-				Integer projectId = getLastInsertId(conn, PROJECT_TABLE);
-				commitTransaction(conn);
+				Integer projectId = getGeneratedId(stmt);
+				commitTransaction(conn, INSERT_PROJECT_METRICS);
+				INSERT_PROJECT_METRICS.recordRowsWritten(rows);
 				
 				project.setProjectId(projectId);
+				markInserted(project);
 				return project;
 			} catch (Exception e ) {
-				rollbackTransaction(conn);
+				INSERT_PROJECT_METRICS.recordError(e);
+				rollbackTransaction(conn, INSERT_PROJECT_METRICS);
 				throw new DbException(e);
 			}
 		} catch (SQLException e) {
+			INSERT_PROJECT_METRICS.recordError(e);
 			throw new DbException(e);
+		} finally {
+			endOperation(INSERT_PROJECT_METRICS, start);
 		}
 	}
 
 	/*
-	 * fetchAllProjects() method
-	 *  - Handles an SQL statement to retrieve all projects. 
-	 *  - If connection and SQL statement do not throw errors, all projects printed. 
-	 *  - Returns nothing.
+	 * insertProjects(List x) method
+	 *  - One parameter (List<Project> projects).
+	 *  - Inserts the project rows in JDBC batches of INSERT_BATCH_SIZE within one transaction.
+	 *    With rewriteBatchedStatements the driver sends each batch as a multi-row INSERT.
+	 *  - Sets the generated primary key on each Project and returns the list.
 	 */
-	public List<Project> fetchAllProjects() {
-		String sql = "SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_name";
+	public List<Project> insertProjects(List<Project> projects) {
+		if (projects.isEmpty()) {
+			return projects;
+		}
+		
+		long start = startOperation(INSERT_PROJECTS_METRICS);
 		
-		try (Connection conn = DbConnection.getConnection()) {
+		try (Connection conn = getConnection(INSERT_PROJECTS_METRICS)) {
 			startTransaction(conn);
 			
-			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-				try (ResultSet rs = stmt.executeQuery()) {
-					List<Project> projects = new LinkedList<>();	
-					
-					while (rs.next()) {
-						/*
-						 * What the extract() method does: 
-						 * 
-						 *	Project project = new Project();
-						 *	project.setActualHours(rs.getBigDecimal("actual_hours"));
-						 *	project.setDifficulty(rs.getObject("difficulty", Integer.class));
-						 * 	project.setEstimatedHours(rs.getBigDecimal("estimated_hours"));
-						 *  project.setNotes(rs.getString("notes"));
-						 *	project.setProjectId(rs.getObject("project_id", Integer.class));
-						 *	project.setProjectName(rs.getString("project_name"));
-						 */
-						
-						projects.add(extract(rs, Project.class));
+			try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL, 
+					Statement.RETURN_GENERATED_KEYS)) {
+				for (List<Project> batch : partition(projects, INSERT_BATCH_SIZE)) {
+					for (Project project : batch) {
+						setProjectParameters(stmt, project);
+						stmt.addBatch();
 					}
 					
-					return projects;
+					stmt.executeBatch();
+					
+					Iterator<Integer> ids = getGeneratedIds(stmt, batch.size()).iterator();
+					
+					for (Project project : batch) {
+						project.setProjectId(ids.next());
+					}
 				}
+				
+				commitTransaction(conn, INSERT_PROJECTS_METRICS);
+				INSERT_PROJECTS_METRICS.recordRowsWritten(projects.size());
+				projects.forEach(this::markInserted);
+				return projects;
 			} catch (Exception e) {
-				rollbackTransaction(conn);
+				INSERT_PROJECTS_METRICS.recordError(e);
+				rollbackTransaction(conn, INSERT_PROJECTS_METRICS);
 				throw new DbException(e);
 			}
 		} catch (SQLException e) {
+			INSERT_PROJECTS_METRICS.recordError(e);
 			throw new DbException(e);
+		} finally {
+			endOperation(INSERT_PROJECTS_METRICS, start);
 		}
 	}
-	
+
 	/*
-	 * fetchProjectById(Integer x) method
-	 *  - One parameter(Integer projectId).
-	 *  - Retrieves a Project row and all associated child rows.
-	 *  - Returns an Optional of type Project.
+	 * insertProjectGraph(Project x) method
+	 *  - One parameter (Project project).
+	 *  - Inserts the project with its materials, steps and categories in one transaction.
+	 *     - Materials and steps are each written as one batched INSERT.
+	 *     - Categories are resolved by name; names that do not exist yet are created.
+	 *     - The project_category links are written as one batched INSERT.
+	 *  - Steps with no step_order are spaced STEP_ORDER_GAP apart in list order. Generated IDs
+	 *    are set on the project and on every child.
+	 *  - Returns the Project object with the primary keys.
 	 */
-	public Optional<Project> fetchProjectById(Integer projectId) {
-		String sql = "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+	public Project insertProjectGraph(Project project) {
+		long start = startOperation(INSERT_PROJECT_GRAPH_METRICS);
 		
-		try (Connection conn = DbConnection.getConnection()) {
+		try (Connection conn = getConnection(INSERT_PROJECT_GRAPH_METRICS)) {
+			GraphIds original = new GraphIds(List.of(project));
+			
 			startTransaction(conn);
 			
 			try {
-				Project project = null;
-				
-				try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-					setParameter(stmt, 1, projectId, Integer.class);
-					
-					try (ResultSet rs = stmt.executeQuery()) {
-						if (rs.next()) {
-							project = extract(rs, Project.class);
-						}
-					}
+				try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL, 
+						Statement.RETURN_GENERATED_KEYS)) {
+					setProjectParameters(stmt, project);
+					stmt.executeUpdate();
+					project.setProjectId(getGeneratedId(stmt));
 				}
 				
-				if (Objects.nonNull(project)) {
-					project.getMaterials().addAll(fetchMaterialsForProject(conn, projectId));
-					project.getSteps().addAll(fetchStepsForProject(conn, projectId));
-					project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
-				}
+				insertMaterials(conn, project.getProjectId(), project.getMaterials());
+				insertSteps(conn, project.getProjectId(), project.getSteps());
+				resolveCategories(conn, project.getCategories());
+				insertProjectCategories(conn, project.getProjectId(), project.getCategories());
 				
-				commitTransaction(conn);
+				commitTransaction(conn, INSERT_PROJECT_GRAPH_METRICS);
+				INSERT_PROJECT_GRAPH_METRICS.recordRowsWritten(graphRowCount(project));
+				markInserted(project);
 				
-				return Optional.ofNullable(project);
+				/* Only committed categories are added to the dictionary. */
+				project.getCategories().forEach(categoryDictionary::register);
 				
+				return project;
 			} catch (Exception e) {
-				rollbackTransaction(conn);
+				INSERT_PROJECT_GRAPH_METRICS.recordError(e);
+				rollbackTransaction(conn, INSERT_PROJECT_GRAPH_METRICS);
+				original.restore();
 				throw new DbException(e);
 			}
 		} catch (SQLException e) {
+			INSERT_PROJECT_GRAPH_METRICS.recordError(e);
 			throw new DbException(e);
+		} finally {
+			endOperation(INSERT_PROJECT_GRAPH_METRICS, start);
 		}
 	}
 
 	/*
-	 * fetchMaterialForProject(Connection x, Integer y) method
-	 *  - Two parameters; a Connection conn & and an Integer projectId).
-	 *  - Returns the Materials for a given Project.
-	 *  - Returns a List of type Material.
+	 * insertMaterials(Connection x, Integer y, List z) method
+	 *  - Inserts the materials for a project as one batch and sets their IDs.
 	 */
-	private List<Material> fetchMaterialsForProject(Connection conn, Integer projectId) 
-		throws SQLException {
-		String sql = "SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id = ?";
+	private void insertMaterials(Connection conn, Integer projectId, List<Material> materials) 
+			throws SQLException {
+		if (materials.isEmpty()) {
+			return;
+		}
 		
-		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-			setParameter(stmt, 1, projectId, Integer.class);
+		try (PreparedStatement stmt = conn.prepareStatement(INSERT_MATERIAL_SQL, 
+				Statement.RETURN_GENERATED_KEYS)) {
+			for (Material material : materials) {
+				material.setProjectId(projectId);
+				
+				setParameter(stmt, 1, projectId, Integer.class);
+				setParameter(stmt, 2, material.getMaterialName(), String.class);
+				setParameter(stmt, 3, material.getNumRequired(), Integer.class);
+				setParameter(stmt, 4, material.getCost(), BigDecimal.class);
+				stmt.addBatch();
+			}
 			
-			try (ResultSet rs = stmt.executeQuery()) {
-				List<Material> materials = new LinkedList<>();
+			stmt.executeBatch();
+			
+			Iterator<Integer> ids = getGeneratedIds(stmt, materials.size()).iterator();
+			
+			for (Material material : materials) {
+				material.setMaterialId(ids.next());
+			}
+		}
+	}
+
+	/*
+	 * insertSteps(Connection x, Integer y, List z) method
+	 *  - Inserts the steps for a project as one batch and sets their IDs.
+	 *  - A step with no step_order is placed STEP_ORDER_GAP after the previous step.
+	 */
+	private void insertSteps(Connection conn, Integer projectId, List<Step> steps) 
+			throws SQLException {
+		if (steps.isEmpty()) {
+			return;
+		}
+		
+		try (PreparedStatement stmt = conn.prepareStatement(INSERT_STEP_SQL, 
+				Statement.RETURN_GENERATED_KEYS)) {
+			int stepOrder = 0;
+			
+			for (Step step : steps) {
+				stepOrder = Objects.isNull(step.getStepOrder()) 
+						? stepOrder + STEP_ORDER_GAP : step.getStepOrder();
 				
-				while (rs.next()) {
-					materials.add(extract(rs, Material.class));
-				}
+				step.setProjectId(projectId);
+				step.setStepOrder(stepOrder);
 				
-				return materials;
+				setParameter(stmt, 1, projectId, Integer.class);
+				setParameter(stmt, 2, step.getStepText(), String.class);
+				setParameter(stmt, 3, step.getStepOrder(), Integer.class);
+				stmt.addBatch();
+			}
+			
+			stmt.executeBatch();
+			
+			Iterator<Integer> ids = getGeneratedIds(stmt, steps.size()).iterator();
+			
+			for (Step step : steps) {
+				step.setStepId(ids.next());
 			}
 		}
 	}
-	
+
 	/*
-	 * fetchStepsForProject(Connection x, Integer y) method
-	 *  - Two parameters; a Connection conn & and an Integer projectId).
-	 *  - Returns the Steps for a given Project.
-	 *  - Returns a List of type Step.
+	 * addSteps(Integer x, List y) method
+	 *  - Appends the steps to the end of a project's step list in one transaction.
+	 *  - All of the step_order values are allocated with one query, STEP_ORDER_GAP apart, and
+	 *    the steps are written as one batched INSERT.
+	 *  - Returns the steps with their IDs and orders set.
 	 */
-	private List<Step> fetchStepsForProject(Connection conn, Integer projectId) 
-		throws SQLException {
-		String sql = "SELECT * FROM " + STEP_TABLE + " WHERE project_id = ?";
+	public List<Step> addSteps(Integer projectId, List<Step> steps) {
+		if (steps.isEmpty()) {
+			return steps;
+		}
 		
-		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-			setParameter(stmt, 1, projectId, Integer.class);
+		long start = startOperation(ADD_STEPS_METRICS);
+		
+		try (Connection conn = getConnection(ADD_STEPS_METRICS)) {
+			startTransaction(conn);
 			
-			try (ResultSet rs = stmt.executeQuery()) {
-				List<Step> steps = new LinkedList<>();
+			try {
+				Iterator<Integer> orders = allocateSequenceNumbers(conn, projectId, STEP_TABLE, 
+						"project_id", "step_order", steps.size(), STEP_ORDER_GAP).iterator();
 				
-				while (rs.next()) {
-					steps.add(extract(rs, Step.class));
+				for (Step step : steps) {
+					step.setStepOrder(orders.next());
 				}
 				
+				insertSteps(conn, projectId, steps);
+				
+				commitTransaction(conn, ADD_STEPS_METRICS);
+				ADD_STEPS_METRICS.recordRowsWritten(steps.size());
 				return steps;
+			} catch (Exception e) {
+				ADD_STEPS_METRICS.recordError(e);
+				rollbackTransaction(conn, ADD_STEPS_METRICS);
+				throw new DbException(e);
 			}
+		} catch (SQLException e) {
+			ADD_STEPS_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(ADD_STEPS_METRICS, start);
 		}
 	}
-	
+
 	/*
-	 * fetchCategoriesForProject(Connection x, Integer y) method
-	 *  - Two parameters; a Connection conn & and an Integer projectId).
-	 *  - Returns the Categories for a given Project.
-	 *  - Returns a List of type Category.
+	 * insertStep(Integer x, Step y, Integer z) method
+	 *  - Inserts a step just before the step with ID beforeStepId, or at the end if
+	 *    beforeStepId is null.
+	 *  - The new step takes the midpoint of its neighbors' orders, so no other row is updated
+	 *    unless the gap has run out.
+	 *  - Returns the step with its ID and order set.
 	 */
-	private List<Category> fetchCategoriesForProject(Connection conn, Integer projectId) 
-		throws SQLException {
-		// @formatter:off
-		String sql = ""
-				+ "SELECT c.* FROM " + CATEGORY_TABLE + " c "
-				+ "JOIN " + PROJECT_CATEGORY_TABLE + " pc USING (category_id) "
-				+ "WHERE project_id = ?";
-		// @formatter:on
+	public Step insertStep(Integer projectId, Step step, Integer beforeStepId) {
+		long start = startOperation(INSERT_STEP_METRICS);
 		
-		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-			setParameter(stmt, 1, projectId, Integer.class);
+		try (Connection conn = getConnection(INSERT_STEP_METRICS)) {
+			startTransaction(conn);
 			
-			try (ResultSet rs = stmt.executeQuery()) {
-				List<Category> categories = new LinkedList<>();
+			try {
+				List<Step> order = lockStepOrder(conn, projectId);
 				
-				while (rs.next()) {
-					categories.add(extract(rs, Category.class));
-				}
+				step.setStepOrder(allocateStepOrder(conn, order, beforeStepId));
+				insertSteps(conn, projectId, List.of(step));
 				
-				return categories;
+				commitTransaction(conn, INSERT_STEP_METRICS);
+				INSERT_STEP_METRICS.recordRowsWritten(1);
+				return step;
+			} catch (Exception e) {
+				INSERT_STEP_METRICS.recordError(e);
+				rollbackTransaction(conn, INSERT_STEP_METRICS);
+				throw new DbException(e);
 			}
+		} catch (SQLException e) {
+			INSERT_STEP_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(INSERT_STEP_METRICS, start);
 		}
 	}
 
-	public boolean modifyProjectDetails(Project project) {
-		// @formatter:off
-		String sql = ""
-				+ "UPDATE " + PROJECT_TABLE + " SET "
-				+ "project_name = ?, "
-				+ "estimated_hours = ?, "
-				+ "actual_hours = ?, "
-				+ "difficulty = ?, "
-				+ "notes = ? "
-				+ "WHERE project_id = ?";
-		// @formatter:on
+	/*
+	 * moveStep(Integer x, Integer y, Integer z) method
+	 *  - Moves a step to just before the step with ID beforeStepId, or to the end if
+	 *    beforeStepId is null.
+	 *  - Normally a single UPDATE of the moved row. If there is no gap left at the target, the
+	 *    project's steps are first renumbered with one batched UPDATE.
+	 *  - Returns false if the step is not in the project.
+	 */
+	public boolean moveStep(Integer projectId, Integer stepId, Integer beforeStepId) {
+		long start = startOperation(MOVE_STEP_METRICS);
 		
-		try (Connection conn = DbConnection.getConnection()) {
+		try (Connection conn = getConnection(MOVE_STEP_METRICS)) {
 			startTransaction(conn);
 			
-			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-				setParameter(stmt, 1, project.getProjectName(), String.class);
-				setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-				setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-				setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-				setParameter(stmt, 5, project.getNotes(), String.class);
-				setParameter(stmt, 6, project.getProjectId(), Integer.class);
+			try {
+				List<Step> order = lockStepOrder(conn, projectId);
+				
+				if (!order.removeIf(step -> step.getStepId().equals(stepId))) {
+					commitTransaction(conn, MOVE_STEP_METRICS);
+					return false;
+				}
+				
+				if (stepId.equals(beforeStepId)) {
+					commitTransaction(conn, MOVE_STEP_METRICS);
+					return true;
+				}
 				
-				boolean updated = stmt.executeUpdate() == 1;
+				int stepOrder = allocateStepOrder(conn, order, beforeStepId);
 				
-				commitTransaction(conn);
-				return updated;
+				try (PreparedStatement stmt = conn.prepareStatement(UPDATE_STEP_ORDER_SQL)) {
+					setParameter(stmt, 1, stepOrder, Integer.class);
+					setParameter(stmt, 2, stepId, Integer.class);
+					MOVE_STEP_METRICS.recordRowsWritten(stmt.executeUpdate());
+				}
+				
+				commitTransaction(conn, MOVE_STEP_METRICS);
+				return true;
 			} catch (Exception e) {
-				rollbackTransaction(conn);
+				MOVE_STEP_METRICS.recordError(e);
+				rollbackTransaction(conn, MOVE_STEP_METRICS);
 				throw new DbException(e);
 			}
 		} catch (SQLException e) {
+			MOVE_STEP_METRICS.recordError(e);
 			throw new DbException(e);
+		} finally {
+			endOperation(MOVE_STEP_METRICS, start);
 		}
 	}
 
-	public boolean deleteProject(Integer projectId) {
-		String sql = "DELETE FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+	/*
+	 * deleteStep(Integer x) method
+	 *  - Deletes a single step. The remaining steps keep their orders; the gap left behind is
+	 *    reused by later inserts and moves.
+	 *  - Returns false if there is no step with the given ID.
+	 */
+	public boolean deleteStep(Integer stepId) {
+		long start = startOperation(DELETE_STEP_METRICS);
 		
-		try (Connection conn = DbConnection.getConnection()) {
+		try (Connection conn = getConnection(DELETE_STEP_METRICS)) {
 			startTransaction(conn);
 			
-			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-				setParameter(stmt, 1, projectId, Integer.class);
+			try (PreparedStatement stmt = conn.prepareStatement(DELETE_STEP_SQL)) {
+				setParameter(stmt, 1, stepId, Integer.class);
 				
-				boolean deleted = stmt.executeUpdate() == 1;
+				int rows = stmt.executeUpdate();
 				
-				commitTransaction(conn);
-				return deleted;
+				commitTransaction(conn, DELETE_STEP_METRICS);
+				DELETE_STEP_METRICS.recordRowsWritten(rows);
+				return rows == 1;
 			} catch (Exception e) {
-				rollbackTransaction(conn);
+				DELETE_STEP_METRICS.recordError(e);
+				rollbackTransaction(conn, DELETE_STEP_METRICS);
 				throw new DbException(e);
 			}
 		} catch (SQLException e) {
+			DELETE_STEP_METRICS.recordError(e);
 			throw new DbException(e);
+		} finally {
+			endOperation(DELETE_STEP_METRICS, start);
 		}
 	}
-}
-
-
-
-
-
-
-
-
 
+	/*
+	 * lockStepOrder(Connection x, Integer y) method
+	 *  - Reads the step IDs and orders of a project, in order, and locks them for the rest of
+	 *    the transaction.
+	 *  - Returns Step objects with only stepId and stepOrder set.
+	 */
+	private List<Step> lockStepOrder(Connection conn, Integer projectId) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(LOCK_STEP_ORDER_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				return extractAll(rs, Step.class);
+			}
+		}
+	}
 
+	/*
+	 * allocateStepOrder(Connection x, List y, Integer z) method
+	 *  - Returns a step_order that sorts just before beforeStepId (or after the last step) in
+	 *    the given ordered list.
+	 *  - Takes the midpoint of the neighbors. If they are adjacent, renumbers the list first.
+	 */
+	private int allocateStepOrder(Connection conn, List<Step> order, Integer beforeStepId) 
+			throws SQLException {
+		int position = order.size();
+		
+		if (Objects.nonNull(beforeStepId)) {
+			position = 0;
+			
+			while (position < order.size() 
+					&& !order.get(position).getStepId().equals(beforeStepId)) {
+				position++;
+			}
+			
+			if (position == order.size()) {
+				throw new DbException("Step with ID=" + beforeStepId + " is not in this project.");
+			}
+		}
+		
+		long previous = position > 0 ? order.get(position - 1).getStepOrder() : 0;
+		
+		if (position == order.size()) {
+			if (previous + STEP_ORDER_GAP <= Integer.MAX_VALUE) {
+				return (int) (previous + STEP_ORDER_GAP);
+			}
+		} else {
+			long next = order.get(position).getStepOrder();
+			
+			if (next - previous >= 2) {
+				return (int) (previous + (next - previous) / 2);
+			}
+		}
+		
+		renumberSteps(conn, order);
+		return allocateStepOrder(conn, order, beforeStepId);
+	}
 
+	/*
+	 * renumberSteps(Connection x, List y) method
+	 *  - Respaces the given steps STEP_ORDER_GAP apart, in list order, with one batched UPDATE.
+	 */
+	private void renumberSteps(Connection conn, List<Step> order) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(UPDATE_STEP_ORDER_SQL)) {
+			int stepOrder = 0;
+			
+			for (Step step : order) {
+				stepOrder += STEP_ORDER_GAP;
+				step.setStepOrder(stepOrder);
+				
+				setParameter(stmt, 1, stepOrder, Integer.class);
+				setParameter(stmt, 2, step.getStepId(), Integer.class);
+				stmt.addBatch();
+			}
+			
+			stmt.executeBatch();
+		}
+	}
 
+	/*
+	 * resolveCategories(Connection x, List y) method
+	 *  - Sets the category ID on every Category that does not have one, by name.
+	 *  - Names already in the category dictionary need no query. The rest are looked up in one
+	 *    query, then the missing names are created in one batch and looked up again.
+	 *  - Names are matched the way the category_name column's collation compares them, so
+	 *    "walls" resolves to an existing "Walls" instead of creating a duplicate. The UNIQUE
+	 *    key on category_name turns a name another transaction created first into a no-op.
+	 */
+	private void resolveCategories(Connection conn, List<Category> categories) 
+			throws SQLException {
+		Collator collator = categoryNameCollator();
+		Map<String, Integer> idsByName = new TreeMap<>(collator);
+		Set<String> names = new TreeSet<>(collator);
+		
+		for (Category category : categories) {
+			if (Objects.isNull(category.getCategoryId())) {
+				if (Objects.isNull(category.getCategoryName())) {
+					throw new SQLException("A category has neither an ID nor a name.");
+				}
+				
+				Category known = categoryDictionary.findByName(conn, category.getCategoryName());
+				
+				if (Objects.nonNull(known)) {
+					category.setCategoryId(known.getCategoryId());
+				} else {
+					names.add(category.getCategoryName());
+				}
+			}
+		}
+		
+		if (names.isEmpty()) {
+			return;
+		}
+		
+		selectCategoryIds(conn, names, idsByName);
+		
+		List<String> missing = new ArrayList<>();
+		
+		for (String name : names) {
+			if (!idsByName.containsKey(name)) {
+				missing.add(name);
+			}
+		}
+		
+		if (!missing.isEmpty()) {
+			try (PreparedStatement stmt = conn.prepareStatement(INSERT_CATEGORY_SQL)) {
+				for (String name : missing) {
+					setParameter(stmt, 1, name, String.class);
+					stmt.addBatch();
+				}
+				
+				stmt.executeBatch();
+			}
+			
+			selectCategoryIds(conn, missing, idsByName);
+		}
+		
+		for (Category category : categories) {
+			if (Objects.isNull(category.getCategoryId())) {
+				Integer categoryId = idsByName.get(category.getCategoryName());
+				
+				if (Objects.isNull(categoryId)) {
+					throw new SQLException("Category " + category.getCategoryName() 
+							+ " could not be created.");
+				}
+				
+				category.setCategoryId(categoryId);
+			}
+		}
+	}
+
+	/*
+	 * selectCategoryIds(Connection x, Collection y, Map z) method
+	 *  - Adds the ID of each existing category matching one of the names to idsByName, under
+	 *    the database's spelling of the name. idsByName must compare names with
+	 *    categoryNameCollator().
+	 */
+	private void selectCategoryIds(Connection conn, Collection<String> names, 
+			Map<String, Integer> idsByName) throws SQLException {
+		for (List<String> chunk : partition(new ArrayList<>(names), ID_CHUNK_SIZE)) {
+			int size = inListSize(chunk.size(), ID_CHUNK_SIZE);
+			String sql = inListSql("fetchCategoryIdsByName", FETCH_CATEGORY_IDS_BY_NAME_SQL, size);
+			
+			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+				bindInList(stmt, 1, chunk, size, String.class);
+				
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						idsByName.putIfAbsent(rs.getString(2), rs.getInt(1));
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * categoryNameCollator() method
+	 *  - Returns a collator that, like the column's default utf8mb4_0900_ai_ci collation,
+	 *    ignores case and accents. Collators are not shared because compare() locks.
+	 */
+	private static Collator categoryNameCollator() {
+		Collator collator = Collator.getInstance(Locale.ROOT);
+		
+		collator.setStrength(Collator.PRIMARY);
+		return collator;
+	}
+
+	/*
+	 * insertProjectCategories(Connection x, Integer y, List z) method
+	 *  - Links the project to each category with one batched INSERT. Duplicate categories are
+	 *    linked once.
+	 */
+	private void insertProjectCategories(Connection conn, Integer projectId, 
+			List<Category> categories) throws SQLException {
+		Set<Integer> categoryIds = new LinkedHashSet<>();
+		
+		for (Category category : categories) {
+			categoryIds.add(category.getCategoryId());
+		}
+		
+		if (categoryIds.isEmpty()) {
+			return;
+		}
+		
+		try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_CATEGORY_SQL)) {
+			for (Integer categoryId : categoryIds) {
+				setParameter(stmt, 1, projectId, Integer.class);
+				setParameter(stmt, 2, categoryId, Integer.class);
+				stmt.addBatch();
+			}
+			
+			stmt.executeBatch();
+		}
+	}
+
+	/*
+	 * getConnection(OperationMetrics x) method
+	 *  - Borrows a pooled connection and records the acquire time against the operation.
+	 */
+	private Connection getConnection(OperationMetrics metrics) {
+		return acquireConnection(() -> DbConnection.getConnection(session), metrics);
+	}
+
+	/*
+	 * getReadConnection(OperationMetrics x) method
+	 *  - Borrows a read-only connection, from a replica when one is healthy and this DAO's
+	 *    session has not just written, and records the acquire time against the operation.
+	 */
+	private Connection getReadConnection(OperationMetrics metrics) {
+		return acquireConnection(() -> DbConnection.getReadConnection(session), metrics);
+	}
+
+	/*
+	 * isCacheableRead(Connection x, Consumer y) method
+	 *  - True if there is a listener for primary reads, the connection is to the primary and
+	 *    the session is outside its read-your-writes window.
+	 */
+	private boolean isCacheableRead(Connection conn, Consumer<? super Project> primaryRead) {
+		return Objects.nonNull(primaryRead) && DbConnection.isPrimary(conn) 
+				&& !session.isRecentWriter();
+	}
+
+	/*
+	 * markInserted(Project x) method
+	 *  - A newly inserted row has the column default version 0 and nothing left to write.
+	 */
+	private void markInserted(Project project) {
+		project.setVersion(0);
+		project.clearDirty();
+	}
+
+	/*
+	 * GraphIds class
+	 *  - The project, material, step and category IDs and step orders of project graphs as
+	 *    the caller passed them in. The graph inserts set generated values on the caller's
+	 *    entities as they go; when the transaction rolls back, restore() puts the original
+	 *    values back so a retry does not link to rows that were never committed.
+	 */
+	private static class GraphIds {
+		private final List<Runnable> restores = new ArrayList<>();
+
+		GraphIds(Collection<Project> projects) {
+			for (Project project : projects) {
+				Integer projectId = project.getProjectId();
+				
+				restores.add(() -> project.setProjectId(projectId));
+				
+				for (Material material : project.getMaterials()) {
+					Integer materialId = material.getMaterialId();
+					Integer materialProjectId = material.getProjectId();
+					
+					restores.add(() -> {
+						material.setMaterialId(materialId);
+						material.setProjectId(materialProjectId);
+					});
+				}
+				
+				for (Step step : project.getSteps()) {
+					Integer stepId = step.getStepId();
+					Integer stepProjectId = step.getProjectId();
+					Integer stepOrder = step.getStepOrder();
+					
+					restores.add(() -> {
+						step.setStepId(stepId);
+						step.setProjectId(stepProjectId);
+						step.setStepOrder(stepOrder);
+					});
+				}
+				
+				for (Category category : project.getCategories()) {
+					/* Categories that came with an ID keep it; only generated IDs are cleared. */
+					if (Objects.isNull(category.getCategoryId())) {
+						restores.add(() -> category.setCategoryId(null));
+					}
+				}
+			}
+		}
+
+		void restore() {
+			restores.forEach(Runnable::run);
+		}
+	}
+
+	/*
+	 * graphRowCount(Project x) method
+	 *  - Returns the number of rows behind a project graph: the project, its materials and
+	 *    steps, and one project_category link per category.
+	 */
+	private int graphRowCount(Project project) {
+		return 1 + project.getMaterials().size() + project.getSteps().size()
+				+ project.getCategories().size();
+	}
+
+	/*
+	 * setProjectParameters(PreparedStatement x, Project y) method
+	 *  - Binds the five project columns, in insert order, to parameters 1 through 5.
+	 */
+	private void setProjectParameters(PreparedStatement stmt, Project project) 
+			throws SQLException {
+		setParameter(stmt, 1, project.getProjectName(), String.class);
+		setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+		setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+		setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+		setParameter(stmt, 5, project.getNotes(), String.class);
+	}
+
+	/*
+	 * fetchAllProjects() method
+	 *  - Handles an SQL statement to retrieve all projects. 
+	 *  - If connection and SQL statement do not throw errors, all projects printed. 
+	 *  - Returns nothing.
+	 */
+	public List<Project> fetchAllProjects() {
+		long start = startOperation(FETCH_ALL_PROJECTS_METRICS);
+		
+		try (Connection conn = getReadConnection(FETCH_ALL_PROJECTS_METRICS)) {
+			startTransaction(conn);
+			
+			try (PreparedStatement stmt = conn.prepareStatement(FETCH_ALL_PROJECTS_SQL)) {
+				try (ResultSet rs = stmt.executeQuery()) {
+					List<Project> projects = new LinkedList<>();
+					RowMapper<Project> mapper = rowMapper(rs, Project.class);
+					
+					while (rs.next()) {
+						/*
+						 * What the extract() method does: 
+						 * 
+						 *	Project project = new Project();
+						 *	project.setActualHours(rs.getBigDecimal("actual_hours"));
+						 *	project.setDifficulty(rs.getObject("difficulty", Integer.class));
+						 * 	project.setEstimatedHours(rs.getBigDecimal("estimated_hours"));
+						 *  project.setNotes(rs.getString("notes"));
+						 *	project.setProjectId(rs.getObject("project_id", Integer.class));
+						 *	project.setProjectName(rs.getString("project_name"));
+						 */
+						
+						projects.add(mapper.map(rs));
+					}
+					
+					commitTransaction(conn, FETCH_ALL_PROJECTS_METRICS);
+					FETCH_ALL_PROJECTS_METRICS.recordRowsRead(projects.size());
+					return projects;
+				}
+			} catch (Exception e) {
+				FETCH_ALL_PROJECTS_METRICS.recordError(e);
+				rollbackTransaction(conn, FETCH_ALL_PROJECTS_METRICS);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			FETCH_ALL_PROJECTS_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(FETCH_ALL_PROJECTS_METRICS, start);
+		}
+	}
+	
+	/*
+	 * fetchProjectsPage(String x, Integer y, int z) method
+	 *  - Returns up to limit project rows ordered by (project_name, project_id), starting
+	 *    after the given name and ID. Pass null for afterName to get the first page; pass the
+	 *    name and ID of the last row of a page to get the next one.
+	 *  - Uses seek (keyset) pagination on the project_name_id index, so a deep page costs the
+	 *    same as the first. Child lists are not loaded.
+	 */
+	public List<Project> fetchProjectsPage(String afterName, Integer afterId, int limit) {
+		boolean firstPage = Objects.isNull(afterName);
+		String sql = firstPage ? FETCH_PROJECTS_FIRST_PAGE_SQL : FETCH_PROJECTS_NEXT_PAGE_SQL;
+		
+		long start = startOperation(FETCH_PROJECTS_PAGE_METRICS);
+		
+		try (Connection conn = getReadConnection(FETCH_PROJECTS_PAGE_METRICS)) {
+			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+				int index = 1;
+				
+				if (!firstPage) {
+					setParameter(stmt, index++, afterName, String.class);
+					setParameter(stmt, index++, afterName, String.class);
+					setParameter(stmt, index++, Objects.isNull(afterId) ? 0 : afterId, Integer.class);
+				}
+				
+				setParameter(stmt, index, limit, Integer.class);
+				
+				try (ResultSet rs = stmt.executeQuery()) {
+					List<Project> projects = extractAll(rs, Project.class);
+					
+					FETCH_PROJECTS_PAGE_METRICS.recordRowsRead(projects.size());
+					return projects;
+				}
+			}
+		} catch (SQLException | RuntimeException e) {
+			FETCH_PROJECTS_PAGE_METRICS.recordError(e);
+			throw e instanceof DbException ? (DbException) e : new DbException(e);
+		} finally {
+			endOperation(FETCH_PROJECTS_PAGE_METRICS, start);
+		}
+	}
+
+	/*
+	 * searchProjects(String x, int y, int z) method
+	 *  - Full-text search over project names, notes and step text. Returns up to limit
+	 *    search hits, most relevant first, skipping the first offset matches.
+	 *  - The query is natural-language text; words shorter than the server's minimum token
+	 *    size and stopwords are ignored. A blank query matches nothing.
+	 */
+	public List<ProjectSearchHit> searchProjects(String query, int offset, int limit) {
+		if (Objects.isNull(query) || query.isBlank() || limit <= 0) {
+			return List.of();
+		}
+		
+		long start = startOperation(SEARCH_PROJECTS_METRICS);
+		
+		try (Connection conn = getReadConnection(SEARCH_PROJECTS_METRICS)) {
+			try (PreparedStatement stmt = conn.prepareStatement(SEARCH_PROJECTS_SQL)) {
+				for (int index = 1; index <= 4; index++) {
+					setParameter(stmt, index, query, String.class);
+				}
+				
+				setParameter(stmt, 5, limit, Integer.class);
+				setParameter(stmt, 6, Math.max(offset, 0), Integer.class);
+				
+				try (ResultSet rs = stmt.executeQuery()) {
+					List<ProjectSearchHit> hits = extractAll(rs, ProjectSearchHit.class);
+					
+					SEARCH_PROJECTS_METRICS.recordRowsRead(hits.size());
+					return hits;
+				}
+			}
+		} catch (SQLException | RuntimeException e) {
+			SEARCH_PROJECTS_METRICS.recordError(e);
+			throw e instanceof DbException ? (DbException) e : new DbException(e);
+		} finally {
+			endOperation(SEARCH_PROJECTS_METRICS, start);
+		}
+	}
+
+	/*
+	 * fetchProjectRollup(Integer x) method
+	 *  - Returns the project's cost and effort rollup, or an empty Optional if the project does
+	 *    not exist.
+	 */
+	public Optional<ProjectRollup> fetchProjectRollup(Integer projectId) {
+		List<ProjectRollup> rollups = fetchRollups(FETCH_PROJECT_ROLLUP_METRICS,
+				FETCH_PROJECT_ROLLUP_SQL, ProjectRollup.class, projectId);
+		
+		return rollups.stream().findFirst();
+	}
+
+	/*
+	 * fetchTopProjectsByCost(int x) method
+	 *  - Returns the limit projects with the highest total material cost, highest first.
+	 */
+	public List<ProjectRollup> fetchTopProjectsByCost(int limit) {
+		return fetchRollups(FETCH_TOP_PROJECTS_BY_COST_METRICS, FETCH_TOP_PROJECTS_BY_COST_SQL,
+				ProjectRollup.class, limit);
+	}
+
+	/*
+	 * fetchTopProjectsByOverrun(int x) method
+	 *  - Returns up to limit projects whose actual hours exceed their estimate, largest overrun
+	 *    first.
+	 */
+	public List<ProjectRollup> fetchTopProjectsByOverrun(int limit) {
+		return fetchRollups(FETCH_TOP_PROJECTS_BY_OVERRUN_METRICS,
+				FETCH_TOP_PROJECTS_BY_OVERRUN_SQL, ProjectRollup.class, limit);
+	}
+
+	/*
+	 * fetchCategoryRollups() method
+	 *  - Returns the project count, material cost, step count and average hours variance of
+	 *    each category that has projects, ordered by category name.
+	 */
+	public List<CategoryRollup> fetchCategoryRollups() {
+		return fetchRollups(FETCH_CATEGORY_ROLLUPS_METRICS, FETCH_CATEGORY_ROLLUPS_SQL,
+				CategoryRollup.class);
+	}
+
+	/*
+	 * fetchRollups(OperationMetrics w, String x, Class y, Integer... z) method
+	 *  - Runs one of the rollup queries with the given integer parameters and maps every row.
+	 */
+	private <T> List<T> fetchRollups(OperationMetrics metrics, String sql, Class<T> classType,
+			Integer... parameters) {
+		long start = startOperation(metrics);
+		
+		try (Connection conn = getReadConnection(metrics)) {
+			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+				for (int index = 0; index < parameters.length; index++) {
+					setParameter(stmt, index + 1, parameters[index], Integer.class);
+				}
+				
+				try (ResultSet rs = stmt.executeQuery()) {
+					List<T> rollups = extractAll(rs, classType);
+					
+					metrics.recordRowsRead(rollups.size());
+					return rollups;
+				}
+			}
+		} catch (SQLException | RuntimeException e) {
+			metrics.recordError(e);
+			throw e instanceof DbException ? (DbException) e : new DbException(e);
+		} finally {
+			endOperation(metrics, start);
+		}
+	}
+
+	/*
+	 * rebuildProjectSummaries() method
+	 *  - Recomputes every project_summary row from the child tables in one statement. The
+	 *    triggers keep the rollups current, so this is only needed to backfill a database
+	 *    created before the rollup table existed, or after the triggers were bypassed.
+	 *  - Returns the number of summary rows inserted or changed.
+	 */
+	public int rebuildProjectSummaries() {
+		long start = startOperation(REBUILD_PROJECT_SUMMARIES_METRICS);
+		
+		try (Connection conn = getConnection(REBUILD_PROJECT_SUMMARIES_METRICS)) {
+			startTransaction(conn);
+			
+			try (PreparedStatement stmt = conn.prepareStatement(REBUILD_PROJECT_SUMMARIES_SQL)) {
+				int rows = stmt.executeUpdate();
+				
+				commitTransaction(conn, REBUILD_PROJECT_SUMMARIES_METRICS);
+				REBUILD_PROJECT_SUMMARIES_METRICS.recordRowsWritten(rows);
+				return rows;
+			} catch (Exception e) {
+				REBUILD_PROJECT_SUMMARIES_METRICS.recordError(e);
+				rollbackTransaction(conn, REBUILD_PROJECT_SUMMARIES_METRICS);
+				throw e instanceof DbException ? (DbException) e : new DbException(e);
+			}
+		} catch (SQLException e) {
+			REBUILD_PROJECT_SUMMARIES_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(REBUILD_PROJECT_SUMMARIES_METRICS, start);
+		}
+	}
+
+	/*
+	 * streamAllProjects() method
+	 *  - Streams every project row, ordered by name, using a server-side cursor that reads
+	 *    fetchSize rows per round trip. Child lists are not loaded.
+	 *  - The stream holds a connection until it is closed, so use it in a try-with-resources
+	 *    block. Closing the stream releases the result set, statement and connection.
+	 */
+	public Stream<Project> streamAllProjects() {
+		return streamAllProjects(streamFetchSize);
+	}
+
+	/*
+	 * streamAllProjects(int x) method
+	 *  - Same as streamAllProjects() with an explicit cursor fetch size.
+	 *  - The operation runs from opening the stream to closing it: the recorded latency and
+	 *    any slow query trace cover both. Like any other operation it is traced on the calling
+	 *    thread, so close the stream on the thread that opened it.
+	 */
+	public Stream<Project> streamAllProjects(int fetchSize) {
+		long start = startOperation(STREAM_ALL_PROJECTS_METRICS);
+		boolean opened = false;
+		
+		try {
+			Connection conn = getReadConnection(STREAM_ALL_PROJECTS_METRICS);
+			PreparedStatement stmt = null;
+			
+			try {
+				stmt = conn.prepareStatement(FETCH_ALL_PROJECTS_SQL, ResultSet.TYPE_FORWARD_ONLY, 
+						ResultSet.CONCUR_READ_ONLY);
+				stmt.setFetchSize(fetchSize);
+				
+				ResultSet rs = stmt.executeQuery();
+				RowMapper<Project> mapper = rowMapper(rs, Project.class);
+				
+				Spliterator<Project> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, 
+						Spliterator.ORDERED | Spliterator.NONNULL) {
+					@Override
+					public boolean tryAdvance(Consumer<? super Project> action) {
+						try {
+							if (!rs.next()) {
+								return false;
+							}
+							
+							action.accept(mapper.map(rs));
+							STREAM_ALL_PROJECTS_METRICS.recordRowsRead(1);
+							return true;
+						} catch (SQLException e) {
+							STREAM_ALL_PROJECTS_METRICS.recordError(e);
+							throw new DbException(e);
+						}
+					}
+				};
+				
+				PreparedStatement openStmt = stmt;
+				Stream<Project> projects = StreamSupport.stream(rows, false).onClose(() -> {
+					try (conn; openStmt; rs) {
+						/* Closing in reverse order: result set, statement, connection. */
+					} catch (SQLException e) {
+						STREAM_ALL_PROJECTS_METRICS.recordError(e);
+						throw new DbException(e);
+					} finally {
+						endOperation(STREAM_ALL_PROJECTS_METRICS, start);
+					}
+				});
+				
+				opened = true;
+				return projects;
+			} catch (SQLException | RuntimeException e) {
+				STREAM_ALL_PROJECTS_METRICS.recordError(e);
+				
+				try (conn) {
+					if (Objects.nonNull(stmt)) {
+						stmt.close();
+					}
+				} catch (SQLException closeFailure) {
+					e.addSuppressed(closeFailure);
+				}
+				
+				throw e instanceof DbException ? (DbException) e : new DbException(e);
+			}
+		} finally {
+			if (!opened) {
+				endOperation(STREAM_ALL_PROJECTS_METRICS, start);
+			}
+		}
+	}
+
+	/*
+	 * forEachProject(Consumer x) method
+	 *  - Passes every project row to the callback, ordered by name, without holding the table
+	 *    in memory.
+	 */
+	public void forEachProject(Consumer<Project> callback) {
+		try (Stream<Project> projects = streamAllProjects()) {
+			projects.forEach(callback);
+		}
+	}
+
+	/*
+	 * fetchProjectById(Integer x) method
+	 *  - One parameter(Integer projectId).
+	 *  - Retrieves a Project row and all associated child rows using the configured
+	 *    FetchStrategy.
+	 *  - Reads from a replica when one is healthy and the session has not just written.
+	 *  - Returns an Optional of type Project.
+	 */
+	public Optional<Project> fetchProjectById(Integer projectId) {
+		return fetchProjectById(projectId, null);
+	}
+
+	/*
+	 * fetchProjectById(Integer x, Consumer y) method
+	 *  - Same as fetchProjectById(Integer), and passes the project to primaryRead (if not
+	 *    null) when it was read from the primary outside the session's read-your-writes
+	 *    window. Only such reads are safe to cache: a replica may lag a write that has
+	 *    already invalidated the cache.
+	 */
+	public Optional<Project> fetchProjectById(Integer projectId, 
+			Consumer<? super Project> primaryRead) {
+		long start = startOperation(FETCH_PROJECT_BY_ID_METRICS);
+		
+		try (Connection conn = getReadConnection(FETCH_PROJECT_BY_ID_METRICS)) {
+			startTransaction(conn);
+			
+			try {
+				Project project;
+				
+				switch (fetchStrategy) {
+				case MULTI_STATEMENT:
+					project = fetchProjectGraphMultiStatement(conn, projectId);
+					break;
+				case JOIN:
+					project = fetchProjectGraphJoin(conn, projectId);
+					break;
+				default:
+					project = fetchProjectGraphSeparately(conn, projectId);
+					break;
+				}
+				
+				commitTransaction(conn, FETCH_PROJECT_BY_ID_METRICS);
+				
+				if (Objects.nonNull(project)) {
+					FETCH_PROJECT_BY_ID_METRICS.recordRowsRead(graphRowCount(project));
+					
+					if (isCacheableRead(conn, primaryRead)) {
+						primaryRead.accept(project);
+					}
+				}
+				
+				return Optional.ofNullable(project);
+				
+			} catch (Exception e) {
+				FETCH_PROJECT_BY_ID_METRICS.recordError(e);
+				rollbackTransaction(conn, FETCH_PROJECT_BY_ID_METRICS);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			FETCH_PROJECT_BY_ID_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(FETCH_PROJECT_BY_ID_METRICS, start);
+		}
+	}
+
+	public int getStreamFetchSize() {
+		return streamFetchSize;
+	}
+
+	public void setStreamFetchSize(int streamFetchSize) {
+		this.streamFetchSize = streamFetchSize;
+	}
+
+	public FetchStrategy getFetchStrategy() {
+		return fetchStrategy;
+	}
+
+	public void setFetchStrategy(FetchStrategy fetchStrategy) {
+		this.fetchStrategy = Objects.requireNonNull(fetchStrategy);
+	}
+
+	public int getDeleteChunkSize() {
+		return deleteChunkSize;
+	}
+
+	public void setDeleteChunkSize(int deleteChunkSize) {
+		this.deleteChunkSize = validDeleteChunkSize(deleteChunkSize);
+	}
+	
+	private static int validDeleteChunkSize(int deleteChunkSize) {
+		if (deleteChunkSize < 1 || deleteChunkSize > MAX_DELETE_CHUNK_SIZE) {
+			throw new IllegalArgumentException("The delete chunk size must be between 1 and " 
+					+ MAX_DELETE_CHUNK_SIZE + " but was " + deleteChunkSize + ".");
+		}
+		
+		return deleteChunkSize;
+	}
+
+	public long getDeletePauseMillis() {
+		return deletePauseMillis;
+	}
+
+	public void setDeletePauseMillis(long deletePauseMillis) {
+		this.deletePauseMillis = deletePauseMillis;
+	}
+
+	/*
+	 * fetchProjectGraphSeparately(Connection x, Integer y) method
+	 *  - Loads the project, then each child table, with one query apiece.
+	 *  - Returns null if there is no project with the given ID.
+	 */
+	private Project fetchProjectGraphSeparately(Connection conn, Integer projectId) 
+		throws SQLException {
+		Project project = null;
+		
+		try (PreparedStatement stmt = conn.prepareStatement(FETCH_PROJECT_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (rs.next()) {
+					project = extract(rs, Project.class);
+				}
+			}
+		}
+		
+		if (Objects.nonNull(project)) {
+			project.getMaterials().addAll(fetchMaterialsForProject(conn, projectId));
+			project.getSteps().addAll(fetchStepsForProject(conn, projectId));
+			project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
+		}
+		
+		return project;
+	}
+
+	/*
+	 * fetchProjectGraphMultiStatement(Connection x, Integer y) method
+	 *  - Sends the project and child SELECTs as one multi-statement request and reads the four
+	 *    result sets in order.
+	 *  - Returns null if there is no project with the given ID.
+	 */
+	private Project fetchProjectGraphMultiStatement(Connection conn, Integer projectId) 
+		throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(FETCH_PROJECT_GRAPH_MULTI_SQL)) {
+			for (int index = 1; index <= 4; index++) {
+				setParameter(stmt, index, projectId, Integer.class);
+			}
+			
+			stmt.execute();
+			Project project = null;
+			
+			try (ResultSet rs = stmt.getResultSet()) {
+				if (rs.next()) {
+					project = extract(rs, Project.class);
+				}
+			}
+			
+			if (Objects.isNull(project)) {
+				return null;
+			}
+			
+			stmt.getMoreResults();
+			
+			try (ResultSet rs = stmt.getResultSet()) {
+				project.getMaterials().addAll(extractAll(rs, Material.class));
+			}
+			
+			stmt.getMoreResults();
+			
+			try (ResultSet rs = stmt.getResultSet()) {
+				project.getSteps().addAll(extractAll(rs, Step.class));
+			}
+			
+			stmt.getMoreResults();
+			
+			try (ResultSet rs = stmt.getResultSet()) {
+				project.getCategories().addAll(resolveCategoryIds(conn, rs));
+			}
+			
+			return project;
+		}
+	}
+
+	/*
+	 * fetchProjectGraphJoin(Connection x, Integer y) method
+	 *  - Loads the project and all children with one LEFT JOIN. Categories are resolved from
+	 *    the project_category IDs in the category dictionary.
+	 *  - Each child appears once per combination of the other children, so rows are
+	 *    de-duplicated by primary key. Steps keep step_order; materials and categories are
+	 *    returned in primary key order.
+	 *  - Returns null if there is no project with the given ID.
+	 */
+	private Project fetchProjectGraphJoin(Connection conn, Integer projectId) 
+		throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(FETCH_PROJECT_GRAPH_JOIN_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				Project project = null;
+				Map<Integer, Material> materials = new TreeMap<>();
+				Map<Integer, Step> steps = new LinkedHashMap<>();
+				Map<Integer, Category> categories = new TreeMap<>();
+				
+				RowMapper<Project> projectMapper = rowMapper(rs, Project.class);
+				RowMapper<Material> materialMapper = rowMapper(rs, Material.class);
+				RowMapper<Step> stepMapper = rowMapper(rs, Step.class);
+				
+				int materialIdColumn = rs.findColumn("material_id");
+				int stepIdColumn = rs.findColumn("step_id");
+				int categoryIdColumn = rs.findColumn("category_id");
+				
+				while (rs.next()) {
+					if (Objects.isNull(project)) {
+						project = projectMapper.map(rs);
+					}
+					
+					Integer materialId = rs.getObject(materialIdColumn, Integer.class);
+					Integer stepId = rs.getObject(stepIdColumn, Integer.class);
+					Integer categoryId = rs.getObject(categoryIdColumn, Integer.class);
+					
+					if (Objects.nonNull(materialId) && !materials.containsKey(materialId)) {
+						materials.put(materialId, materialMapper.map(rs));
+					}
+					
+					if (Objects.nonNull(stepId) && !steps.containsKey(stepId)) {
+						steps.put(stepId, stepMapper.map(rs));
+					}
+					
+					if (Objects.nonNull(categoryId) && !categories.containsKey(categoryId)) {
+						Category category = categoryDictionary.resolve(conn, categoryId);
+						
+						if (Objects.nonNull(category)) {
+							categories.put(categoryId, category);
+						}
+					}
+				}
+				
+				if (Objects.nonNull(project)) {
+					project.getMaterials().addAll(materials.values());
+					project.getSteps().addAll(steps.values());
+					project.getCategories().addAll(categories.values());
+				}
+				
+				return project;
+			}
+		}
+	}
+
+	/*
+	 * fetchProjectsByIds(Collection x) method
+	 *  - One parameter (Collection<Integer> projectIds).
+	 *  - Loads the projects and each child table with chunked IN (...) queries on a single
+	 *    connection, then attaches the children to their parents by project_id. The query
+	 *    count is four per chunk of ID_CHUNK_SIZE IDs, not four per project.
+	 *  - Returns the projects that exist, in the order their IDs were given. Duplicate and
+	 *    missing IDs are skipped.
+	 *  - Reads from a replica when one is healthy and the session has not just written.
+	 */
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+		return fetchProjectsByIds(projectIds, null);
+	}
+
+	/*
+	 * fetchProjectsByIds(Collection x, Consumer y) method
+	 *  - Same as fetchProjectsByIds(Collection), and passes each project to primaryRead (if
+	 *    not null) under the same condition as fetchProjectById(Integer, Consumer).
+	 */
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds, 
+			Consumer<? super Project> primaryRead) {
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(projectIds));
+		ids.removeIf(Objects::isNull);
+		
+		List<Project> results = new LinkedList<>();
+		
+		if (ids.isEmpty()) {
+			return results;
+		}
+		
+		long start = startOperation(FETCH_PROJECTS_BY_IDS_METRICS);
+		
+		try (Connection conn = getReadConnection(FETCH_PROJECTS_BY_IDS_METRICS)) {
+			startTransaction(conn);
+			
+			try {
+				Map<Integer, Project> projects = new HashMap<>();
+				
+				for (List<Integer> chunk : partition(ids, ID_CHUNK_SIZE)) {
+					fetchProjectGraphsForChunk(conn, chunk, projects);
+				}
+				
+				commitTransaction(conn, FETCH_PROJECTS_BY_IDS_METRICS);
+				
+				boolean cacheable = isCacheableRead(conn, primaryRead);
+				
+				for (Integer projectId : ids) {
+					Project project = projects.get(projectId);
+					
+					if (Objects.nonNull(project)) {
+						results.add(project);
+						FETCH_PROJECTS_BY_IDS_METRICS.recordRowsRead(graphRowCount(project));
+						
+						if (cacheable) {
+							primaryRead.accept(project);
+						}
+					}
+				}
+				
+				return results;
+				
+			} catch (Exception e) {
+				FETCH_PROJECTS_BY_IDS_METRICS.recordError(e);
+				rollbackTransaction(conn, FETCH_PROJECTS_BY_IDS_METRICS);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			FETCH_PROJECTS_BY_IDS_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(FETCH_PROJECTS_BY_IDS_METRICS, start);
+		}
+	}
+
+	/*
+	 * fetchProjectGraphsForChunk(Connection x, List y, Map z) method
+	 *  - Loads one chunk of projects and their children into the given map, keyed by
+	 *    project_id.
+	 */
+	private void fetchProjectGraphsForChunk(Connection conn, List<Integer> chunk, 
+			Map<Integer, Project> projects) throws SQLException {
+		int size = inListSize(chunk.size(), ID_CHUNK_SIZE);
+		String projectSql = inListSql("fetchProjectsByIds", FETCH_PROJECTS_BY_IDS_SQL, size);
+		String materialSql = inListSql("fetchMaterialsByProjectIds", 
+				FETCH_MATERIALS_BY_PROJECT_IDS_SQL, size);
+		String stepSql = inListSql("fetchStepsByProjectIds", FETCH_STEPS_BY_PROJECT_IDS_SQL, size);
+		String categorySql = inListSql("fetchCategoryIdsByProjectIds", 
+				FETCH_CATEGORY_IDS_BY_PROJECT_IDS_SQL, size);
+		
+		try (PreparedStatement stmt = prepareWithIds(conn, projectSql, chunk, size)) {
+			try (ResultSet rs = stmt.executeQuery()) {
+				for (Project project : extractAll(rs, Project.class)) {
+					projects.put(project.getProjectId(), project);
+				}
+			}
+		}
+		
+		try (PreparedStatement stmt = prepareWithIds(conn, materialSql, chunk, size)) {
+			try (ResultSet rs = stmt.executeQuery()) {
+				for (Material material : extractAll(rs, Material.class)) {
+					projects.get(material.getProjectId()).getMaterials().add(material);
+				}
+			}
+		}
+		
+		try (PreparedStatement stmt = prepareWithIds(conn, stepSql, chunk, size)) {
+			try (ResultSet rs = stmt.executeQuery()) {
+				for (Step step : extractAll(rs, Step.class)) {
+					projects.get(step.getProjectId()).getSteps().add(step);
+				}
+			}
+		}
+		
+		try (PreparedStatement stmt = prepareWithIds(conn, categorySql, chunk, size)) {
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					Category category = categoryDictionary.resolve(conn, rs.getInt(2));
+					
+					if (Objects.nonNull(category)) {
+						projects.get(rs.getInt(1)).getCategories().add(category);
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * inListSql(String x, String y, int size) method
+	 *  - Returns the template with IN_LIST replaced by size placeholders. Each name and size
+	 *    is built and registered once, as name[size].
+	 */
+	private String inListSql(String name, String template, int size) {
+		return IN_LIST_SQL.computeIfAbsent(name + "[" + size + "]", key -> SqlRegistry.register(
+				key, template.replace(IN_LIST, "(" + inClausePlaceholders(size) + ")")));
+	}
+
+	/*
+	 * inListSize(int x, int y) method
+	 *  - Returns the number of IN list placeholders to use for count values: count rounded up
+	 *    to a power of two, but no more than maxSize. Rounding keeps each IN-list statement
+	 *    to a handful of sizes, so they stay registered once and hit the statement cache.
+	 */
+	private static int inListSize(int count, int maxSize) {
+		int size = count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+		return Math.max(count, Math.min(size, maxSize));
+	}
+
+	/*
+	 * bindInList(PreparedStatement x, int y, List z, int size, Class type) method
+	 *  - Binds the values to size IN list placeholders starting at index, repeating the last
+	 *    value to fill any left over. A repeated value does not change what IN matches.
+	 *  - Returns the index after the last placeholder.
+	 */
+	private <T> int bindInList(PreparedStatement stmt, int index, List<T> values, int size, 
+			Class<T> type) throws SQLException {
+		for (int position = 0; position < size; position++) {
+			setParameter(stmt, index++, values.get(Math.min(position, values.size() - 1)), type);
+		}
+		
+		return index;
+	}
+
+	/*
+	 * prepareWithIds(Connection x, String y, List z, int size) method
+	 *  - Prepares the SQL and binds the IDs to its size IN clause placeholders, as
+	 *    bindInList() does.
+	 */
+	private PreparedStatement prepareWithIds(Connection conn, String sql, List<Integer> ids, 
+			int size) throws SQLException {
+		PreparedStatement stmt = conn.prepareStatement(sql);
+		
+		try {
+			bindInList(stmt, 1, ids, size, Integer.class);
+			return stmt;
+		} catch (SQLException e) {
+			stmt.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * fetchMaterialForProject(Connection x, Integer y) method
+	 *  - Two parameters; a Connection conn & and an Integer projectId).
+	 *  - Returns the Materials for a given Project.
+	 *  - Returns a List of type Material.
+	 */
+	private List<Material> fetchMaterialsForProject(Connection conn, Integer projectId) 
+		throws SQLException {
+		long start = System.nanoTime();
+		
+		try (PreparedStatement stmt = conn.prepareStatement(FETCH_MATERIALS_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				List<Material> materials = new LinkedList<>();
+				RowMapper<Material> mapper = rowMapper(rs, Material.class);
+				
+				while (rs.next()) {
+					materials.add(mapper.map(rs));
+				}
+				
+				FETCH_MATERIALS_METRICS.recordRowsRead(materials.size());
+				return materials;
+			}
+		} catch (SQLException e) {
+			FETCH_MATERIALS_METRICS.recordError(e);
+			throw e;
+		} finally {
+			FETCH_MATERIALS_METRICS.recordLatency(start);
+		}
+	}
+	
+	/*
+	 * fetchStepsForProject(Connection x, Integer y) method
+	 *  - Two parameters; a Connection conn & and an Integer projectId).
+	 *  - Returns the Steps for a given Project, ordered by step_order.
+	 *  - Returns a List of type Step.
+	 */
+	private List<Step> fetchStepsForProject(Connection conn, Integer projectId) 
+		throws SQLException {
+		long start = System.nanoTime();
+		
+		try (PreparedStatement stmt = conn.prepareStatement(FETCH_STEPS_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				List<Step> steps = new LinkedList<>();
+				RowMapper<Step> mapper = rowMapper(rs, Step.class);
+				
+				while (rs.next()) {
+					steps.add(mapper.map(rs));
+				}
+				
+				FETCH_STEPS_METRICS.recordRowsRead(steps.size());
+				return steps;
+			}
+		} catch (SQLException e) {
+			FETCH_STEPS_METRICS.recordError(e);
+			throw e;
+		} finally {
+			FETCH_STEPS_METRICS.recordLatency(start);
+		}
+	}
+	
+	/*
+	 * fetchCategoriesForProject(Connection x, Integer y) method
+	 *  - Two parameters; a Connection conn & and an Integer projectId).
+	 *  - Returns the Categories for a given Project.
+	 *  - Only the category IDs are read; they are resolved in the category dictionary.
+	 *  - Returns a List of type Category.
+	 */
+	private List<Category> fetchCategoriesForProject(Connection conn, Integer projectId) 
+		throws SQLException {
+		long start = System.nanoTime();
+		
+		try (PreparedStatement stmt = conn.prepareStatement(FETCH_CATEGORY_IDS_SQL)) {
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				List<Category> categories = resolveCategoryIds(conn, rs);
+				
+				FETCH_CATEGORIES_METRICS.recordRowsRead(categories.size());
+				return categories;
+			}
+		} catch (SQLException e) {
+			FETCH_CATEGORIES_METRICS.recordError(e);
+			throw e;
+		} finally {
+			FETCH_CATEGORIES_METRICS.recordLatency(start);
+		}
+	}
+
+	/*
+	 * resolveCategoryIds(Connection x, ResultSet y) method
+	 *  - Reads a category ID from the first column of every remaining row and resolves it to
+	 *    the interned Category in the category dictionary.
+	 *  - Returns a List of type Category.
+	 */
+	private List<Category> resolveCategoryIds(Connection conn, ResultSet rs) throws SQLException {
+		List<Category> categories = new LinkedList<>();
+		
+		while (rs.next()) {
+			Category category = categoryDictionary.resolve(conn, rs.getInt(1));
+			
+			if (Objects.nonNull(category)) {
+				categories.add(category);
+			}
+		}
+		
+		return categories;
+	}
+
+	/*
+	 * modifyProjectDetails(Project x) method
+	 *  - Writes only the columns the project reports as dirty, and increments the version.
+	 *  - If the project has a version, the UPDATE only matches that version. When another
+	 *    writer got there first, an OptimisticLockException is thrown and nothing is written.
+	 *    Without a version, the last writer wins.
+	 *  - The UPDATE and a SELECT of the new row are sent as one multi-statement request, so the
+	 *    new state costs no extra round trip. It is copied onto the given project, which is
+	 *    then clean.
+	 *  - A project with no dirty columns is only read, not written.
+	 *  - Returns the project, or an empty Optional if there is no project with its ID.
+	 */
+	public Optional<Project> modifyProjectDetails(Project project) {
+		int mask = 0;
+		
+		for (String column : project.getDirtyColumns()) {
+			int bit = PROJECT_DETAIL_COLUMNS.indexOf(column);
+			
+			if (bit < 0) {
+				throw new DbException("Unknown project column: " + column);
+			}
+			
+			mask |= 1 << bit;
+		}
+		
+		boolean versioned = Objects.nonNull(project.getVersion());
+		boolean update = mask != 0;
+		String sql = MODIFY_PROJECT_DETAILS_SQL[mask << 1 | (versioned ? 1 : 0)];
+		
+		long start = startOperation(MODIFY_PROJECT_METRICS);
+		
+		try (Connection conn = getConnection(MODIFY_PROJECT_METRICS)) {
+			startTransaction(conn);
+			
+			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+				int index = 1;
+				int rows = 0;
+				
+				if (update) {
+					for (int bit = 0; bit < PROJECT_DETAIL_COLUMNS.size(); bit++) {
+						if ((mask & 1 << bit) != 0) {
+							setProjectColumn(stmt, index++, project, 
+									PROJECT_DETAIL_COLUMNS.get(bit));
+						}
+					}
+					
+					setParameter(stmt, index++, project.getProjectId(), Integer.class);
+					
+					if (versioned) {
+						setParameter(stmt, index++, project.getVersion(), Integer.class);
+					}
+				}
+				
+				setParameter(stmt, index, project.getProjectId(), Integer.class);
+				stmt.execute();
+				
+				if (update) {
+					rows = stmt.getUpdateCount();
+					stmt.getMoreResults();
+				}
+				
+				Project row = null;
+				
+				try (ResultSet rs = stmt.getResultSet()) {
+					if (rs.next()) {
+						row = extract(rs, Project.class);
+					}
+				}
+				
+				if (update && rows == 0 && Objects.nonNull(row)) {
+					throw new OptimisticLockException("Project with ID=" + project.getProjectId() 
+							+ " was modified by someone else. Expected version " 
+							+ project.getVersion() + " but found " + row.getVersion() + ".");
+				}
+				
+				commitTransaction(conn, MODIFY_PROJECT_METRICS);
+				MODIFY_PROJECT_METRICS.recordRowsWritten(rows);
+				
+				if (Objects.isNull(row)) {
+					return Optional.empty();
+				}
+				
+				copyProjectColumns(row, project);
+				return Optional.of(project);
+			} catch (Exception e) {
+				MODIFY_PROJECT_METRICS.recordError(e);
+				rollbackTransaction(conn, MODIFY_PROJECT_METRICS);
+				throw e instanceof DbException ? (DbException) e : new DbException(e);
+			}
+		} catch (SQLException e) {
+			MODIFY_PROJECT_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(MODIFY_PROJECT_METRICS, start);
+		}
+	}
+
+	/*
+	 * modifyProjectDetailsSql() method
+	 *  - Builds and registers the modifyProjectDetails() statements. The entry at
+	 *    mask << 1 | versioned writes the PROJECT_DETAIL_COLUMNS whose bits are set in mask;
+	 *    mask 0 only reads the row.
+	 */
+	private static String[] modifyProjectDetailsSql() {
+		String[] statements = new String[2 << PROJECT_DETAIL_COLUMNS.size()];
+		
+		for (int index = 0; index < statements.length; index++) {
+			int mask = index >> 1;
+			boolean versioned = (index & 1) != 0;
+			
+			if (mask == 0) {
+				statements[index] = FETCH_PROJECT_SQL;
+				continue;
+			}
+			
+			List<String> columns = new ArrayList<>();
+			
+			for (int bit = 0; bit < PROJECT_DETAIL_COLUMNS.size(); bit++) {
+				if ((mask & 1 << bit) != 0) {
+					columns.add(PROJECT_DETAIL_COLUMNS.get(bit));
+				}
+			}
+			
+			// @formatter:off
+			String sql = ""
+					+ "UPDATE " + PROJECT_TABLE + " SET "
+					+ columns.stream().map(column -> column + " = ?, ")
+							.collect(Collectors.joining())
+					+ "version = version + 1 "
+					+ "WHERE project_id = ?" + (versioned ? " AND version = ?" : "") + "; "
+					+ FETCH_PROJECT_SQL;
+			// @formatter:on
+			
+			statements[index] = SqlRegistry.register(
+					"modifyProjectDetails" + columns + (versioned ? "Versioned" : ""), sql);
+		}
+		
+		return statements;
+	}
+
+	/*
+	 * setProjectColumn(PreparedStatement x, int y, Project z, String column) method
+	 *  - Binds the value of one project detail column, by column name.
+	 */
+	private void setProjectColumn(PreparedStatement stmt, int index, Project project, 
+			String column) throws SQLException {
+		switch (column) {
+		case "project_name":
+			setParameter(stmt, index, project.getProjectName(), String.class);
+			break;
+		case "estimated_hours":
+			setParameter(stmt, index, project.getEstimatedHours(), BigDecimal.class);
+			break;
+		case "actual_hours":
+			setParameter(stmt, index, project.getActualHours(), BigDecimal.class);
+			break;
+		case "difficulty":
+			setParameter(stmt, index, project.getDifficulty(), Integer.class);
+			break;
+		case "notes":
+			setParameter(stmt, index, project.getNotes(), String.class);
+			break;
+		default:
+			throw new DbException("Unknown project column: " + column);
+		}
+	}
+
+	/*
+	 * copyProjectColumns(Project x, Project y) method
+	 *  - Copies the row columns of source onto target and marks target clean. The child lists
+	 *    are left alone.
+	 */
+	private void copyProjectColumns(Project source, Project target) {
+		target.setProjectName(source.getProjectName());
+		target.setEstimatedHours(source.getEstimatedHours());
+		target.setActualHours(source.getActualHours());
+		target.setDifficulty(source.getDifficulty());
+		target.setNotes(source.getNotes());
+		target.setVersion(source.getVersion());
+		target.clearDirty();
+	}
+
+	public boolean deleteProject(Integer projectId) {
+		long start = startOperation(DELETE_PROJECT_METRICS);
+		
+		try (Connection conn = getConnection(DELETE_PROJECT_METRICS)) {
+			startTransaction(conn);
+			
+			try (PreparedStatement stmt = conn.prepareStatement(DELETE_PROJECT_SQL)) {
+				setParameter(stmt, 1, projectId, Integer.class);
+				
+				int rows = stmt.executeUpdate();
+				
+				commitTransaction(conn, DELETE_PROJECT_METRICS);
+				DELETE_PROJECT_METRICS.recordRowsWritten(rows);
+				return rows == 1;
+			} catch (Exception e) {
+				DELETE_PROJECT_METRICS.recordError(e);
+				rollbackTransaction(conn, DELETE_PROJECT_METRICS);
+				throw new DbException(e);
+			}
+		} catch (SQLException e) {
+			DELETE_PROJECT_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(DELETE_PROJECT_METRICS, start);
+		}
+	}
+
+	/*
+	 * deleteProjects(Collection x, Consumer y) method
+	 *  - Deletes the projects with the given IDs, with their materials, steps and category
+	 *    links, deleteChunkSize projects per transaction. Each chunk is one multi-statement
+	 *    request and is committed before the next one starts, so locks are held for one chunk
+	 *    at a time and concurrent readers are not stalled behind the whole purge.
+	 *  - After each chunk, the running counts are passed to progress (which may be null), then
+	 *    the method sleeps deletePauseMillis if set.
+	 *  - A failure rolls back the current chunk only; earlier chunks stay deleted.
+	 *  - Returns the number of rows deleted from each table. Missing IDs are skipped.
+	 */
+	public DeleteResult deleteProjects(Collection<Integer> projectIds, 
+			Consumer<DeleteResult> progress) {
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(projectIds));
+		ids.removeIf(Objects::isNull);
+		
+		DeleteCounter counter = new DeleteCounter(progress);
+		long start = startOperation(DELETE_PROJECTS_METRICS);
+		
+		try (Connection conn = getConnection(DELETE_PROJECTS_METRICS)) {
+			for (List<Integer> chunk : partition(ids, deleteChunkSize)) {
+				startTransaction(conn);
+				
+				try {
+					deleteChunk(conn, chunk, counter, DELETE_PROJECTS_METRICS);
+					commitTransaction(conn, DELETE_PROJECTS_METRICS);
+				} catch (Exception e) {
+					DELETE_PROJECTS_METRICS.recordError(e);
+					rollbackTransaction(conn, DELETE_PROJECTS_METRICS);
+					throw e instanceof DbException ? (DbException) e : new DbException(e);
+				}
+				
+				counter.chunkCommitted();
+				pauseBetweenChunks();
+			}
+			
+			return counter.result();
+		} catch (SQLException e) {
+			DELETE_PROJECTS_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(DELETE_PROJECTS_METRICS, start);
+		}
+	}
+
+	/*
+	 * deleteProjectsWhere(ProjectFilter x, Consumer y) method
+	 *  - Deletes every project that matches the filter, in chunks like deleteProjects(). Each
+	 *    transaction locks the next deleteChunkSize matching project IDs, walking the primary
+	 *    key upward, deletes them and commits.
+	 *  - Projects that start to match after the walk has passed their ID are not deleted.
+	 *  - Returns the number of rows deleted from each table.
+	 */
+	public DeleteResult deleteProjectsWhere(ProjectFilter filter, Consumer<DeleteResult> progress) {
+		DeleteCounter counter = new DeleteCounter(progress);
+		long start = startOperation(DELETE_PROJECTS_WHERE_METRICS);
+		
+		try (Connection conn = getConnection(DELETE_PROJECTS_WHERE_METRICS)) {
+			int afterId = 0;
+			List<Integer> chunk;
+			
+			do {
+				startTransaction(conn);
+				
+				try {
+					chunk = lockMatchingProjectIds(conn, filter, afterId, deleteChunkSize);
+					
+					if (!chunk.isEmpty()) {
+						deleteChunk(conn, chunk, counter, DELETE_PROJECTS_WHERE_METRICS);
+						afterId = chunk.get(chunk.size() - 1);
+					}
+					
+					commitTransaction(conn, DELETE_PROJECTS_WHERE_METRICS);
+				} catch (Exception e) {
+					DELETE_PROJECTS_WHERE_METRICS.recordError(e);
+					rollbackTransaction(conn, DELETE_PROJECTS_WHERE_METRICS);
+					throw e instanceof DbException ? (DbException) e : new DbException(e);
+				}
+				
+				if (!chunk.isEmpty()) {
+					counter.chunkCommitted();
+				}
+				
+				if (chunk.size() == deleteChunkSize) {
+					pauseBetweenChunks();
+				}
+			} while (chunk.size() == deleteChunkSize);
+			
+			return counter.result();
+		} catch (SQLException e) {
+			DELETE_PROJECTS_WHERE_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(DELETE_PROJECTS_WHERE_METRICS, start);
+		}
+	}
+
+	/*
+	 * lockMatchingProjectIds(Connection x, ProjectFilter y, int z, int limit) method
+	 *  - Returns up to limit IDs of matching projects above afterId, in ID order, and locks
+	 *    them for the rest of the transaction.
+	 */
+	private List<Integer> lockMatchingProjectIds(Connection conn, ProjectFilter filter, 
+			int afterId, int limit) throws SQLException {
+		StringBuilder sql = new StringBuilder("SELECT p.project_id FROM " + PROJECT_TABLE + " p ")
+				.append("WHERE p.project_id > ?");
+		List<Object> values = new ArrayList<>();
+		
+		values.add(afterId);
+		
+		if (Objects.nonNull(filter.getNameLike())) {
+			sql.append(" AND p.project_name LIKE ?");
+			values.add(filter.getNameLike());
+		}
+		
+		if (Objects.nonNull(filter.getMinDifficulty())) {
+			sql.append(" AND p.difficulty >= ?");
+			values.add(filter.getMinDifficulty());
+		}
+		
+		if (Objects.nonNull(filter.getMaxDifficulty())) {
+			sql.append(" AND p.difficulty <= ?");
+			values.add(filter.getMaxDifficulty());
+		}
+		
+		if (Objects.nonNull(filter.getMaxActualHours())) {
+			sql.append(" AND p.actual_hours <= ?");
+			values.add(filter.getMaxActualHours());
+		}
+		
+		if (Objects.nonNull(filter.getCategoryName())) {
+			// @formatter:off
+			sql.append(" AND EXISTS ("
+					+ "SELECT 1 FROM " + PROJECT_CATEGORY_TABLE + " pc "
+					+ "JOIN " + CATEGORY_TABLE + " c ON c.category_id = pc.category_id "
+					+ "WHERE pc.project_id = p.project_id AND c.category_name = ?)");
+			// @formatter:on
+			values.add(filter.getCategoryName());
+		}
+		
+		sql.append(" ORDER BY p.project_id LIMIT ? FOR UPDATE");
+		values.add(limit);
+		
+		try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+			int index = 1;
+			
+			for (Object value : values) {
+				setParameter(stmt, index++, value, value.getClass());
+			}
+			
+			try (ResultSet rs = stmt.executeQuery()) {
+				List<Integer> ids = new ArrayList<>(limit);
+				
+				while (rs.next()) {
+					ids.add(rs.getInt(1));
+				}
+				
+				return ids;
+			}
+		}
+	}
+
+	/*
+	 * deleteChunk(Connection x, List y, DeleteCounter z, OperationMetrics metrics) method
+	 *  - Deletes one chunk of projects with a single multi-statement request. Only project is
+	 *    deleted from; ON DELETE CASCADE removes the materials, steps, category links and
+	 *    project_summary rows. MySQL does not fire triggers for cascaded deletes, so no
+	 *    project_summary row is updated only to be deleted a moment later.
+	 *  - The per-table counts for the counter come from COUNT(*) queries run just before the
+	 *    DELETE. Each one is a range scan of a project_id index. The request first locks the
+	 *    chunk's project rows, which the DELETE would lock anyway. Adding a child row needs a
+	 *    shared lock on its project, so none can be added between the counts and the delete
+	 *    and the counts are exact.
+	 */
+	private void deleteChunk(Connection conn, List<Integer> chunk, DeleteCounter counter, 
+			OperationMetrics metrics) throws SQLException {
+		int size = inListSize(chunk.size(), deleteChunkSize);
+		String sql = inListSql("deleteProjectChunk", DELETE_PROJECT_CHUNK_SQL, size);
+		
+		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+			int index = 1;
+			
+			for (int list = 0; list < 5; list++) {
+				index = bindInList(stmt, index, chunk, size, Integer.class);
+			}
+			
+			stmt.execute();
+			stmt.getMoreResults();
+			
+			long materials;
+			long steps;
+			long projectCategories;
+			
+			try (ResultSet rs = stmt.getResultSet()) {
+				rs.next();
+				materials = rs.getLong(1);
+				steps = rs.getLong(2);
+				projectCategories = rs.getLong(3);
+			}
+			
+			stmt.getMoreResults();
+			
+			long projects = stmt.getUpdateCount();
+			
+			counter.add(projects, materials, steps, projectCategories);
+			metrics.recordRowsWritten(projects + materials + steps + projectCategories);
+		}
+	}
+
+	/*
+	 * pauseBetweenChunks() method
+	 *  - Sleeps deletePauseMillis, giving replicas and waiting transactions room between
+	 *    chunks of a bulk delete.
+	 */
+	private void pauseBetweenChunks() {
+		if (deletePauseMillis <= 0) {
+			return;
+		}
+		
+		try {
+			Thread.sleep(deletePauseMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted between bulk delete chunks.", e);
+		}
+	}
+
+	/*
+	 * exportProjectGraphs(Consumer x) method
+	 *  - Passes every project, with its materials, steps and categories, to the callback in
+	 *    project ID order. Returns the number of projects.
+	 *  - Instead of looking up the children of each project, one ordered cursor is opened per
+	 *    table and the four are merge-joined on project_id, so the whole catalog is read in
+	 *    four queries. Each cursor fetches streamFetchSize rows per round trip and only the
+	 *    current project is held in memory.
+	 *  - The cursors share one read-only transaction, so the export is a consistent snapshot.
+	 *    MySQL materializes cursor results in temporary tables on the server.
+	 */
+	public long exportProjectGraphs(Consumer<Project> callback) {
+		long start = startOperation(EXPORT_PROJECT_GRAPHS_METRICS);
+		
+		try (Connection conn = getReadConnection(EXPORT_PROJECT_GRAPHS_METRICS)) {
+			startTransaction(conn);
+			
+			try (PreparedStatement projectStmt = openCursor(conn, EXPORT_PROJECTS_SQL);
+					PreparedStatement materialStmt = openCursor(conn, EXPORT_MATERIALS_SQL);
+					PreparedStatement stepStmt = openCursor(conn, EXPORT_STEPS_SQL);
+					PreparedStatement categoryStmt = openCursor(conn, EXPORT_CATEGORY_IDS_SQL);
+					ResultSet projectRs = projectStmt.executeQuery();
+					ResultSet materialRs = materialStmt.executeQuery();
+					ResultSet stepRs = stepStmt.executeQuery();
+					ResultSet categoryRs = categoryStmt.executeQuery()) {
+				RowMapper<Project> projectMapper = rowMapper(projectRs, Project.class);
+				ChildCursor<Material> materials = new ChildCursor<>(materialRs, 
+						rowMapper(materialRs, Material.class)::map);
+				ChildCursor<Step> steps = new ChildCursor<>(stepRs, 
+						rowMapper(stepRs, Step.class)::map);
+				ChildCursor<Category> categories = new ChildCursor<>(categoryRs, 
+						rs -> categoryDictionary.resolve(conn, rs.getInt("category_id")));
+				Comparator<Step> stepOrder = Comparator.comparing(Step::getStepOrder)
+						.thenComparing(Step::getStepId);
+				long count = 0;
+				long rows = 0;
+				
+				while (projectRs.next()) {
+					Project project = projectMapper.map(projectRs);
+					Integer projectId = project.getProjectId();
+					
+					rows += 1 + materials.readInto(projectId, project.getMaterials())
+							+ steps.readInto(projectId, project.getSteps())
+							+ categories.readInto(projectId, project.getCategories());
+					project.getSteps().sort(stepOrder);
+					
+					callback.accept(project);
+					count++;
+				}
+				
+				commitTransaction(conn, EXPORT_PROJECT_GRAPHS_METRICS);
+				EXPORT_PROJECT_GRAPHS_METRICS.recordRowsRead(rows);
+				return count;
+			} catch (Exception e) {
+				EXPORT_PROJECT_GRAPHS_METRICS.recordError(e);
+				rollbackTransaction(conn, EXPORT_PROJECT_GRAPHS_METRICS);
+				throw e instanceof DbException ? (DbException) e : new DbException(e);
+			}
+		} catch (SQLException e) {
+			EXPORT_PROJECT_GRAPHS_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(EXPORT_PROJECT_GRAPHS_METRICS, start);
+		}
+	}
+
+	/*
+	 * openCursor(Connection x, String y) method
+	 *  - Prepares a forward-only query that fetches streamFetchSize rows per round trip.
+	 */
+	private PreparedStatement openCursor(Connection conn, String sql) throws SQLException {
+		PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, 
+				ResultSet.CONCUR_READ_ONLY);
+		
+		stmt.setFetchSize(streamFetchSize);
+		return stmt;
+	}
+
+	/*
+	 * loadCatalogColumns() method
+	 *  - Reads the project and material tables into a CatalogColumns analytics store, one
+	 *    cursor per table inside one read-only transaction, so both tables are read as of the
+	 *    same moment.
+	 *  - Rows go straight from the result set into primitive columns; no entities are built.
+	 */
+	public CatalogColumns loadCatalogColumns() {
+		long start = startOperation(LOAD_CATALOG_COLUMNS_METRICS);
+		
+		try (Connection conn = getReadConnection(LOAD_CATALOG_COLUMNS_METRICS)) {
+			startTransaction(conn);
+			
+			try (PreparedStatement projectStmt = openCursor(conn, LOAD_CATALOG_PROJECTS_SQL);
+					PreparedStatement materialStmt = openCursor(conn, LOAD_CATALOG_MATERIALS_SQL)) {
+				CatalogColumns.Builder builder = new CatalogColumns.Builder();
+				
+				try (ResultSet rs = projectStmt.executeQuery()) {
+					while (rs.next()) {
+						int difficulty = rs.getInt("difficulty");
+						Integer nullableDifficulty = rs.wasNull() ? null : difficulty;
+						long estimated = rs.getLong("estimated_hundredths");
+						
+						estimated = rs.wasNull() ? CatalogColumns.NO_HOURS : estimated;
+						
+						long actual = rs.getLong("actual_hundredths");
+						
+						actual = rs.wasNull() ? CatalogColumns.NO_HOURS : actual;
+						builder.addProject(rs.getInt("project_id"), rs.getString("project_name"), 
+								nullableDifficulty, estimated, actual);
+					}
+				}
+				
+				try (ResultSet rs = materialStmt.executeQuery()) {
+					while (rs.next()) {
+						builder.addMaterial(rs.getInt("project_id"), rs.getString("material_name"),
+								rs.getInt("num_required"), rs.getLong("cost_cents"));
+					}
+				}
+				
+				commitTransaction(conn, LOAD_CATALOG_COLUMNS_METRICS);
+				
+				CatalogColumns columns = builder.build();
+				
+				LOAD_CATALOG_COLUMNS_METRICS.recordRowsRead(
+						columns.getProjectCount() + columns.getMaterialCount());
+				return columns;
+			} catch (Exception e) {
+				LOAD_CATALOG_COLUMNS_METRICS.recordError(e);
+				rollbackTransaction(conn, LOAD_CATALOG_COLUMNS_METRICS);
+				throw e instanceof DbException ? (DbException) e : new DbException(e);
+			}
+		} catch (SQLException e) {
+			LOAD_CATALOG_COLUMNS_METRICS.recordError(e);
+			throw new DbException(e);
+		} finally {
+			endOperation(LOAD_CATALOG_COLUMNS_METRICS, start);
+		}
+	}
+
+	/*
+	 * importProjectGraphs(Iterator x, int y) method
+	 *  - Inserts every project with its materials, steps and categories, commitInterval
+	 *    projects per transaction. Returns the number of projects imported.
+	 *  - Each transaction writes one batched INSERT per table (several when a table has more
+	 *    than INSERT_BATCH_SIZE rows), which rewriteBatchedStatements sends as multi-row
+	 *    INSERTs, so round trips grow with the data volume divided by the batch size rather
+	 *    than with the number of rows.
+	 *  - Projects get new IDs; IDs in the input are ignored. Categories are matched by name and
+	 *    created when missing. Only commitInterval projects are held in memory.
+	 *  - A failure rolls back the current transaction only; earlier ones stay committed.
+	 */
+	public long importProjectGraphs(Iterator<Project> projects, int commitInterval) {
+		long start = startOperation(IMPORT_PROJECT_GRAPHS_METRICS);
+		
+		try (Connection conn = getConnection(IMPORT_PROJECT_GRAPHS_METRICS)) {
+			List<Project> chunk = new ArrayList<>(Math.max(commitInterval, 1));
+			long imported = 0;
+			
+			while (projects.hasNext()) {
+				chunk.add(projects.next());
+				
+				if (chunk.size() >= commitInterval || !projects.hasNext()) {
+					importChunk(conn, chunk);
+					imported += chunk.size();
+					chunk.clear();
+				}
+			}
+			
+			return imported;
+		} catch (SQLException | RuntimeException e) {
+			IMPORT_PROJECT_GRAPHS_METRICS.recordError(e);
+			throw e instanceof DbException ? (DbException) e : new DbException(e);
+		} finally {
+			endOperation(IMPORT_PROJECT_GRAPHS_METRICS, start);
+		}
+	}
+
+	/*
+	 * importChunk(Connection x, List y) method
+	 *  - Writes one transaction's worth of project graphs: the projects (for their generated
+	 *    IDs), then the materials, steps and category links of all of them.
+	 */
+	private void importChunk(Connection conn, List<Project> chunk) throws SQLException {
+		GraphIds original = new GraphIds(chunk);
+		
+		startTransaction(conn);
+		
+		try {
+			List<Category> categories = new ArrayList<>();
+			long rows = chunk.size();
+			
+			try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_SQL, 
+					Statement.RETURN_GENERATED_KEYS)) {
+				for (List<Project> batch : partition(chunk, INSERT_BATCH_SIZE)) {
+					for (Project project : batch) {
+						setProjectParameters(stmt, project);
+						stmt.addBatch();
+					}
+					
+					stmt.executeBatch();
+					
+					Iterator<Integer> ids = getGeneratedIds(stmt, batch.size()).iterator();
+					
+					for (Project project : batch) {
+						project.setProjectId(ids.next());
+						categories.addAll(project.getCategories());
+					}
+				}
+			}
+			
+			resolveCategories(conn, categories);
+			
+			try (PreparedStatement stmt = conn.prepareStatement(INSERT_MATERIAL_SQL)) {
+				int pending = 0;
+				
+				for (Project project : chunk) {
+					for (Material material : project.getMaterials()) {
+						material.setProjectId(project.getProjectId());
+						
+						setParameter(stmt, 1, project.getProjectId(), Integer.class);
+						setParameter(stmt, 2, material.getMaterialName(), String.class);
+						setParameter(stmt, 3, material.getNumRequired(), Integer.class);
+						setParameter(stmt, 4, material.getCost(), BigDecimal.class);
+						pending = addToBatch(stmt, pending);
+						rows++;
+					}
+				}
+				
+				stmt.executeBatch();
+			}
+			
+			try (PreparedStatement stmt = conn.prepareStatement(INSERT_STEP_SQL)) {
+				int pending = 0;
+				
+				for (Project project : chunk) {
+					int stepOrder = 0;
+					
+					for (Step step : project.getSteps()) {
+						stepOrder = Objects.isNull(step.getStepOrder()) 
+								? stepOrder + STEP_ORDER_GAP : step.getStepOrder();
+						
+						step.setProjectId(project.getProjectId());
+						step.setStepOrder(stepOrder);
+						
+						setParameter(stmt, 1, project.getProjectId(), Integer.class);
+						setParameter(stmt, 2, step.getStepText(), String.class);
+						setParameter(stmt, 3, step.getStepOrder(), Integer.class);
+						pending = addToBatch(stmt, pending);
+						rows++;
+					}
+				}
+				
+				stmt.executeBatch();
+			}
+			
+			try (PreparedStatement stmt = conn.prepareStatement(INSERT_PROJECT_CATEGORY_SQL)) {
+				int pending = 0;
+				
+				for (Project project : chunk) {
+					Set<Integer> categoryIds = new LinkedHashSet<>();
+					
+					for (Category category : project.getCategories()) {
+						if (categoryIds.add(category.getCategoryId())) {
+							setParameter(stmt, 1, project.getProjectId(), Integer.class);
+							setParameter(stmt, 2, category.getCategoryId(), Integer.class);
+							pending = addToBatch(stmt, pending);
+							rows++;
+						}
+					}
+				}
+				
+				stmt.executeBatch();
+			}
+			
+			commitTransaction(conn, IMPORT_PROJECT_GRAPHS_METRICS);
+			IMPORT_PROJECT_GRAPHS_METRICS.recordRowsWritten(rows);
+			chunk.forEach(this::markInserted);
+			
+			/* Only committed categories are added to the dictionary. */
+			categories.forEach(categoryDictionary::register);
+		} catch (Exception e) {
+			IMPORT_PROJECT_GRAPHS_METRICS.recordError(e);
+			rollbackTransaction(conn, IMPORT_PROJECT_GRAPHS_METRICS);
+			original.restore();
+			throw e instanceof DbException ? (DbException) e : new DbException(e);
+		}
+	}
+
+	/*
+	 * addToBatch(PreparedStatement x, int y) method
+	 *  - Adds the bound parameters to the batch and sends the batch once it holds
+	 *    INSERT_BATCH_SIZE rows. Returns the number of rows now waiting in the batch.
+	 */
+	private int addToBatch(PreparedStatement stmt, int pending) throws SQLException {
+		stmt.addBatch();
+		
+		if (pending + 1 < INSERT_BATCH_SIZE) {
+			return pending + 1;
+		}
+		
+		stmt.executeBatch();
+		return 0;
+	}
 
+	/*
+	 * RowReader interface
+	 *  - Reads an object from the current row of a result set.
+	 */
+	@FunctionalInterface
+	private interface RowReader<T> {
+		T read(ResultSet rs) throws SQLException;
+	}
+
+	/*
+	 * ChildCursor class
+	 *  - One side of the export's merge join: a child table's cursor ordered by project_id,
+	 *    read one project's rows at a time.
+	 */
+	private static class ChildCursor<T> {
+		private final ResultSet rs;
+		private final RowReader<T> reader;
+		private boolean hasRow;
+		private int rowProjectId;
+
+		ChildCursor(ResultSet rs, RowReader<T> reader) throws SQLException {
+			this.rs = rs;
+			this.reader = reader;
+			advance();
+		}
+
+		/*
+		 * readInto(Integer x, List y) method
+		 *  - Adds the rows of the given project to the list and leaves the cursor on the first
+		 *    row of a later project. Rows of earlier projects, which the foreign keys rule out,
+		 *    are skipped. Returns the number of rows read.
+		 */
+		int readInto(Integer projectId, List<T> children) throws SQLException {
+			int rows = 0;
+			
+			while (hasRow && rowProjectId < projectId) {
+				advance();
+			}
+			
+			while (hasRow && rowProjectId == projectId) {
+				T child = reader.read(rs);
+				
+				if (Objects.nonNull(child)) {
+					children.add(child);
+				}
+				
+				rows++;
+				advance();
+			}
+			
+			return rows;
+		}
 
+		private void advance() throws SQLException {
+			hasRow = rs.next();
+			
+			if (hasRow) {
+				rowProjectId = rs.getInt("project_id");
+			}
+		}
+	}
 
+	/*
+	 * DeleteCounter class
+	 *  - Running per-table totals of a bulk delete. Counts from a chunk are only reported once
+	 *    the chunk has committed.
+	 */
+	private static class DeleteCounter {
+		private final Consumer<DeleteResult> progress;
+		private final long startNanos = System.nanoTime();
+		private int chunks;
+		private long projects;
+		private long materials;
+		private long steps;
+		private long projectCategories;
+		private long[] pending = new long[4];
 
+		DeleteCounter(Consumer<DeleteResult> progress) {
+			this.progress = progress;
+		}
 
+		void add(long projects, long materials, long steps, long projectCategories) {
+			pending = new long[] { projects, materials, steps, projectCategories };
+		}
 
+		void chunkCommitted() {
+			chunks++;
+			projects += pending[0];
+			materials += pending[1];
+			steps += pending[2];
+			projectCategories += pending[3];
+			pending = new long[4];
+			
+			if (Objects.nonNull(progress)) {
+				progress.accept(result());
+			}
+		}
 
+		DeleteResult result() {
+			return new DeleteResult(chunks, projects, materials, steps, projectCategories,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+		}
+	}
+}
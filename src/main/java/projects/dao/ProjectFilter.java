@@ -0,0 +1,133 @@
+package projects.dao;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import projects.entity.Project;
+
+/*
+ * ProjectFilter class
+ *  - Selects projects for deleteProjectsWhere(). Every criterion that is set must match; an
+ *    empty filter matches every project.
+ *     - nameLike: a SQL LIKE pattern on project_name, where % matches any run of characters
+ *       and _ matches one, and a backslash makes the next character literal, as with MySQL's
+ *       default ESCAPE. Like the column's collation, the match ignores case.
+ *     - minDifficulty / maxDifficulty: an inclusive difficulty range.
+ *     - maxActualHours: projects with actual_hours at or below the value.
+ *     - categoryName: projects linked to the category with this name.
+ *  - test() applies the same criteria to a loaded Project, so caches can drop what a filtered
+ *    delete removed.
+ */
+
+public class ProjectFilter implements Predicate<Project> {
+
+	private String nameLike;
+	private Integer minDifficulty;
+	private Integer maxDifficulty;
+	private BigDecimal maxActualHours;
+	private String categoryName;
+	private volatile Pattern namePattern;
+
+	@Override
+	public boolean test(Project project) {
+		if (Objects.nonNull(nameLike) && (Objects.isNull(project.getProjectName()) 
+				|| !namePattern().matcher(project.getProjectName()).matches())) {
+			return false;
+		}
+		
+		if (Objects.nonNull(minDifficulty) && (Objects.isNull(project.getDifficulty()) 
+				|| project.getDifficulty() < minDifficulty)) {
+			return false;
+		}
+		
+		if (Objects.nonNull(maxDifficulty) && (Objects.isNull(project.getDifficulty()) 
+				|| project.getDifficulty() > maxDifficulty)) {
+			return false;
+		}
+		
+		if (Objects.nonNull(maxActualHours) && (Objects.isNull(project.getActualHours()) 
+				|| project.getActualHours().compareTo(maxActualHours) > 0)) {
+			return false;
+		}
+		
+		return Objects.isNull(categoryName) || project.getCategories().stream()
+				.anyMatch(category -> categoryName.equalsIgnoreCase(category.getCategoryName()));
+	}
+
+	/* namePattern() method - converts the LIKE pattern to a case-insensitive regex once */
+	private Pattern namePattern() {
+		if (Objects.nonNull(namePattern)) {
+			return namePattern;
+		}
+		
+		StringBuilder regex = new StringBuilder();
+		
+		for (int index = 0; index < nameLike.length(); index++) {
+			char ch = nameLike.charAt(index);
+			
+			if (ch == '\\' && index + 1 < nameLike.length()) {
+				regex.append(Pattern.quote(String.valueOf(nameLike.charAt(++index))));
+			} else if (ch == '%') {
+				regex.append(".*");
+			} else if (ch == '_') {
+				regex.append('.');
+			} else {
+				regex.append(Pattern.quote(String.valueOf(ch)));
+			}
+		}
+		
+		namePattern = Pattern.compile(regex.toString(), 
+				Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+		return namePattern;
+	}
+
+	public String getNameLike() {
+		return nameLike;
+	}
+
+	public void setNameLike(String nameLike) {
+		this.nameLike = nameLike;
+		this.namePattern = null;
+	}
+
+	public Integer getMinDifficulty() {
+		return minDifficulty;
+	}
+
+	public void setMinDifficulty(Integer minDifficulty) {
+		this.minDifficulty = minDifficulty;
+	}
+
+	public Integer getMaxDifficulty() {
+		return maxDifficulty;
+	}
+
+	public void setMaxDifficulty(Integer maxDifficulty) {
+		this.maxDifficulty = maxDifficulty;
+	}
+
+	public BigDecimal getMaxActualHours() {
+		return maxActualHours;
+	}
+
+	public void setMaxActualHours(BigDecimal maxActualHours) {
+		this.maxActualHours = maxActualHours;
+	}
+
+	public String getCategoryName() {
+		return categoryName;
+	}
+
+	public void setCategoryName(String categoryName) {
+		this.categoryName = categoryName;
+	}
+
+	@Override
+	public String toString() {
+		return "ProjectFilter[nameLike=" + nameLike + ", minDifficulty=" + minDifficulty 
+				+ ", maxDifficulty=" + maxDifficulty + ", maxActualHours=" + maxActualHours 
+				+ ", categoryName=" + categoryName + "]";
+	}
+}
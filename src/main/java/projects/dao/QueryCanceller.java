@@ -0,0 +1,100 @@
+package projects.dao;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/*
+ * QueryCanceller class
+ *  - Lets another thread stop the SQL that a call is running. call() binds the canceller to
+ *    the calling thread; while it is bound, ConnectionPool reports each statement execute to
+ *    it, and cancel() sends Statement.cancel() (KILL QUERY on MySQL) to the one in progress.
+ *  - Once cancelled, any later execute in the call fails at once instead of reaching the
+ *    server.
+ */
+
+public final class QueryCanceller {
+
+	private static final ThreadLocal<QueryCanceller> CURRENT = new ThreadLocal<>();
+
+	/* The SQLState MySQL reports for a query stopped by KILL QUERY. */
+	private static final String QUERY_INTERRUPTED = "70100";
+
+	private volatile Statement running;
+	private volatile boolean cancelled;
+
+	/*
+	 * call(Callable x) method
+	 *  - Runs the call on this thread with the canceller bound, and returns its result.
+	 */
+	public <T> T call(Callable<T> call) throws Exception {
+		QueryCanceller previous = CURRENT.get();
+
+		CURRENT.set(this);
+
+		try {
+			return call.call();
+		} finally {
+			if (Objects.isNull(previous)) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+
+	/*
+	 * cancel() method
+	 *  - Cancels the statement being executed, if any, and every later one. May be called from
+	 *    any thread, more than once.
+	 */
+	public void cancel() {
+		cancelled = true;
+
+		Statement stmt = running;
+
+		if (Objects.nonNull(stmt)) {
+			try {
+				stmt.cancel();
+			} catch (SQLException e) {
+				/* The statement finished or its connection failed; either way it is not running. */
+			}
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/*
+	 * current() method
+	 *  - Returns the canceller bound to this thread, or null if there is none.
+	 */
+	static QueryCanceller current() {
+		return CURRENT.get();
+	}
+
+	/*
+	 * starting(Statement x) method
+	 *  - Called by the pool just before the statement executes. Throws if the call has already
+	 *    been cancelled. running is set before cancelled is read, and cancel() does the
+	 *    reverse, so a concurrent cancel() sees the statement or this method sees the flag.
+	 */
+	void starting(Statement stmt) throws SQLException {
+		running = stmt;
+
+		if (cancelled) {
+			running = null;
+			throw new SQLException("The call was cancelled.", QUERY_INTERRUPTED);
+		}
+	}
+
+	/*
+	 * finished() method
+	 *  - Called by the pool once the execute returns or fails.
+	 */
+	void finished() {
+		running = null;
+	}
+}
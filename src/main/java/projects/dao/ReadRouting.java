@@ -0,0 +1,13 @@
+package projects.dao;
+
+/*
+ * ReadRouting enum
+ *  - Selects how ReplicaSet picks a replica for each read.
+ *     - ROUND_ROBIN: the healthy replicas in turn.
+ *     - LEAST_LOADED: the healthy replica with the fewest borrowed connections, taking them in
+ *       turn when there is a tie.
+ */
+
+public enum ReadRouting {
+	ROUND_ROBIN, LEAST_LOADED
+}
@@ -0,0 +1,38 @@
+package projects.dao;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ReadSession class
+ *  - The read-your-writes state of one client: when it last returned a connection it may have
+ *    written on. Reads through the session go to the primary for readYourWritesMillis after
+ *    that, so the client never reads a replica that has not caught up with its own writes.
+ *  - The state belongs to the session object, not to a thread, so work a client hands to
+ *    other threads (ProjectServiceAsync) still sees its own writes. Sessions are thread-safe.
+ */
+
+public class ReadSession {
+
+	private static final long READ_YOUR_WRITES_NANOS = TimeUnit.MILLISECONDS.toNanos(
+			Long.getLong("projects.db.readYourWritesMillis", 2000));
+
+	private volatile boolean written;
+	private volatile long lastWriteNanos;
+
+	/*
+	 * recordWrite() method
+	 *  - Called when a writable connection borrowed for this session is returned.
+	 */
+	void recordWrite() {
+		lastWriteNanos = System.nanoTime();
+		written = true;
+	}
+
+	/*
+	 * isRecentWriter() method
+	 *  - Returns true if the session wrote within the last readYourWritesMillis.
+	 */
+	boolean isRecentWriter() {
+		return written && System.nanoTime() - lastWriteNanos < READ_YOUR_WRITES_NANOS;
+	}
+}
@@ -0,0 +1,292 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * ReplicaSet class
+ *  - Owns one read-only ConnectionPool per replica and picks one for each read, using
+ *    ReadRouting.
+ *  - A monitor thread checks each replica's replication lag every checkIntervalMillis. A
+ *    replica is skipped while its lag is above maxLagSeconds, while replication is stopped, or
+ *    after the check or a borrow fails, until a later check finds it healthy again.
+ *  - A replica whose pool is merely busy is passed over for that read only and stays healthy.
+ *  - A monitor user without the REPLICATION CLIENT privilege cannot read the lag. The replica
+ *    is then used with an unknown lag, and the missing privilege is logged once.
+ *  - A server that is not replicating at all reports no lag, so two standalone local MySQL
+ *    instances can stand in for a primary and a replica.
+ */
+
+public class ReplicaSet implements AutoCloseable {
+
+	private static final int ER_SPECIFIC_ACCESS_DENIED_ERROR = 1227;
+
+	private final List<Replica> replicas = new ArrayList<>();
+	private final ReadRouting routing;
+	private final long maxLagSeconds;
+	private final AtomicInteger next = new AtomicInteger();
+	private final ScheduledExecutorService monitor;
+
+	public ReplicaSet(List<PoolConfig> configs, ReadRouting routing, long maxLagSeconds,
+			long checkIntervalMillis) {
+		this.routing = Objects.requireNonNull(routing);
+		this.maxLagSeconds = maxLagSeconds;
+
+		for (PoolConfig config : configs) {
+			config.setReadOnly(true);
+			replicas.add(new Replica(config.getUrl(), new ConnectionPool(config)));
+		}
+
+		monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "projects-replica-monitor");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		replicas.forEach(this::checkLag);
+
+		if (!replicas.isEmpty() && checkIntervalMillis > 0) {
+			monitor.scheduleWithFixedDelay(() -> replicas.forEach(this::checkLag),
+					checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/*
+	 * getConnection() method
+	 *  - Borrows a read-only connection from a healthy replica, or returns null if no replica
+	 *    is healthy so the caller can fall back to the primary.
+	 *  - Never waits on a replica pool. A replica with no free connection is skipped for this
+	 *    read and the next one is tried. One whose pool fails to open a connection is also
+	 *    marked unhealthy.
+	 */
+	public Connection getConnection() {
+		int size = replicas.size();
+
+		for (int attempt = 0; attempt < size; attempt++) {
+			Replica replica = choose();
+
+			if (Objects.isNull(replica)) {
+				return null;
+			}
+
+			try {
+				Connection conn = replica.pool.tryGetConnection();
+
+				if (Objects.nonNull(conn)) {
+					replica.reads.increment();
+					return conn;
+				}
+			} catch (RuntimeException e) {
+				replica.markUnhealthy("borrow failed: " + e.getMessage());
+			}
+		}
+
+		return null;
+	}
+
+	/*
+	 * choose() method
+	 *  - Returns the next healthy replica according to the routing, or null if there is none.
+	 *    The round-robin counter also breaks ties between equally loaded replicas.
+	 */
+	private Replica choose() {
+		int size = replicas.size();
+
+		if (size == 0) {
+			return null;
+		}
+
+		int start = Math.floorMod(next.getAndIncrement(), size);
+		Replica chosen = null;
+
+		for (int offset = 0; offset < size; offset++) {
+			Replica replica = replicas.get((start + offset) % size);
+
+			if (!replica.healthy) {
+				continue;
+			}
+
+			if (routing == ReadRouting.ROUND_ROBIN) {
+				return replica;
+			}
+
+			if (Objects.isNull(chosen)
+					|| replica.pool.getActiveCount() < chosen.pool.getActiveCount()) {
+				chosen = replica;
+			}
+		}
+
+		return chosen;
+	}
+
+	/*
+	 * checkLag(Replica x) method
+	 *  - Reads Seconds_Behind_Source from SHOW REPLICA STATUS, falling back to
+	 *    Seconds_Behind_Master from SHOW SLAVE STATUS on servers older than 8.0.22.
+	 *  - No status row means the server is not a replica and has no lag. A null lag means
+	 *    replication is stopped.
+	 *  - A privilege error means the lag is unknown, not that the replica is down, so the
+	 *    replica stays in use. A replica whose pool is busy is left as it is until the next
+	 *    check.
+	 */
+	private void checkLag(Replica replica) {
+		Connection borrowed;
+
+		try {
+			borrowed = replica.pool.tryGetConnection();
+		} catch (RuntimeException e) {
+			replica.markUnhealthy("lag check failed: " + e.getMessage());
+			return;
+		}
+
+		if (Objects.isNull(borrowed)) {
+			return;
+		}
+
+		try (Connection conn = borrowed; Statement stmt = conn.createStatement()) {
+			Long lag;
+
+			try (ResultSet rs = stmt.executeQuery("SHOW REPLICA STATUS")) {
+				lag = readLag(rs, "Seconds_Behind_Source");
+			} catch (SQLException e) {
+				if (isAccessDenied(e)) {
+					throw e;
+				}
+
+				try (ResultSet rs = stmt.executeQuery("SHOW SLAVE STATUS")) {
+					lag = readLag(rs, "Seconds_Behind_Master");
+				}
+			}
+
+			if (Objects.isNull(lag)) {
+				replica.markUnhealthy("replication is stopped");
+			} else if (lag > maxLagSeconds) {
+				replica.lagSeconds = lag;
+				replica.markUnhealthy("lag of " + lag + "s is over " + maxLagSeconds + "s");
+			} else {
+				replica.lagSeconds = lag;
+				replica.markHealthy();
+			}
+		} catch (SQLException e) {
+			if (isAccessDenied(e)) {
+				replica.markLagUnknown(e.getMessage());
+			} else {
+				replica.markUnhealthy("lag check failed: " + e.getMessage());
+			}
+		} catch (RuntimeException e) {
+			replica.markUnhealthy("lag check failed: " + e.getMessage());
+		}
+	}
+
+	/* Error 1227 is MySQL's ER_SPECIFIC_ACCESS_DENIED_ERROR, e.g. no REPLICATION CLIENT. */
+	private static boolean isAccessDenied(SQLException e) {
+		return e.getErrorCode() == ER_SPECIFIC_ACCESS_DENIED_ERROR;
+	}
+
+	private static Long readLag(ResultSet rs, String column) throws SQLException {
+		if (!rs.next()) {
+			return 0L;
+		}
+
+		long lag = rs.getLong(column);
+		return rs.wasNull() ? null : lag;
+	}
+
+	/*
+	 * getReplicaCount() method
+	 *  - Returns the number of configured replicas, healthy or not.
+	 */
+	public int getReplicaCount() {
+		return replicas.size();
+	}
+
+	/*
+	 * getStatus() method
+	 *  - Returns one line per replica with its health, last known lag and read count.
+	 */
+	public List<String> getStatus() {
+		List<String> status = new ArrayList<>();
+
+		for (Replica replica : replicas) {
+			status.add(replica.toString());
+		}
+
+		return Collections.unmodifiableList(status);
+	}
+
+	/*
+	 * close() method
+	 *  - Stops the monitor and closes every replica pool.
+	 */
+	@Override
+	public void close() {
+		monitor.shutdownNow();
+		replicas.forEach(replica -> replica.pool.close());
+	}
+
+	/*
+	 * Replica class
+	 *  - One replica's pool plus the health state kept by the monitor.
+	 */
+	private static class Replica {
+		private final String url;
+		private final ConnectionPool pool;
+		private final LongAdder reads = new LongAdder();
+		private volatile boolean healthy;
+		private volatile long lagSeconds = -1;
+		private volatile String reason = "not checked";
+		private volatile boolean lagUnknownLogged;
+
+		Replica(String url, ConnectionPool pool) {
+			this.url = url;
+			this.pool = pool;
+		}
+
+		void markHealthy() {
+			if (!healthy) {
+				System.err.println("Replica " + url + " is available.");
+			}
+
+			reason = null;
+			healthy = true;
+		}
+
+		void markLagUnknown(String error) {
+			if (!lagUnknownLogged) {
+				System.err.println("Replica " + url + " lag is unknown, using it anyway: "
+						+ error);
+				lagUnknownLogged = true;
+			}
+
+			lagSeconds = -1;
+			markHealthy();
+		}
+
+		void markUnhealthy(String reason) {
+			if (healthy) {
+				System.err.println("Replica " + url + " is unavailable: " + reason);
+			}
+
+			this.reason = reason;
+			healthy = false;
+		}
+
+		@Override
+		public String toString() {
+			return url + ": " + (healthy ? "healthy" : "unavailable (" + reason + ")")
+					+ ", lagSeconds=" + lagSeconds + ", reads=" + reads.sum() + ", active="
+					+ pool.getActiveCount();
+		}
+	}
+}
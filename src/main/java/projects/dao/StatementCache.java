@@ -0,0 +1,104 @@
+package projects.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+ * StatementCache class
+ *  - An LRU cache of idle prepared statements for one physical connection. It lives as long
+ *    as the connection, so statements survive across pool borrows and each SQL text is only
+ *    parsed by the server once per connection.
+ *  - A statement is removed from the cache while it is in use and put back when the borrower
+ *    closes it. Evicted statements are closed.
+ *  - Only the borrowing thread touches a connection, so the cache is not synchronized.
+ */
+
+class StatementCache {
+
+	private final int maxSize;
+	private final Map<List<Object>, PreparedStatement> idle;
+
+	StatementCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.idle = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Object>, PreparedStatement> eldest) {
+				if (size() > StatementCache.this.maxSize) {
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+
+				return false;
+			}
+		};
+	}
+
+	boolean isEnabled() {
+		return maxSize > 0;
+	}
+
+	/*
+	 * take(List x) method
+	 *  - Removes and returns the idle statement for the key, or null if there is none.
+	 */
+	PreparedStatement take(List<Object> key) throws SQLException {
+		PreparedStatement stmt = idle.remove(key);
+
+		if (Objects.nonNull(stmt) && stmt.isClosed()) {
+			return null;
+		}
+
+		return stmt;
+	}
+
+	/*
+	 * give(List x, PreparedStatement y) method
+	 *  - Resets the statement and returns it to the cache. If another statement with the same
+	 *    key is already idle, or the reset fails, the statement is closed instead.
+	 */
+	void give(List<Object> key, PreparedStatement stmt) {
+		try {
+			if (stmt.isClosed()) {
+				return;
+			}
+
+			/* Discard any unread results, e.g. from a multi-statement query. */
+			while (stmt.getMoreResults() || stmt.getUpdateCount() != -1) {
+				/* Keep draining. */
+			}
+
+			stmt.clearParameters();
+			stmt.clearBatch();
+			stmt.clearWarnings();
+			stmt.setFetchSize(0);
+		} catch (SQLException e) {
+			closeQuietly(stmt);
+			return;
+		}
+
+		if (idle.containsKey(key)) {
+			closeQuietly(stmt);
+		} else {
+			idle.put(key, stmt);
+		}
+	}
+
+	void closeAll() {
+		idle.values().forEach(StatementCache::closeQuietly);
+		idle.clear();
+	}
+
+	private static void closeQuietly(PreparedStatement stmt) {
+		try {
+			stmt.close();
+		} catch (SQLException e) {
+			/* The statement is being discarded anyway. */
+		}
+	}
+}
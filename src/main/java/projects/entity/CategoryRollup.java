@@ -0,0 +1,77 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * The project_summary rollups of every project in a category, added up. The average hours
+ * variance leaves out projects whose variance is unknown.
+ * 
+ * @author Promineo
+ *
+ */
+public class CategoryRollup {
+  private Integer categoryId;
+  private String categoryName;
+  private Integer projectCount;
+  private BigDecimal materialCost;
+  private Integer stepCount;
+  private BigDecimal averageHoursVariance;
+
+  public Integer getCategoryId() {
+    return categoryId;
+  }
+
+  public void setCategoryId(Integer categoryId) {
+    this.categoryId = categoryId;
+  }
+
+  public String getCategoryName() {
+    return categoryName;
+  }
+
+  public void setCategoryName(String categoryName) {
+    this.categoryName = categoryName;
+  }
+
+  public Integer getProjectCount() {
+    return projectCount;
+  }
+
+  public void setProjectCount(Integer projectCount) {
+    this.projectCount = projectCount;
+  }
+
+  public BigDecimal getMaterialCost() {
+    return materialCost;
+  }
+
+  public void setMaterialCost(BigDecimal materialCost) {
+    this.materialCost = materialCost;
+  }
+
+  public Integer getStepCount() {
+    return stepCount;
+  }
+
+  public void setStepCount(Integer stepCount) {
+    this.stepCount = stepCount;
+  }
+
+  public BigDecimal getAverageHoursVariance() {
+    return averageHoursVariance;
+  }
+
+  public void setAverageHoursVariance(BigDecimal averageHoursVariance) {
+    this.averageHoursVariance = averageHoursVariance;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + categoryId + ", categoryName=" + categoryName + ", projectCount="
+        + projectCount + ", materialCost=" + materialCost + ", stepCount=" + stepCount
+        + ", averageHoursVariance=" + averageHoursVariance;
+  }
+}
@@ -4,10 +4,19 @@
 package projects.entity;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
+ * The setters of the detail columns record which columns were changed, so an update can write
+ * only those. Objects loaded from the database start out clean because the row mapper assigns
+ * the fields directly. The version is incremented by every update and is used for optimistic
+ * locking.
+ * 
  * @author Promineo
  *
  */
@@ -18,6 +27,9 @@ public class Project {
   private BigDecimal actualHours;
   private Integer difficulty;
   private String notes;
+  private Integer version;
+
+  private final Set<String> dirtyColumns = new LinkedHashSet<>();
 
   private List<Material> materials = new LinkedList<>();
   private List<Step> steps = new LinkedList<>();
@@ -36,6 +48,7 @@ public class Project {
   }
 
   public void setProjectName(String projectName) {
+    markDirty("project_name", this.projectName, projectName);
     this.projectName = projectName;
   }
 
@@ -44,6 +57,7 @@ public class Project {
   }
 
   public void setEstimatedHours(BigDecimal estimatedHours) {
+    markDirty("estimated_hours", this.estimatedHours, estimatedHours);
     this.estimatedHours = estimatedHours;
   }
 
@@ -52,6 +66,7 @@ public class Project {
   }
 
   public void setActualHours(BigDecimal actualHours) {
+    markDirty("actual_hours", this.actualHours, actualHours);
     this.actualHours = actualHours;
   }
 
@@ -60,6 +75,7 @@ public class Project {
   }
 
   public void setDifficulty(Integer difficulty) {
+    markDirty("difficulty", this.difficulty, difficulty);
     this.difficulty = difficulty;
   }
 
@@ -68,9 +84,43 @@ public class Project {
   }
 
   public void setNotes(String notes) {
+    markDirty("notes", this.notes, notes);
     this.notes = notes;
   }
 
+  public Integer getVersion() {
+    return version;
+  }
+
+  public void setVersion(Integer version) {
+    this.version = version;
+  }
+
+  /**
+   * @return The names of the columns changed since the object was loaded or last cleaned, in the
+   *         order they were first changed.
+   */
+  public Set<String> getDirtyColumns() {
+    return Collections.unmodifiableSet(dirtyColumns);
+  }
+
+  public boolean isDirty() {
+    return !dirtyColumns.isEmpty();
+  }
+
+  /**
+   * Marks every column as unchanged, for example after the object has been written.
+   */
+  public void clearDirty() {
+    dirtyColumns.clear();
+  }
+
+  private void markDirty(String column, Object oldValue, Object newValue) {
+    if(!Objects.equals(oldValue, newValue)) {
+      dirtyColumns.add(column);
+    }
+  }
+
   public List<Material> getMaterials() {
     return materials;
   }
@@ -93,6 +143,7 @@ public class Project {
     result += "\n   actualHours=" + actualHours;
     result += "\n   difficulty=" + difficulty;
     result += "\n   notes=" + notes;
+    result += "\n   version=" + version;
     
     result += "\n   Materials:";
     
@@ -0,0 +1,88 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * A project's row of the project_summary rollup table with the project name. Material cost is the
+ * sum of cost * num_required over the project's materials, and hours variance is actual hours
+ * minus estimated hours, so a positive variance is an overrun. The variance is null when either
+ * figure is missing.
+ * 
+ * @author Promineo
+ *
+ */
+public class ProjectRollup {
+  private Integer projectId;
+  private String projectName;
+  private BigDecimal materialCost;
+  private Integer materialCount;
+  private Integer stepCount;
+  private Integer categoryCount;
+  private BigDecimal hoursVariance;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public BigDecimal getMaterialCost() {
+    return materialCost;
+  }
+
+  public void setMaterialCost(BigDecimal materialCost) {
+    this.materialCost = materialCost;
+  }
+
+  public Integer getMaterialCount() {
+    return materialCount;
+  }
+
+  public void setMaterialCount(Integer materialCount) {
+    this.materialCount = materialCount;
+  }
+
+  public Integer getStepCount() {
+    return stepCount;
+  }
+
+  public void setStepCount(Integer stepCount) {
+    this.stepCount = stepCount;
+  }
+
+  public Integer getCategoryCount() {
+    return categoryCount;
+  }
+
+  public void setCategoryCount(Integer categoryCount) {
+    this.categoryCount = categoryCount;
+  }
+
+  public BigDecimal getHoursVariance() {
+    return hoursVariance;
+  }
+
+  public void setHoursVariance(BigDecimal hoursVariance) {
+    this.hoursVariance = hoursVariance;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + projectId + ", projectName=" + projectName + ", materialCost=" + materialCost
+        + ", materialCount=" + materialCount + ", stepCount=" + stepCount + ", categoryCount="
+        + categoryCount + ", hoursVariance=" + hoursVariance;
+  }
+}
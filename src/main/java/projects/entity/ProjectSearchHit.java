@@ -0,0 +1,77 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a project search: the project columns needed to list it plus its relevance score,
+ * without materials, steps or categories.
+ * 
+ * @author Promineo
+ *
+ */
+public class ProjectSearchHit {
+  private Integer projectId;
+  private String projectName;
+  private BigDecimal estimatedHours;
+  private BigDecimal actualHours;
+  private Integer difficulty;
+  private Double relevance;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public BigDecimal getEstimatedHours() {
+    return estimatedHours;
+  }
+
+  public void setEstimatedHours(BigDecimal estimatedHours) {
+    this.estimatedHours = estimatedHours;
+  }
+
+  public BigDecimal getActualHours() {
+    return actualHours;
+  }
+
+  public void setActualHours(BigDecimal actualHours) {
+    this.actualHours = actualHours;
+  }
+
+  public Integer getDifficulty() {
+    return difficulty;
+  }
+
+  public void setDifficulty(Integer difficulty) {
+    this.difficulty = difficulty;
+  }
+
+  public Double getRelevance() {
+    return relevance;
+  }
+
+  public void setRelevance(Double relevance) {
+    this.relevance = relevance;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + projectId + ", projectName=" + projectName + ", difficulty=" + difficulty
+        + ", estimatedHours=" + estimatedHours + ", actualHours=" + actualHours + ", relevance="
+        + String.format("%.3f", relevance);
+  }
+}
@@ -0,0 +1,16 @@
+package projects.exception;
+
+/*
+ * OptimisticLockException class
+ *  - Thrown when an update names a row version that is no longer current, because another
+ *    writer changed the row after it was read. Reload the row and apply the change again.
+ */
+
+@SuppressWarnings("serial")
+public class OptimisticLockException extends DbException {
+
+	public OptimisticLockException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,288 @@
+package projects.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/*
+ * CsvFormat class
+ *  - RFC 4180 CSV with one record per row. The first field names the record type, and each
+ *    project record is followed by the records of its children:
+ *      project,<projectId>,<projectName>,<estimatedHours>,<actualHours>,<difficulty>,<notes>
+ *      material,<projectId>,<materialName>,<numRequired>,<cost>
+ *      step,<projectId>,<stepOrder>,<stepText>
+ *      category,<projectId>,<categoryName>
+ *  - An empty unquoted field is null; "" is an empty string. Quoted fields may span lines.
+ */
+
+final class CsvFormat {
+
+	private static final String PROJECT = "project";
+	private static final String MATERIAL = "material";
+	private static final String STEP = "step";
+	private static final String CATEGORY = "category";
+
+	private CsvFormat() {
+	}
+
+	/*
+	 * GraphWriter class
+	 *  - Writes a project record followed by its material, step and category records.
+	 */
+	static class GraphWriter implements ProjectGraphWriter {
+		private final Writer out;
+		private final StringBuilder record = new StringBuilder(512);
+
+		GraphWriter(Writer out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(Project project) throws IOException {
+			Integer projectId = project.getProjectId();
+			
+			record.setLength(0);
+			record(PROJECT, projectId, project.getProjectName(), project.getEstimatedHours(),
+					project.getActualHours(), project.getDifficulty(), project.getNotes());
+			
+			for (Material material : project.getMaterials()) {
+				record(MATERIAL, projectId, material.getMaterialName(), material.getNumRequired(),
+						material.getCost());
+			}
+			
+			for (Step step : project.getSteps()) {
+				record(STEP, projectId, step.getStepOrder(), step.getStepText());
+			}
+			
+			for (Category category : project.getCategories()) {
+				record(CATEGORY, projectId, category.getCategoryName());
+			}
+			
+			out.write(record.toString());
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		private void record(Object... fields) {
+			for (int index = 0; index < fields.length; index++) {
+				if (index > 0) {
+					record.append(',');
+				}
+				
+				Object field = fields[index];
+				
+				if (field instanceof BigDecimal) {
+					record.append(((BigDecimal) field).toPlainString());
+				} else if (field instanceof String) {
+					quote((String) field);
+				} else if (Objects.nonNull(field)) {
+					record.append(field);
+				}
+			}
+			
+			record.append("\r\n");
+		}
+
+		private void quote(String text) {
+			boolean quoted = text.isEmpty() || text.chars().anyMatch(
+					ch -> ch == ',' || ch == '"' || ch == '\n' || ch == '\r');
+			
+			if (!quoted) {
+				record.append(text);
+				return;
+			}
+			
+			record.append('"').append(text.replace("\"", "\"\"")).append('"');
+		}
+	}
+
+	/*
+	 * GraphReader class
+	 *  - Collects each project record and the child records that follow it into a Project. A
+	 *    child record whose project ID does not match the preceding project is an error.
+	 */
+	static class GraphReader implements ProjectGraphReader {
+		private final BufferedReader in;
+		private long lineNumber = 1;
+		private List<String> pending;
+
+		GraphReader(Reader in) {
+			this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+		}
+
+		@Override
+		public Project read() throws IOException {
+			List<String> fields = Objects.nonNull(pending) ? pending : readRecord();
+			
+			pending = null;
+			
+			if (Objects.isNull(fields)) {
+				return null;
+			}
+			
+			if (!PROJECT.equals(fields.get(0))) {
+				throw error("Expected a project record but found " + fields.get(0));
+			}
+			
+			Project project = new Project();
+			
+			project.setProjectId(asInteger(field(fields, 1)));
+			project.setProjectName(field(fields, 2));
+			project.setEstimatedHours(asDecimal(field(fields, 3)));
+			project.setActualHours(asDecimal(field(fields, 4)));
+			project.setDifficulty(asInteger(field(fields, 5)));
+			project.setNotes(field(fields, 6));
+			
+			while (Objects.nonNull(fields = readRecord())) {
+				if (PROJECT.equals(fields.get(0))) {
+					pending = fields;
+					break;
+				}
+				
+				if (!Objects.equals(project.getProjectId(), asInteger(field(fields, 1)))) {
+					throw error("The " + fields.get(0) + " record belongs to project " 
+							+ field(fields, 1) + ", not " + project.getProjectId());
+				}
+				
+				addChild(project, fields);
+			}
+			
+			return project;
+		}
+
+		private void addChild(Project project, List<String> fields) throws IOException {
+			switch (fields.get(0)) {
+			case MATERIAL:
+				Material material = new Material();
+				
+				material.setMaterialName(field(fields, 2));
+				material.setNumRequired(asInteger(field(fields, 3)));
+				material.setCost(asDecimal(field(fields, 4)));
+				project.getMaterials().add(material);
+				break;
+			case STEP:
+				Step step = new Step();
+				
+				step.setStepOrder(asInteger(field(fields, 2)));
+				step.setStepText(field(fields, 3));
+				project.getSteps().add(step);
+				break;
+			case CATEGORY:
+				Category category = new Category();
+				
+				category.setCategoryName(field(fields, 2));
+				project.getCategories().add(category);
+				break;
+			default:
+				throw error("Unknown record type " + fields.get(0));
+			}
+		}
+
+		/*
+		 * readRecord() method
+		 *  - Returns the fields of the next record, or null at the end of the input. Blank
+		 *    lines are skipped.
+		 */
+		private List<String> readRecord() throws IOException {
+			List<String> fields = new ArrayList<>();
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false;
+			boolean inQuotes = false;
+			int ch;
+			
+			while (true) {
+				ch = in.read();
+				
+				if (inQuotes) {
+					if (ch == -1) {
+						throw error("Unterminated quoted field");
+					}
+					
+					if (ch == '"') {
+						in.mark(1);
+						
+						if (in.read() == '"') {
+							field.append('"');
+						} else {
+							in.reset();
+							inQuotes = false;
+						}
+					} else {
+						if (ch == '\n') {
+							lineNumber++;
+						}
+						
+						field.append((char) ch);
+					}
+					
+					continue;
+				}
+				
+				if (ch == '"' && field.length() == 0 && !quoted) {
+					quoted = true;
+					inQuotes = true;
+				} else if (ch == ',') {
+					fields.add(quoted || field.length() > 0 ? field.toString() : null);
+					field.setLength(0);
+					quoted = false;
+				} else if (ch == '\r') {
+					continue;
+				} else if (ch == '\n' || ch == -1) {
+					if (ch == '\n') {
+						lineNumber++;
+					}
+					
+					if (fields.isEmpty() && field.length() == 0 && !quoted) {
+						if (ch == -1) {
+							return null;
+						}
+						
+						continue;
+					}
+					
+					fields.add(quoted || field.length() > 0 ? field.toString() : null);
+					return fields;
+				} else {
+					field.append((char) ch);
+				}
+			}
+		}
+
+		private static String field(List<String> fields, int index) {
+			return index < fields.size() ? fields.get(index) : null;
+		}
+
+		private Integer asInteger(String value) throws IOException {
+			try {
+				return Objects.isNull(value) ? null : Integer.valueOf(value.trim());
+			} catch (NumberFormatException e) {
+				throw error("Not an integer: " + value);
+			}
+		}
+
+		private BigDecimal asDecimal(String value) throws IOException {
+			try {
+				return Objects.isNull(value) ? null : new BigDecimal(value.trim());
+			} catch (NumberFormatException e) {
+				throw error("Not a number: " + value);
+			}
+		}
+
+		private IOException error(String message) {
+			return new IOException("Line " + lineNumber + ": " + message);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package projects.io;
+
+import java.io.Reader;
+import java.io.Writer;
+
+/*
+ * ExportFormat enum
+ *  - The file formats a project catalog can be exported to and imported from.
+ *     - NDJSON: one JSON object per line, holding a project with its materials, steps and
+ *       category names. See NdjsonFormat.
+ *     - CSV: one record per row, led by the record type, with each project's child records
+ *       following it. See CsvFormat.
+ */
+
+public enum ExportFormat {
+	NDJSON {
+		@Override
+		public ProjectGraphWriter newWriter(Writer out) {
+			return new NdjsonFormat.GraphWriter(out);
+		}
+
+		@Override
+		public ProjectGraphReader newReader(Reader in) {
+			return new NdjsonFormat.GraphReader(in);
+		}
+	},
+	CSV {
+		@Override
+		public ProjectGraphWriter newWriter(Writer out) {
+			return new CsvFormat.GraphWriter(out);
+		}
+
+		@Override
+		public ProjectGraphReader newReader(Reader in) {
+			return new CsvFormat.GraphReader(in);
+		}
+	};
+
+	public abstract ProjectGraphWriter newWriter(Writer out);
+
+	public abstract ProjectGraphReader newReader(Reader in);
+
+	/*
+	 * forFileName(String x) method
+	 *  - Picks CSV for names ending in .csv and NDJSON otherwise.
+	 */
+	public static ExportFormat forFileName(String fileName) {
+		return fileName.toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+	}
+}
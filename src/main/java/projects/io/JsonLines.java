@@ -0,0 +1,46 @@
+package projects.io;
+
+import java.util.Map;
+
+import projects.entity.Project;
+
+/*
+ * JsonLines class
+ *  - The JSON parsing and writing of the NDJSON export format, for other line-oriented JSON
+ *    input and output such as ProjectsBatch.
+ */
+
+public final class JsonLines {
+
+	private JsonLines() {
+	}
+
+	/*
+	 * parseObject() method
+	 *  - Parses a line holding one JSON object. Nested objects are LinkedHashMaps, arrays
+	 *    ArrayLists and numbers BigDecimals.
+	 *  - Throws an IllegalArgumentException if the line is not a JSON object.
+	 */
+	public static Map<String, Object> parseObject(String line) {
+		return NdjsonFormat.GraphReader.asObject(new NdjsonFormat.JsonParser(line).parseDocument());
+	}
+
+	/*
+	 * toProject() method
+	 *  - Builds a project, with any materials, steps and category names, from an object with
+	 *    the fields of an NDJSON export line. Other fields are ignored.
+	 */
+	public static Project toProject(Map<String, Object> json) {
+		return NdjsonFormat.GraphReader.toProject(json);
+	}
+
+	/*
+	 * append() method
+	 *  - Appends a value as JSON: maps as objects, collections as arrays, projects as NDJSON
+	 *    project objects, numbers and booleans as is and anything else as a string.
+	 */
+	public static StringBuilder append(StringBuilder line, Object value) {
+		NdjsonFormat.appendValue(line, value);
+		return line;
+	}
+}
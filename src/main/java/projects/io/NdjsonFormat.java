@@ -0,0 +1,519 @@
+package projects.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/*
+ * NdjsonFormat class
+ *  - Newline-delimited JSON: one project per line, e.g.
+ *      {"projectId":1,"projectName":"Paint bedroom walls","estimatedHours":8.00,
+ *       "actualHours":6.00,"difficulty":2,"notes":"Buy blue paint","materials":[{
+ *       "materialName":"Blue paint","numRequired":3,"cost":75.00}],"steps":[{
+ *       "stepText":"Cover the floor","stepOrder":1}],"categories":["Walls and Ceiling"]}
+ *    (wrapped here; in the file each project is a single line).
+ *  - Hours and cost are written as exact decimal numbers. Missing values are null.
+ */
+
+final class NdjsonFormat {
+
+	private NdjsonFormat() {
+	}
+
+	/*
+	 * GraphWriter class
+	 *  - Writes each project as one line of JSON.
+	 */
+	static class GraphWriter implements ProjectGraphWriter {
+		private final Writer out;
+		private final StringBuilder line = new StringBuilder(512);
+
+		GraphWriter(Writer out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(Project project) throws IOException {
+			line.setLength(0);
+			appendProject(line, project);
+			line.append('\n');
+			out.write(line.toString());
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+	}
+
+	/*
+	 * appendProject() method
+	 *  - Appends the project with its materials, steps and category names as one JSON object.
+	 */
+	static void appendProject(StringBuilder line, Project project) {
+		line.append('{');
+		appendField(line, "projectId", project.getProjectId(), true);
+		appendField(line, "projectName", project.getProjectName(), false);
+		appendField(line, "estimatedHours", project.getEstimatedHours(), false);
+		appendField(line, "actualHours", project.getActualHours(), false);
+		appendField(line, "difficulty", project.getDifficulty(), false);
+		appendField(line, "notes", project.getNotes(), false);
+		
+		line.append(",\"materials\":[");
+		
+		for (int index = 0; index < project.getMaterials().size(); index++) {
+			Material material = project.getMaterials().get(index);
+			
+			line.append(index > 0 ? ",{" : "{");
+			appendField(line, "materialName", material.getMaterialName(), true);
+			appendField(line, "numRequired", material.getNumRequired(), false);
+			appendField(line, "cost", material.getCost(), false);
+			line.append('}');
+		}
+		
+		line.append("],\"steps\":[");
+		
+		for (int index = 0; index < project.getSteps().size(); index++) {
+			Step step = project.getSteps().get(index);
+			
+			line.append(index > 0 ? ",{" : "{");
+			appendField(line, "stepText", step.getStepText(), true);
+			appendField(line, "stepOrder", step.getStepOrder(), false);
+			line.append('}');
+		}
+		
+		line.append("],\"categories\":[");
+		
+		for (int index = 0; index < project.getCategories().size(); index++) {
+			if (index > 0) {
+				line.append(',');
+			}
+			
+			appendValue(line, project.getCategories().get(index).getCategoryName());
+		}
+		
+		line.append("]}");
+	}
+
+	private static void appendField(StringBuilder line, String name, Object value, 
+			boolean first) {
+		if (!first) {
+			line.append(',');
+		}
+		
+		appendQuoted(line, name);
+		line.append(':');
+		appendValue(line, value);
+	}
+
+	/*
+	 * appendValue() method
+	 *  - Appends a value as JSON. Maps become objects, collections arrays and projects
+	 *    project objects; numbers and booleans are written as is and anything else as a
+	 *    string.
+	 */
+	static void appendValue(StringBuilder line, Object value) {
+		if (Objects.isNull(value)) {
+			line.append("null");
+		} else if (value instanceof BigDecimal) {
+			line.append(((BigDecimal) value).toPlainString());
+		} else if (value instanceof Number || value instanceof Boolean) {
+			line.append(value);
+		} else if (value instanceof Project) {
+			appendProject(line, (Project) value);
+		} else if (value instanceof Map) {
+			boolean first = true;
+			
+			line.append('{');
+			
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				appendField(line, String.valueOf(entry.getKey()), entry.getValue(), first);
+				first = false;
+			}
+			
+			line.append('}');
+		} else if (value instanceof Collection) {
+			boolean first = true;
+			
+			line.append('[');
+			
+			for (Object element : (Collection<?>) value) {
+				if (!first) {
+					line.append(',');
+				}
+				
+				appendValue(line, element);
+				first = false;
+			}
+			
+			line.append(']');
+		} else {
+			appendQuoted(line, value.toString());
+		}
+	}
+
+	private static void appendQuoted(StringBuilder line, String text) {
+		line.append('"');
+		
+		for (int index = 0; index < text.length(); index++) {
+			char ch = text.charAt(index);
+			
+			switch (ch) {
+			case '"':
+				line.append("\\\"");
+				break;
+			case '\\':
+				line.append("\\\\");
+				break;
+			case '\n':
+				line.append("\\n");
+				break;
+			case '\r':
+				line.append("\\r");
+				break;
+			case '\t':
+				line.append("\\t");
+				break;
+			default:
+				if (ch < 0x20) {
+					line.append(String.format("\\u%04x", (int) ch));
+				} else {
+					line.append(ch);
+				}
+			}
+		}
+		
+		line.append('"');
+	}
+
+	/*
+	 * GraphReader class
+	 *  - Parses one line at a time into a Project. Blank lines are skipped and unknown fields
+	 *    are ignored.
+	 */
+	static class GraphReader implements ProjectGraphReader {
+		private final BufferedReader in;
+		private long lineNumber;
+
+		GraphReader(Reader in) {
+			this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+		}
+
+		@Override
+		public Project read() throws IOException {
+			String line;
+			
+			do {
+				line = in.readLine();
+				lineNumber++;
+				
+				if (Objects.isNull(line)) {
+					return null;
+				}
+			} while (line.isBlank());
+			
+			try {
+				return toProject(asObject(new JsonParser(line).parseDocument()));
+			} catch (RuntimeException e) {
+				throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+
+		static Project toProject(Map<String, Object> json) {
+			Project project = new Project();
+			
+			project.setProjectId(asInteger(json.get("projectId")));
+			project.setProjectName(asString(json.get("projectName")));
+			project.setEstimatedHours(asDecimal(json.get("estimatedHours")));
+			project.setActualHours(asDecimal(json.get("actualHours")));
+			project.setDifficulty(asInteger(json.get("difficulty")));
+			project.setNotes(asString(json.get("notes")));
+			
+			for (Object element : asList(json.get("materials"))) {
+				Map<String, Object> fields = asObject(element);
+				Material material = new Material();
+				
+				material.setMaterialName(asString(fields.get("materialName")));
+				material.setNumRequired(asInteger(fields.get("numRequired")));
+				material.setCost(asDecimal(fields.get("cost")));
+				project.getMaterials().add(material);
+			}
+			
+			for (Object element : asList(json.get("steps"))) {
+				Map<String, Object> fields = asObject(element);
+				Step step = new Step();
+				
+				step.setStepText(asString(fields.get("stepText")));
+				step.setStepOrder(asInteger(fields.get("stepOrder")));
+				project.getSteps().add(step);
+			}
+			
+			for (Object element : asList(json.get("categories"))) {
+				Category category = new Category();
+				
+				category.setCategoryName(asString(element));
+				project.getCategories().add(category);
+			}
+			
+			return project;
+		}
+
+		@SuppressWarnings("unchecked")
+		static Map<String, Object> asObject(Object value) {
+			if (!(value instanceof Map)) {
+				throw new IllegalArgumentException("Expected a JSON object but found " + value);
+			}
+			
+			return (Map<String, Object>) value;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static List<Object> asList(Object value) {
+			if (Objects.isNull(value)) {
+				return List.of();
+			}
+			
+			if (!(value instanceof List)) {
+				throw new IllegalArgumentException("Expected a JSON array but found " + value);
+			}
+			
+			return (List<Object>) value;
+		}
+
+		private static String asString(Object value) {
+			return Objects.isNull(value) ? null : value.toString();
+		}
+
+		private static BigDecimal asDecimal(Object value) {
+			return Objects.isNull(value) ? null : new BigDecimal(value.toString());
+		}
+
+		private static Integer asInteger(Object value) {
+			return Objects.isNull(value) ? null : asDecimal(value).intValueExact();
+		}
+	}
+
+	/*
+	 * JsonParser class
+	 *  - A small recursive-descent parser for one JSON document. Objects become LinkedHashMaps,
+	 *    arrays ArrayLists and numbers BigDecimals.
+	 */
+	static class JsonParser {
+		private final String text;
+		private int pos;
+
+		JsonParser(String text) {
+			this.text = text;
+		}
+
+		Object parseDocument() {
+			Object value = parseValue();
+			skipWhitespace();
+			
+			if (pos < text.length()) {
+				throw error("Unexpected text after the JSON value");
+			}
+			
+			return value;
+		}
+
+		private Object parseValue() {
+			skipWhitespace();
+			
+			if (pos >= text.length()) {
+				throw error("Unexpected end of line");
+			}
+			
+			char ch = text.charAt(pos);
+			
+			switch (ch) {
+			case '{':
+				return parseObject();
+			case '[':
+				return parseArray();
+			case '"':
+				return parseString();
+			case 't':
+				return literal("true", Boolean.TRUE);
+			case 'f':
+				return literal("false", Boolean.FALSE);
+			case 'n':
+				return literal("null", null);
+			default:
+				return parseNumber();
+			}
+		}
+
+		private Map<String, Object> parseObject() {
+			Map<String, Object> object = new LinkedHashMap<>();
+			
+			pos++;
+			skipWhitespace();
+			
+			if (peek() == '}') {
+				pos++;
+				return object;
+			}
+			
+			while (true) {
+				skipWhitespace();
+				
+				if (peek() != '"') {
+					throw error("Expected a field name");
+				}
+				
+				String name = parseString();
+				skipWhitespace();
+				expect(':');
+				object.put(name, parseValue());
+				skipWhitespace();
+				
+				if (peek() == ',') {
+					pos++;
+				} else {
+					expect('}');
+					return object;
+				}
+			}
+		}
+
+		private List<Object> parseArray() {
+			List<Object> array = new ArrayList<>();
+			
+			pos++;
+			skipWhitespace();
+			
+			if (peek() == ']') {
+				pos++;
+				return array;
+			}
+			
+			while (true) {
+				array.add(parseValue());
+				skipWhitespace();
+				
+				if (peek() == ',') {
+					pos++;
+				} else {
+					expect(']');
+					return array;
+				}
+			}
+		}
+
+		private String parseString() {
+			StringBuilder value = new StringBuilder();
+			
+			pos++;
+			
+			while (true) {
+				if (pos >= text.length()) {
+					throw error("Unterminated string");
+				}
+				
+				char ch = text.charAt(pos++);
+				
+				if (ch == '"') {
+					return value.toString();
+				}
+				
+				if (ch != '\\') {
+					value.append(ch);
+					continue;
+				}
+				
+				if (pos >= text.length()) {
+					throw error("Unterminated escape");
+				}
+				
+				char escape = text.charAt(pos++);
+				
+				switch (escape) {
+				case 'n':
+					value.append('\n');
+					break;
+				case 'r':
+					value.append('\r');
+					break;
+				case 't':
+					value.append('\t');
+					break;
+				case 'b':
+					value.append('\b');
+					break;
+				case 'f':
+					value.append('\f');
+					break;
+				case 'u':
+					if (pos + 4 > text.length()) {
+						throw error("Truncated unicode escape");
+					}
+					
+					value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+					pos += 4;
+					break;
+				default:
+					value.append(escape);
+				}
+			}
+		}
+
+		private BigDecimal parseNumber() {
+			int start = pos;
+			
+			while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+				pos++;
+			}
+			
+			if (start == pos) {
+				throw error("Unexpected character '" + text.charAt(pos) + "'");
+			}
+			
+			return new BigDecimal(text.substring(start, pos));
+		}
+
+		private Object literal(String word, Object value) {
+			if (!text.startsWith(word, pos)) {
+				throw error("Unexpected character '" + text.charAt(pos) + "'");
+			}
+			
+			pos += word.length();
+			return value;
+		}
+
+		private void expect(char ch) {
+			if (peek() != ch) {
+				throw error("Expected '" + ch + "'");
+			}
+			
+			pos++;
+		}
+
+		private char peek() {
+			return pos < text.length() ? text.charAt(pos) : '\0';
+		}
+
+		private void skipWhitespace() {
+			while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at column " + (pos + 1));
+		}
+	}
+}
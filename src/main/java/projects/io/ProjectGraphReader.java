@@ -0,0 +1,57 @@
+package projects.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import projects.entity.Project;
+
+/*
+ * ProjectGraphReader interface
+ *  - Reads back what a ProjectGraphWriter of the same format wrote, one project graph at a
+ *    time.
+ *  - read() returns null at the end of the stream and throws an IOException for malformed
+ *    input, naming the line.
+ */
+
+public interface ProjectGraphReader {
+
+	Project read() throws IOException;
+
+	/*
+	 * iterator() method
+	 *  - Returns the remaining projects as an Iterator that reads one project ahead. Read
+	 *    failures are thrown as UncheckedIOExceptions.
+	 */
+	default Iterator<Project> iterator() {
+		return new Iterator<>() {
+			private Project next;
+
+			@Override
+			public boolean hasNext() {
+				if (Objects.isNull(next)) {
+					try {
+						next = read();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+				
+				return Objects.nonNull(next);
+			}
+
+			@Override
+			public Project next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				
+				Project project = next;
+				next = null;
+				return project;
+			}
+		};
+	}
+}
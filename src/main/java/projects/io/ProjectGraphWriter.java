@@ -0,0 +1,19 @@
+package projects.io;
+
+import java.io.IOException;
+
+import projects.entity.Project;
+
+/*
+ * ProjectGraphWriter interface
+ *  - Writes projects, each with its materials, steps and categories, to a stream in one of the
+ *    ExportFormats. Only the current project is held in memory.
+ *  - IDs of materials, steps and categories are not written; an import assigns new ones.
+ */
+
+public interface ProjectGraphWriter {
+
+	void write(Project project) throws IOException;
+
+	void flush() throws IOException;
+}
@@ -0,0 +1,202 @@
+package projects.io;
+
+import static projects.io.SnapshotLayout.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/*
+ * ProjectSnapshot class
+ *  - A read-only view of a snapshot written by ProjectSnapshotWriter. The file is mapped, not
+ *    read, so opening it costs the same for ten projects or a million; pages are loaded by
+ *    the operating system as they are touched and are shared between processes mapping the
+ *    same file.
+ *  - Lookups by ID and by name are binary searches of the indexes in the file. Nothing is
+ *    decoded until a ProjectView getter asks for it.
+ *  - Only absolute reads are used, so one instance may be shared by any number of threads.
+ *    The mapping stays valid until it is garbage collected; close() only drops the reference.
+ */
+
+public class ProjectSnapshot implements Closeable {
+
+	private final Path file;
+	private ByteBuffer buffer;
+	private final int count;
+	private final int idIndex;
+	private final int nameIndex;
+
+	private ProjectSnapshot(Path file, ByteBuffer buffer) throws IOException {
+		this.file = file;
+		this.buffer = buffer;
+		
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException(file + " is not a project snapshot or was not completely "
+					+ "written.");
+		}
+		
+		if (buffer.getInt(4) != FORMAT_VERSION) {
+			throw new IOException(file + " has snapshot format version " + buffer.getInt(4) 
+					+ "; version " + FORMAT_VERSION + " is required.");
+		}
+		
+		this.count = buffer.getInt(COUNT_OFFSET);
+		this.idIndex = (int) buffer.getLong(ID_INDEX_POINTER);
+		this.nameIndex = (int) buffer.getLong(NAME_INDEX_POINTER);
+		
+		if (nameIndex + (long) count * NAME_INDEX_ENTRY_SIZE > buffer.capacity()) {
+			throw new IOException(file + " is truncated.");
+		}
+	}
+
+	/*
+	 * open() method
+	 *  - Maps the snapshot read-only and checks its header.
+	 */
+	public static ProjectSnapshot open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(file + " is larger than 2 GB.");
+			}
+			
+			return new ProjectSnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/*
+	 * size() method
+	 *  - Returns the number of projects in the snapshot.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/*
+	 * findById() method
+	 *  - Returns the project with the given ID, or null if there is none.
+	 */
+	public ProjectView findById(int projectId) {
+		ByteBuffer data = buffer();
+		int low = 0;
+		int high = count - 1;
+		
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int entry = idIndex + mid * ID_INDEX_ENTRY_SIZE;
+			int id = data.getInt(entry);
+			
+			if (id < projectId) {
+				low = mid + 1;
+			}
+			else if (id > projectId) {
+				high = mid - 1;
+			}
+			else {
+				return new ProjectView(data, data.getInt(entry + 4));
+			}
+		}
+		
+		return null;
+	}
+
+	/*
+	 * findByName() method
+	 *  - Returns every project with exactly the given name, in project ID order. A null name
+	 *    finds the projects that have none.
+	 */
+	public List<ProjectView> findByName(String projectName) {
+		ByteBuffer data = buffer();
+		byte[] bytes = Objects.isNull(projectName) ? new byte[0] 
+				: projectName.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer key = ByteBuffer.wrap(bytes);
+		int keyLength = Objects.isNull(projectName) ? -1 : bytes.length;
+		int low = 0;
+		int high = count;
+		
+		/* Find the first name index entry that is not less than the key. */
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			
+			if (compareName(data, mid, key, keyLength) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		
+		List<ProjectView> matches = new ArrayList<>();
+		
+		for (int slot = low; slot < count && compareName(data, slot, key, keyLength) == 0; 
+				slot++) {
+			matches.add(new ProjectView(data, nameIndexOffset(data, slot)));
+		}
+		
+		return matches;
+	}
+
+	/*
+	 * forEachByName() method
+	 *  - Passes every project to the action in project name order.
+	 */
+	public void forEachByName(Consumer<? super ProjectView> action) {
+		ByteBuffer data = buffer();
+		
+		for (int slot = 0; slot < count; slot++) {
+			action.accept(new ProjectView(data, nameIndexOffset(data, slot)));
+		}
+	}
+
+	/*
+	 * forEachById() method
+	 *  - Passes every project to the action in project ID order.
+	 */
+	public void forEachById(Consumer<? super ProjectView> action) {
+		ByteBuffer data = buffer();
+		
+		for (int slot = 0; slot < count; slot++) {
+			action.accept(new ProjectView(data, data.getInt(idIndex + slot * ID_INDEX_ENTRY_SIZE 
+					+ 4)));
+		}
+	}
+
+	@Override
+	public void close() {
+		buffer = null;
+	}
+
+	private ByteBuffer buffer() {
+		ByteBuffer data = buffer;
+		
+		if (Objects.isNull(data)) {
+			throw new IllegalStateException("The snapshot " + file + " is closed.");
+		}
+		
+		return data;
+	}
+
+	private int nameIndexOffset(ByteBuffer data, int slot) {
+		return data.getInt(nameIndex + slot * NAME_INDEX_ENTRY_SIZE);
+	}
+
+	private int compareName(ByteBuffer data, int slot, ByteBuffer key, int keyLength) {
+		int record = nameIndexOffset(data, slot);
+		
+		return compareBytes(data, data.getInt(record + PROJECT_NAME), 
+				data.getInt(record + PROJECT_NAME + 4), key, 0, keyLength);
+	}
+}
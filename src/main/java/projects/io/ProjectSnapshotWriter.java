@@ -0,0 +1,282 @@
+package projects.io;
+
+import static projects.io.SnapshotLayout.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/*
+ * ProjectSnapshotWriter class
+ *  - Writes a catalog snapshot (see SnapshotLayout) that ProjectSnapshot maps read-only.
+ *    Projects must be written in increasing project ID order, as
+ *    ProjectDao.exportProjectGraphs() delivers them.
+ *  - Records are appended as they arrive; close() adds the ID and name indexes and the header.
+ *    Only the ID index (8 bytes per project) is kept in memory. The name index is sorted by
+ *    comparing the names in the written file through a read-only mapping.
+ *  - A file that was not closed has no header and is rejected by ProjectSnapshot.
+ */
+
+public class ProjectSnapshotWriter implements ProjectGraphWriter, Closeable {
+
+	private final FileChannel channel;
+	private ByteBuffer record = ByteBuffer.allocate(4096);
+	private long position = HEADER_SIZE;
+	private int[] projectIds = new int[1024];
+	private int[] recordOffsets = new int[1024];
+	private int count;
+	private boolean closed;
+
+	public ProjectSnapshotWriter(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, 
+				StandardOpenOption.WRITE);
+		channel.position(HEADER_SIZE);
+	}
+
+	@Override
+	public void write(Project project) throws IOException {
+		Integer projectId = project.getProjectId();
+		
+		if (Objects.isNull(projectId) || (count > 0 && projectId <= projectIds[count - 1])) {
+			throw new IOException("Projects must be written in increasing project ID order, but "
+					+ projectId + " followed " + (count > 0 ? projectIds[count - 1] : null));
+		}
+		
+		List<Material> materials = project.getMaterials();
+		List<Step> steps = project.getSteps();
+		List<Category> categories = project.getCategories();
+		int stringStart = PROJECT_FIXED_SIZE + materials.size() * MATERIAL_SIZE 
+				+ steps.size() * STEP_SIZE + categories.size() * CATEGORY_SIZE;
+		
+		record.clear();
+		ensureCapacity(stringStart);
+		
+		int base = (int) position;
+		StringHeap strings = new StringHeap(base, stringStart);
+		
+		record.putInt(PROJECT_ID, projectId);
+		record.putInt(VERSION, nullableInt(project.getVersion()));
+		record.putInt(DIFFICULTY, nullableInt(project.getDifficulty()));
+		record.putLong(ESTIMATED_HOURS, hundredths(project.getEstimatedHours()));
+		record.putLong(ACTUAL_HOURS, hundredths(project.getActualHours()));
+		strings.put(PROJECT_NAME, project.getProjectName());
+		strings.put(NOTES, project.getNotes());
+		record.putInt(MATERIAL_COUNT, materials.size());
+		record.putInt(STEP_COUNT, steps.size());
+		record.putInt(CATEGORY_COUNT, categories.size());
+		
+		int entry = PROJECT_FIXED_SIZE;
+		
+		for (Material material : materials) {
+			record.putInt(entry + MATERIAL_ID, nullableInt(material.getMaterialId()));
+			strings.put(entry + MATERIAL_NAME, material.getMaterialName());
+			record.putInt(entry + NUM_REQUIRED, nullableInt(material.getNumRequired()));
+			record.putLong(entry + COST, hundredths(material.getCost()));
+			entry += MATERIAL_SIZE;
+		}
+		
+		for (Step step : steps) {
+			record.putInt(entry + STEP_ID, nullableInt(step.getStepId()));
+			record.putInt(entry + STEP_ORDER, nullableInt(step.getStepOrder()));
+			strings.put(entry + STEP_TEXT, step.getStepText());
+			entry += STEP_SIZE;
+		}
+		
+		for (Category category : categories) {
+			record.putInt(entry + CATEGORY_ID, nullableInt(category.getCategoryId()));
+			strings.put(entry + CATEGORY_NAME, category.getCategoryName());
+			entry += CATEGORY_SIZE;
+		}
+		
+		if (position + strings.end > Integer.MAX_VALUE) {
+			throw new IOException("The snapshot would exceed 2 GB.");
+		}
+		
+		record.limit(strings.end);
+		writeFully(record);
+		
+		if (count == projectIds.length) {
+			projectIds = Arrays.copyOf(projectIds, count * 2);
+			recordOffsets = Arrays.copyOf(recordOffsets, count * 2);
+		}
+		
+		projectIds[count] = projectId;
+		recordOffsets[count] = base;
+		count++;
+		position += strings.end;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		/* Records are written straight to the channel; the indexes are written by close(). */
+	}
+
+	/*
+	 * getCount() method
+	 *  - Returns the number of projects written so far.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/*
+	 * close() method
+	 *  - Appends the ID index and the name index, then writes the header that makes the file
+	 *    readable.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		
+		closed = true;
+		
+		try (channel) {
+			long idIndexOffset = position;
+			
+			if (idIndexOffset + (long) count * (ID_INDEX_ENTRY_SIZE + NAME_INDEX_ENTRY_SIZE) 
+					> Integer.MAX_VALUE) {
+				throw new IOException("The snapshot would exceed 2 GB.");
+			}
+			
+			ByteBuffer index = ByteBuffer.allocate(64 * 1024);
+			
+			for (int i = 0; i < count; i++) {
+				if (index.remaining() < ID_INDEX_ENTRY_SIZE) {
+					drain(index);
+				}
+				
+				index.putInt(projectIds[i]).putInt(recordOffsets[i]);
+			}
+			
+			drain(index);
+			
+			long nameIndexOffset = idIndexOffset + (long) count * ID_INDEX_ENTRY_SIZE;
+			
+			for (int offset : sortByName()) {
+				if (index.remaining() < NAME_INDEX_ENTRY_SIZE) {
+					drain(index);
+				}
+				
+				index.putInt(offset);
+			}
+			
+			drain(index);
+			
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			
+			header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(count).putInt(0)
+					.putLong(idIndexOffset).putLong(nameIndexOffset).flip();
+			
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			
+			channel.force(true);
+		}
+	}
+
+	/*
+	 * sortByName() method
+	 *  - Returns the record offsets ordered by project name bytes. The sort is stable and the
+	 *    records are in ID order, so equal names stay in ID order.
+	 */
+	private Integer[] sortByName() throws IOException {
+		Integer[] offsets = new Integer[count];
+		
+		for (int i = 0; i < count; i++) {
+			offsets[i] = recordOffsets[i];
+		}
+		
+		if (count > 1) {
+			MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+			
+			Arrays.sort(offsets, (a, b) -> compareBytes(
+					records, records.getInt(a + PROJECT_NAME), records.getInt(a + PROJECT_NAME + 4),
+					records, records.getInt(b + PROJECT_NAME), records.getInt(b + PROJECT_NAME + 4)));
+		}
+		
+		return offsets;
+	}
+
+	private void drain(ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		buffer.position(0);
+		
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private void ensureCapacity(int size) {
+		if (record.capacity() >= size) {
+			return;
+		}
+		
+		ByteBuffer larger = ByteBuffer.allocate(Math.max(size, record.capacity() * 2));
+		
+		larger.put(0, record, 0, record.capacity());
+		record = larger;
+	}
+
+	private static int nullableInt(Integer value) {
+		return Objects.isNull(value) ? NULL_INT : value;
+	}
+
+	private static long hundredths(BigDecimal value) {
+		return Objects.isNull(value) ? NULL_LONG 
+				: value.setScale(DECIMAL_SCALE).unscaledValue().longValueExact();
+	}
+
+	/*
+	 * StringHeap class
+	 *  - Appends the UTF-8 bytes of a record's strings after its fixed-size part and writes
+	 *    each string's absolute offset and length into its field.
+	 */
+	private class StringHeap {
+		private final int base;
+		private int end;
+
+		StringHeap(int base, int start) {
+			this.base = base;
+			this.end = start;
+		}
+
+		void put(int field, String value) {
+			if (Objects.isNull(value)) {
+				record.putInt(field, 0);
+				record.putInt(field + 4, NULL_LENGTH);
+				return;
+			}
+			
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			
+			ensureCapacity(end + bytes.length);
+			record.put(end, bytes);
+			record.putInt(field, base + end);
+			record.putInt(field + 4, bytes.length);
+			end += bytes.length;
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package projects.io;
+
+import static projects.io.SnapshotLayout.*;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/*
+ * ProjectView class
+ *  - A flyweight over one project record of a ProjectSnapshot. It holds only the buffer and
+ *    the record offset; every getter decodes its field from the mapped file when called, so
+ *    listing names does not decode notes, steps or materials.
+ *  - Children are read by index, 0 up to the matching count. toProject() copies the record
+ *    into an entity for code that needs one.
+ */
+
+public final class ProjectView {
+
+	private final ByteBuffer data;
+	private final int record;
+
+	ProjectView(ByteBuffer data, int record) {
+		this.data = data;
+		this.record = record;
+	}
+
+	public int getProjectId() {
+		return data.getInt(record + PROJECT_ID);
+	}
+
+	public String getProjectName() {
+		return string(record + PROJECT_NAME);
+	}
+
+	public Integer getDifficulty() {
+		return integer(record + DIFFICULTY);
+	}
+
+	public BigDecimal getEstimatedHours() {
+		return decimal(record + ESTIMATED_HOURS);
+	}
+
+	public BigDecimal getActualHours() {
+		return decimal(record + ACTUAL_HOURS);
+	}
+
+	public String getNotes() {
+		return string(record + NOTES);
+	}
+
+	public Integer getVersion() {
+		return integer(record + VERSION);
+	}
+
+	public int getMaterialCount() {
+		return data.getInt(record + MATERIAL_COUNT);
+	}
+
+	public int getStepCount() {
+		return data.getInt(record + STEP_COUNT);
+	}
+
+	public int getCategoryCount() {
+		return data.getInt(record + CATEGORY_COUNT);
+	}
+
+	public String getMaterialName(int index) {
+		return string(material(index) + MATERIAL_NAME);
+	}
+
+	public Integer getMaterialNumRequired(int index) {
+		return integer(material(index) + NUM_REQUIRED);
+	}
+
+	public BigDecimal getMaterialCost(int index) {
+		return decimal(material(index) + COST);
+	}
+
+	public String getStepText(int index) {
+		return string(step(index) + STEP_TEXT);
+	}
+
+	public Integer getStepOrder(int index) {
+		return integer(step(index) + STEP_ORDER);
+	}
+
+	public String getCategoryName(int index) {
+		return string(category(index) + CATEGORY_NAME);
+	}
+
+	/*
+	 * toProject() method
+	 *  - Copies the record into a Project, with its materials, steps and categories if
+	 *    withChildren is true. The project is returned clean (no dirty columns).
+	 */
+	public Project toProject(boolean withChildren) {
+		Project project = new Project();
+		int projectId = getProjectId();
+		
+		project.setProjectId(projectId);
+		project.setProjectName(getProjectName());
+		project.setEstimatedHours(getEstimatedHours());
+		project.setActualHours(getActualHours());
+		project.setDifficulty(getDifficulty());
+		project.setNotes(getNotes());
+		project.setVersion(getVersion());
+		
+		if (withChildren) {
+			for (int index = 0; index < getMaterialCount(); index++) {
+				Material material = new Material();
+				
+				material.setMaterialId(integer(material(index) + MATERIAL_ID));
+				material.setProjectId(projectId);
+				material.setMaterialName(getMaterialName(index));
+				material.setNumRequired(getMaterialNumRequired(index));
+				material.setCost(getMaterialCost(index));
+				project.getMaterials().add(material);
+			}
+			
+			for (int index = 0; index < getStepCount(); index++) {
+				Step step = new Step();
+				
+				step.setStepId(integer(step(index) + STEP_ID));
+				step.setProjectId(projectId);
+				step.setStepText(getStepText(index));
+				step.setStepOrder(getStepOrder(index));
+				project.getSteps().add(step);
+			}
+			
+			for (int index = 0; index < getCategoryCount(); index++) {
+				Category category = new Category();
+				
+				category.setCategoryId(integer(category(index) + CATEGORY_ID));
+				category.setCategoryName(getCategoryName(index));
+				project.getCategories().add(category);
+			}
+		}
+		
+		project.clearDirty();
+		return project;
+	}
+
+	@Override
+	public String toString() {
+		return "ID=" + getProjectId() + ", projectName=" + getProjectName();
+	}
+
+	private int material(int index) {
+		return entry(index, getMaterialCount(), record + PROJECT_FIXED_SIZE, MATERIAL_SIZE);
+	}
+
+	private int step(int index) {
+		return entry(index, getStepCount(), record + PROJECT_FIXED_SIZE 
+				+ getMaterialCount() * MATERIAL_SIZE, STEP_SIZE);
+	}
+
+	private int category(int index) {
+		return entry(index, getCategoryCount(), record + PROJECT_FIXED_SIZE 
+				+ getMaterialCount() * MATERIAL_SIZE + getStepCount() * STEP_SIZE, CATEGORY_SIZE);
+	}
+
+	private static int entry(int index, int count, int first, int size) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " 
+					+ count);
+		}
+		
+		return first + index * size;
+	}
+
+	private String string(int field) {
+		int length = data.getInt(field + 4);
+		
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		
+		byte[] bytes = new byte[length];
+		
+		data.get(data.getInt(field), bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private Integer integer(int field) {
+		int value = data.getInt(field);
+		return value == NULL_INT ? null : value;
+	}
+
+	private BigDecimal decimal(int field) {
+		long value = data.getLong(field);
+		return value == NULL_LONG ? null : BigDecimal.valueOf(value, DECIMAL_SCALE);
+	}
+}
@@ -0,0 +1,100 @@
+package projects.io;
+
+import java.nio.ByteBuffer;
+
+/*
+ * SnapshotLayout class
+ *  - The byte layout of a project catalog snapshot, shared by ProjectSnapshotWriter and
+ *    ProjectSnapshot. All numbers are big-endian and all offsets are from the start of the
+ *    file, so a snapshot is limited to 2 GB (the most one mapped buffer can hold).
+ *
+ *  Header (HEADER_SIZE bytes):
+ *      int magic, int format version, int project count, int unused,
+ *      long ID index offset, long name index offset
+ *  Project record, one per project, in project ID order:
+ *      int projectId, int version, int difficulty, long estimatedHours, long actualHours,
+ *      string projectName, string notes, int materialCount, int stepCount, int categoryCount,
+ *      then materialCount material entries, stepCount step entries (in step order) and
+ *      categoryCount category entries, then the UTF-8 bytes of every string in the record.
+ *  Material entry: int materialId, string materialName, int numRequired, long cost
+ *  Step entry: int stepId, int stepOrder, string stepText
+ *  Category entry: int categoryId, string categoryName
+ *  ID index: one (int projectId, int record offset) pair per project, by project ID.
+ *  Name index: one int record offset per project, ordered by the UTF-8 bytes of the project
+ *      name (unsigned), then by project ID.
+ *
+ *  A string is stored as (int offset, int length); a length of -1 is null. Integers use
+ *  NULL_INT for null. Decimals are stored as a long count of hundredths, matching the
+ *  DECIMAL(7, 2) columns, with NULL_LONG for null.
+ */
+
+final class SnapshotLayout {
+
+	static final int MAGIC = 0x50524A53;
+	static final int FORMAT_VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int COUNT_OFFSET = 8;
+	static final int ID_INDEX_POINTER = 16;
+	static final int NAME_INDEX_POINTER = 24;
+
+	static final int NULL_INT = Integer.MIN_VALUE;
+	static final long NULL_LONG = Long.MIN_VALUE;
+	static final int NULL_LENGTH = -1;
+	static final int DECIMAL_SCALE = 2;
+
+	/* Project record fields, relative to the start of the record. */
+	static final int PROJECT_ID = 0;
+	static final int VERSION = 4;
+	static final int DIFFICULTY = 8;
+	static final int ESTIMATED_HOURS = 12;
+	static final int ACTUAL_HOURS = 20;
+	static final int PROJECT_NAME = 28;
+	static final int NOTES = 36;
+	static final int MATERIAL_COUNT = 44;
+	static final int STEP_COUNT = 48;
+	static final int CATEGORY_COUNT = 52;
+	static final int PROJECT_FIXED_SIZE = 56;
+
+	/* Child entry fields, relative to the start of the entry. */
+	static final int MATERIAL_ID = 0;
+	static final int MATERIAL_NAME = 4;
+	static final int NUM_REQUIRED = 12;
+	static final int COST = 16;
+	static final int MATERIAL_SIZE = 24;
+
+	static final int STEP_ID = 0;
+	static final int STEP_ORDER = 4;
+	static final int STEP_TEXT = 8;
+	static final int STEP_SIZE = 16;
+
+	static final int CATEGORY_ID = 0;
+	static final int CATEGORY_NAME = 4;
+	static final int CATEGORY_SIZE = 12;
+
+	static final int ID_INDEX_ENTRY_SIZE = 8;
+	static final int NAME_INDEX_ENTRY_SIZE = 4;
+
+	private SnapshotLayout() {
+	}
+
+	/*
+	 * compareBytes() method
+	 *  - Compares two byte ranges as unsigned bytes, which for UTF-8 is code point order. A
+	 *    null string (length -1) sorts first.
+	 */
+	static int compareBytes(ByteBuffer a, int aOffset, int aLength, ByteBuffer b, int bOffset,
+			int bLength) {
+		int length = Math.min(aLength, bLength);
+		
+		for (int index = 0; index < length; index++) {
+			int diff = Byte.toUnsignedInt(a.get(aOffset + index)) 
+					- Byte.toUnsignedInt(b.get(bOffset + index));
+			
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		
+		return Integer.compare(aLength, bLength);
+	}
+}
@@ -0,0 +1,280 @@
+package projects.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import projects.dao.CategoryDictionary;
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/*
+ * ProjectCache class
+ *  - A size-bounded LRU cache of full Project aggregates, keyed by project ID.
+ *  - Entries expire ttlMillis after they are stored (0 disables expiry), so no entry outlives
+ *    a write it did not hear about by more than ttlMillis.
+ *  - getInstance() returns the process-wide cache that every ProjectService shares, sized by
+ *    projects.cache.maxSize and expiring after projects.cache.ttlMillis (one minute by
+ *    default).
+ *  - The cache keeps its own copy of every project and hands out copies, so callers can
+ *    modify what they get back without affecting the cached state.
+ *  - A read-through fill takes a token from startLoad() before it queries and passes it to
+ *    put(). invalidate() bumps the generation of the project's stripe, so a fill that
+ *    started before a write is dropped rather than storing the graph from before the write.
+ */
+
+public class ProjectCache {
+
+	private static final int GENERATION_STRIPES = 64;
+	private static final CategoryDictionary CATEGORIES = CategoryDictionary.getInstance();
+
+	private static final ProjectCache INSTANCE = new ProjectCache(
+			Integer.getInteger("projects.cache.maxSize", 1000),
+			Long.getLong("projects.cache.ttlMillis", 60_000));
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final Map<Integer, CacheEntry> entries;
+	private final long[] generations = new long[GENERATION_STRIPES];
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+	private final LongAdder staleLoads = new LongAdder();
+
+	public ProjectCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, CacheEntry> eldest) {
+				if (size() > ProjectCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+
+				return false;
+			}
+		};
+	}
+
+	public static ProjectCache getInstance() {
+		return INSTANCE;
+	}
+
+	/*
+	 * get(Integer x) method
+	 *  - Returns a copy of the cached project, or null if it is not cached or has expired.
+	 */
+	public Project get(Integer projectId) {
+		CacheEntry entry;
+
+		synchronized (this) {
+			entry = entries.get(projectId);
+
+			if (Objects.nonNull(entry) && isExpired(entry)) {
+				entries.remove(projectId);
+				expirations.increment();
+				entry = null;
+			}
+		}
+
+		if (Objects.isNull(entry)) {
+			misses.increment();
+			return null;
+		}
+
+		hits.increment();
+		return copy(entry.project);
+	}
+
+	/*
+	 * put(Project x) method
+	 *  - Stores a copy of the project, evicting the least recently used entry if the cache is
+	 *    full.
+	 */
+	public void put(Project project) {
+		if (maxSize <= 0 || Objects.isNull(project.getProjectId())) {
+			return;
+		}
+
+		CacheEntry entry = new CacheEntry(copy(project), System.nanoTime());
+
+		synchronized (this) {
+			entries.put(project.getProjectId(), entry);
+		}
+	}
+
+	/*
+	 * startLoad(Integer x) method
+	 *  - Returns the token to pass to put(Project, long) once the project has been read from
+	 *    the database. Call it before the read starts.
+	 */
+	public synchronized long startLoad(Integer projectId) {
+		return generations[stripe(projectId)];
+	}
+
+	/*
+	 * put(Project x, long y) method
+	 *  - Stores a copy of a project read from the database, unless the project was
+	 *    invalidated since startLoad() returned the token.
+	 */
+	public void put(Project project, long loadToken) {
+		if (maxSize <= 0 || Objects.isNull(project.getProjectId())) {
+			return;
+		}
+
+		CacheEntry entry = new CacheEntry(copy(project), System.nanoTime());
+
+		synchronized (this) {
+			if (generations[stripe(project.getProjectId())] != loadToken) {
+				staleLoads.increment();
+				return;
+			}
+
+			entries.put(project.getProjectId(), entry);
+		}
+	}
+
+	public synchronized void invalidate(Integer projectId) {
+		entries.remove(projectId);
+		generations[stripe(projectId)]++;
+	}
+
+	/*
+	 * invalidateIf(Predicate x) method
+	 *  - Removes every cached project that matches the predicate.
+	 */
+	public synchronized void invalidateIf(Predicate<Project> predicate) {
+		Iterator<CacheEntry> it = entries.values().iterator();
+
+		while (it.hasNext()) {
+			if (predicate.test(it.next().project)) {
+				it.remove();
+			}
+		}
+
+		/* A load in flight cannot be tested, so every pending fill is dropped. */
+		bumpAllGenerations();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		bumpAllGenerations();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	public long getExpirationCount() {
+		return expirations.sum();
+	}
+
+	/*
+	 * getStaleLoadCount() method
+	 *  - Returns the number of fills dropped because the project was invalidated while it
+	 *    was being loaded.
+	 */
+	public long getStaleLoadCount() {
+		return staleLoads.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount() + ", misses="
+				+ getMissCount() + ", evictions=" + getEvictionCount() + ", expirations="
+				+ getExpirationCount() + ", staleLoads=" + getStaleLoadCount();
+	}
+
+	private void bumpAllGenerations() {
+		for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+			generations[stripe]++;
+		}
+	}
+
+	private static int stripe(Integer projectId) {
+		return Math.floorMod(Objects.hashCode(projectId), GENERATION_STRIPES);
+	}
+
+	private boolean isExpired(CacheEntry entry) {
+		return ttlNanos > 0 && System.nanoTime() - entry.storedAt >= ttlNanos;
+	}
+
+	/*
+	 * copy(Project x) method
+	 *  - Returns a deep copy of the project and its materials and steps. Categories are the
+	 *    read-only instances shared through the category dictionary.
+	 */
+	static Project copy(Project source) {
+		Project project = new Project();
+		project.setProjectId(source.getProjectId());
+		project.setProjectName(source.getProjectName());
+		project.setEstimatedHours(source.getEstimatedHours());
+		project.setActualHours(source.getActualHours());
+		project.setDifficulty(source.getDifficulty());
+		project.setNotes(source.getNotes());
+		project.setVersion(source.getVersion());
+		project.clearDirty();
+
+		for (Material sourceMaterial : source.getMaterials()) {
+			Material material = new Material();
+			material.setMaterialId(sourceMaterial.getMaterialId());
+			material.setProjectId(sourceMaterial.getProjectId());
+			material.setMaterialName(sourceMaterial.getMaterialName());
+			material.setNumRequired(sourceMaterial.getNumRequired());
+			material.setCost(sourceMaterial.getCost());
+			project.getMaterials().add(material);
+		}
+
+		for (Step sourceStep : source.getSteps()) {
+			Step step = new Step();
+			step.setStepId(sourceStep.getStepId());
+			step.setProjectId(sourceStep.getProjectId());
+			step.setStepText(sourceStep.getStepText());
+			step.setStepOrder(sourceStep.getStepOrder());
+			project.getSteps().add(step);
+		}
+
+		for (Category category : source.getCategories()) {
+			project.getCategories().add(CATEGORIES.intern(category));
+		}
+
+		return project;
+	}
+
+	private static class CacheEntry {
+		private final Project project;
+		private final long storedAt;
+
+		CacheEntry(Project project, long storedAt) {
+			this.project = project;
+			this.storedAt = storedAt;
+		}
+	}
+}
@@ -1,15 +1,58 @@
 package projects.service;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import projects.analytics.CatalogColumns;
+import projects.dao.DeleteResult;
 import projects.dao.ProjectDao;
+import projects.dao.ProjectFilter;
+import projects.entity.CategoryRollup;
 import projects.entity.Project;
+import projects.entity.ProjectRollup;
+import projects.entity.ProjectSearchHit;
+import projects.entity.Step;
 import projects.exception.DbException;
+import projects.io.ExportFormat;
+import projects.io.ProjectGraphWriter;
+import projects.io.ProjectSnapshotWriter;
+import provided.util.SlowQueryLog;
+
+/*
+ * ProjectService class
+ *  - Each service is one client session: its reads see its own writes (see ReadSession).
+ *  - Project graphs are cached in the process-wide ProjectCache, so a write through any
+ *    ProjectService in this JVM invalidates the cached copy for all of them.
+ *  - Writes from other processes, or made directly in the database, are not seen until the
+ *    cached copy expires. A cached read is at most projects.cache.ttlMillis (one minute by
+ *    default) out of date.
+ */
 
 public class ProjectService {
 	
+	private static final int IMPORT_COMMIT_INTERVAL = 
+			Integer.getInteger("projects.import.commitInterval", 1000);
+	
 	private ProjectDao projectDao = new ProjectDao();
+	private ProjectCache projectCache = ProjectCache.getInstance();
 
 	/*
 	 * addProject() method
@@ -20,6 +63,40 @@ public class ProjectService {
 		return projectDao.insertProject(project);
 	}
 
+	/*
+	 * addProjects(List x) method
+	 *  - One parameter (List<Project> projects).
+	 *  - Inserts all of the project rows in one batched transaction and sets their IDs.
+	 */
+	public List<Project> addProjects(List<Project> projects) {
+		return projectDao.insertProjects(projects);
+	}
+
+	/*
+	 * addProjectGraph(Project x) method
+	 *  - One parameter (Project project).
+	 *  - Inserts the project together with its materials, steps and categories in one
+	 *    transaction. Categories are matched by name and created if they do not exist.
+	 */
+	public Project addProjectGraph(Project project) {
+		Project dbProject = projectDao.insertProjectGraph(project);
+		projectCache.put(dbProject);
+		return dbProject;
+	}
+
+	/*
+	 * addProjectGraphs(List x) method
+	 *  - Inserts the projects with their materials, steps and categories in one transaction,
+	 *    using one batched INSERT per table, and sets the generated IDs. Returns the list.
+	 */
+	public List<Project> addProjectGraphs(List<Project> projects) {
+		if (!projects.isEmpty()) {
+			projectDao.importProjectGraphs(projects.iterator(), projects.size());
+		}
+		
+		return projects;
+	}
+
 	/*
 	 * fetchAllProjects() method
 	 *  - Uses the fetchAllProjects() method in ProjectDao.java
@@ -29,30 +106,174 @@ public class ProjectService {
 		return projectDao.fetchAllProjects();
 	}
 	
+	/*
+	 * fetchProjectsPage(String x, Integer y, int z) method
+	 *  - Returns the next page of projects ordered by name, then ID.
+	 *  - Pass null for afterName to start; pass the name and ID of the last project on a page to
+	 *    continue after it.
+	 */
+	public List<Project> fetchProjectsPage(String afterName, Integer afterId, int limit) {
+		return projectDao.fetchProjectsPage(afterName, afterId, limit);
+	}
+	
+	/*
+	 * searchProjects(String x, int y) method
+	 *  - Returns the first limit projects matching the search text, most relevant first, as
+	 *    search hits without child lists.
+	 */
+	public List<ProjectSearchHit> searchProjects(String query, int limit) {
+		return projectDao.searchProjects(query, 0, limit);
+	}
+	
+	/*
+	 * searchProjects(String x, int y, int z) method
+	 *  - Returns the next page of search results, skipping the first offset matches.
+	 */
+	public List<ProjectSearchHit> searchProjects(String query, int offset, int limit) {
+		return projectDao.searchProjects(query, offset, limit);
+	}
+	
+	/*
+	 * streamAllProjects() method
+	 *  - Streams the project rows, ordered by name, without loading the table into memory.
+	 *  - The stream holds a database connection, so close it (try-with-resources) when done.
+	 */
+	public Stream<Project> streamAllProjects() {
+		return projectDao.streamAllProjects();
+	}
+	
 	/*
 	 * fetchProjectById(Integer x) method
 	 *  - One parameter: Integer projectId.
 	 *  - Returns the result of the fetchProjectById(Integer projectId) method 
 	 *    in the ProjectDao.
 	 *  - Returns a NoSuchElementException is no project in the DB has the given project ID.
+	 *  - Reads through the project cache; a cached project is returned without a query.
+	 *    Only primary reads fill the cache (see ProjectDao.fetchProjectById(Integer, Consumer)).
 	 */
 	public Project fetchProjectById(Integer projectId) {
-		return projectDao.fetchProjectById(projectId).orElseThrow(() -> 
+		Project project = projectCache.get(projectId);
+		
+		if (Objects.nonNull(project)) {
+			return project;
+		}
+		
+		long loadToken = projectCache.startLoad(projectId);
+		
+		return projectDao.fetchProjectById(projectId, 
+				loaded -> projectCache.put(loaded, loadToken)).orElseThrow(() -> 
 			new NoSuchElementException("Project with project ID = " + 
 				projectId + " does not exist."));
 	}
 
+	/*
+	 * fetchProjectsByIds(Collection x) method
+	 *  - One parameter: Collection<Integer> projectIds.
+	 *  - Returns the full project graphs for the given IDs using a fixed number of queries per
+	 *    chunk of IDs rather than four per project.
+	 *  - IDs with no matching project are skipped.
+	 *  - Cached projects are served from the cache; only the misses are loaded.
+	 */
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+		Map<Integer, Project> found = new HashMap<>();
+		Map<Integer, Long> misses = new LinkedHashMap<>();
+		
+		for (Integer projectId : projectIds) {
+			Project project = projectCache.get(projectId);
+			
+			if (Objects.nonNull(project)) {
+				found.put(projectId, project);
+			} else {
+				misses.putIfAbsent(projectId, projectCache.startLoad(projectId));
+			}
+		}
+		
+		if (!misses.isEmpty()) {
+			for (Project project : projectDao.fetchProjectsByIds(misses.keySet(), 
+					loaded -> projectCache.put(loaded, misses.get(loaded.getProjectId())))) {
+				found.put(project.getProjectId(), project);
+			}
+		}
+		
+		List<Project> projects = new LinkedList<>();
+		
+		for (Integer projectId : new LinkedHashSet<>(projectIds)) {
+			if (found.containsKey(projectId)) {
+				projects.add(found.get(projectId));
+			}
+		}
+		
+		return projects;
+	}
+
 	/*
 	 * modifyProjectDetails(Project x) method
 	 *  - One parameter: Project project.
-	 *  - Used to access the modifyProjectDetails() method in the ProjectDao.
+	 *  - Used to access the modifyProjectDetails() method in the ProjectDao. Only the changed
+	 *    columns are written, and a stale version raises an OptimisticLockException.
+	 *  - Returns the project with its new column values and version.
 	 *  - If no project is returned from the ProjectDao method, a DbException with the message
 	 *    "Project with project ID ? does not exist." 
 	 */
-	public void modifyProjectDetails(Project project) {
-		if (!projectDao.modifyProjectDetails(project)) {
-			throw new DbException("Project with ID=" + project.getProjectId() 
-				+ "does not exist."); 
+	public Project modifyProjectDetails(Project project) {
+		Optional<Project> modified;
+		
+		try {
+			modified = projectDao.modifyProjectDetails(project);
+		} finally {
+			projectCache.invalidate(project.getProjectId());
+		}
+		
+		return modified.orElseThrow(() -> new DbException("Project with ID=" 
+				+ project.getProjectId() + " does not exist."));
+	}
+
+	/*
+	 * addSteps(Integer x, List y) method
+	 *  - Appends the steps to the end of the project's step list.
+	 */
+	public List<Step> addSteps(Integer projectId, List<Step> steps) {
+		List<Step> dbSteps = projectDao.addSteps(projectId, steps);
+		projectCache.invalidate(projectId);
+		return dbSteps;
+	}
+
+	/*
+	 * insertStep(Integer x, Step y, Integer z) method
+	 *  - Inserts the step before the step with ID beforeStepId, or at the end if it is null.
+	 */
+	public Step insertStep(Integer projectId, Step step, Integer beforeStepId) {
+		Step dbStep = projectDao.insertStep(projectId, step, beforeStepId);
+		projectCache.invalidate(projectId);
+		return dbStep;
+	}
+
+	/*
+	 * moveStep(Integer x, Integer y, Integer z) method
+	 *  - Moves the step before the step with ID beforeStepId, or to the end if it is null.
+	 *  - Throws a DbException if the step is not in the project.
+	 */
+	public void moveStep(Integer projectId, Integer stepId, Integer beforeStepId) {
+		boolean moved = projectDao.moveStep(projectId, stepId, beforeStepId);
+		projectCache.invalidate(projectId);
+		
+		if (!moved) {
+			throw new DbException("Step with ID=" + stepId + " is not in project with ID=" 
+				+ projectId + ".");
+		}
+	}
+
+	/*
+	 * deleteStep(Integer x) method
+	 *  - Deletes the step. Throws a DbException if it does not exist.
+	 */
+	public void deleteStep(Integer stepId) {
+		boolean deleted = projectDao.deleteStep(stepId);
+		projectCache.invalidateIf(project -> project.getSteps().stream()
+				.anyMatch(step -> stepId.equals(step.getStepId())));
+		
+		if (!deleted) {
+			throw new DbException("Step with ID=" + stepId + " does not exist.");
 		}
 	}
 
@@ -63,9 +284,209 @@ public class ProjectService {
 	 *     - If false, message returned saying Project ID doesn't exist.
 	 */
 	public void deleteProject(Integer projectId) {
-		if (!projectDao.deleteProject(projectId)) {
+		boolean deleted = projectDao.deleteProject(projectId);
+		projectCache.invalidate(projectId);
+		
+		if (!deleted) {
 			throw new DbException("Project with ID=" + projectId + " does not exist.");
 		}
 	}
 
+	/*
+	 * deleteProjects(Collection x, Consumer y) method
+	 *  - Deletes the projects in chunks, committing after each one. See ProjectDao.
+	 *  - The cached copies are dropped even if a chunk fails, since earlier chunks may already
+	 *    be committed.
+	 */
+	public DeleteResult deleteProjects(Collection<Integer> projectIds, 
+			Consumer<DeleteResult> progress) {
+		try {
+			return projectDao.deleteProjects(projectIds, progress);
+		} finally {
+			projectIds.forEach(projectCache::invalidate);
+		}
+	}
+
+	public DeleteResult deleteProjects(Collection<Integer> projectIds) {
+		return deleteProjects(projectIds, null);
+	}
+
+	/*
+	 * deleteProjectsWhere(ProjectFilter x, Consumer y) method
+	 *  - Deletes every matching project in chunks. Cached projects that match the filter are
+	 *    dropped.
+	 */
+	public DeleteResult deleteProjectsWhere(ProjectFilter filter, Consumer<DeleteResult> progress) {
+		try {
+			return projectDao.deleteProjectsWhere(filter, progress);
+		} finally {
+			projectCache.invalidateIf(filter);
+		}
+	}
+
+	public DeleteResult deleteProjectsWhere(ProjectFilter filter) {
+		return deleteProjectsWhere(filter, null);
+	}
+
+	/*
+	 * fetchProjectRollup(Integer x) method
+	 *  - Returns the project's pre-aggregated material cost, child counts and hours variance
+	 *    without loading its graph. Throws a NoSuchElementException if it does not exist.
+	 */
+	public ProjectRollup fetchProjectRollup(Integer projectId) {
+		return projectDao.fetchProjectRollup(projectId).orElseThrow(() -> 
+			new NoSuchElementException("Project with project ID = " + 
+				projectId + " does not exist."));
+	}
+
+	/*
+	 * fetchTopProjectsByCost(int x) method
+	 *  - Returns the limit most expensive projects by total material cost.
+	 */
+	public List<ProjectRollup> fetchTopProjectsByCost(int limit) {
+		return projectDao.fetchTopProjectsByCost(limit);
+	}
+
+	/*
+	 * fetchTopProjectsByOverrun(int x) method
+	 *  - Returns the limit projects that ran furthest over their estimated hours.
+	 */
+	public List<ProjectRollup> fetchTopProjectsByOverrun(int limit) {
+		return projectDao.fetchTopProjectsByOverrun(limit);
+	}
+
+	/*
+	 * fetchCategoryRollups() method
+	 *  - Returns the cost and effort totals of each category.
+	 */
+	public List<CategoryRollup> fetchCategoryRollups() {
+		return projectDao.fetchCategoryRollups();
+	}
+
+	/*
+	 * rebuildProjectSummaries() method
+	 *  - Recomputes every rollup from the child tables. See ProjectDao.
+	 */
+	public int rebuildProjectSummaries() {
+		return projectDao.rebuildProjectSummaries();
+	}
+
+	/*
+	 * loadCatalogColumns() method
+	 *  - Loads the projects and materials into a column store for analytics. The store is a
+	 *    copy as of the load; load again to see later changes.
+	 */
+	public CatalogColumns loadCatalogColumns() {
+		return projectDao.loadCatalogColumns();
+	}
+
+	/*
+	 * exportProjects(Path x, ExportFormat y) method
+	 *  - Writes every project with its materials, steps and categories to the file, streaming
+	 *    one project at a time. Returns the number of projects written.
+	 */
+	public long exportProjects(Path file, ExportFormat format) throws IOException {
+		try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			ProjectGraphWriter writer = format.newWriter(out);
+			long count = projectDao.exportProjectGraphs(project -> {
+				try {
+					writer.write(project);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			
+			writer.flush();
+			return count;
+		} catch (DbException e) {
+			throw unwrapIoFailure(e);
+		}
+	}
+
+	/*
+	 * importProjects(Path x, ExportFormat y, int z) method
+	 *  - Reads project graphs from a file written by exportProjects() and inserts them with new
+	 *    IDs, committing every commitInterval projects. Returns the number imported.
+	 *  - If the import fails part way, the projects committed before the failure remain.
+	 */
+	public long importProjects(Path file, ExportFormat format, int commitInterval) 
+			throws IOException {
+		try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return projectDao.importProjectGraphs(format.newReader(in).iterator(), commitInterval);
+		} catch (DbException e) {
+			throw unwrapIoFailure(e);
+		}
+	}
+
+	public long importProjects(Path file, ExportFormat format) throws IOException {
+		return importProjects(file, format, IMPORT_COMMIT_INTERVAL);
+	}
+
+	/*
+	 * writeSnapshot(Path x) method
+	 *  - Writes every project graph to a binary snapshot that SnapshotProjectService can open
+	 *    without a database. Returns the number of projects written.
+	 *  - The snapshot is written to a temporary file beside the target and moved into place
+	 *    when complete, so a failed write leaves the previous snapshot untouched.
+	 */
+	public long writeSnapshot(Path file) throws IOException {
+		Path partial = file.resolveSibling(file.getFileName() + ".partial");
+		long count;
+		
+		try (ProjectSnapshotWriter writer = new ProjectSnapshotWriter(partial)) {
+			count = projectDao.exportProjectGraphs(project -> {
+				try {
+					writer.write(project);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (DbException e) {
+			Files.deleteIfExists(partial);
+			throw unwrapIoFailure(e);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(partial);
+			throw e;
+		}
+		
+		Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, 
+				StandardCopyOption.ATOMIC_MOVE);
+		return count;
+	}
+
+	/*
+	 * unwrapIoFailure(DbException x) method
+	 *  - Returns the IOException behind a DbException raised by a failed read or write of the
+	 *    file, or rethrows the DbException if the database failed.
+	 */
+	private IOException unwrapIoFailure(DbException e) {
+		for (Throwable cause = e; Objects.nonNull(cause); cause = cause.getCause()) {
+			if (cause instanceof UncheckedIOException) {
+				return ((UncheckedIOException) cause).getCause();
+			}
+		}
+		
+		throw e;
+	}
+
+	/*
+	 * getProjectCache() method
+	 *  - Returns the project cache so its hit, miss and eviction counters can be read.
+	 */
+	public ProjectCache getProjectCache() {
+		return projectCache;
+	}
+
+	/*
+	 * getSlowQueryReport() method
+	 *  - Returns the slow query log, oldest entry first.
+	 */
+	public String getSlowQueryReport() {
+		return SlowQueryLog.dump();
+	}
+
+	public boolean isSlowQueryLogEnabled() {
+		return SlowQueryLog.isEnabled();
+	}
+
 }
@@ -0,0 +1,177 @@
+package projects.service;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import projects.dao.DbConnection;
+import projects.dao.QueryCanceller;
+import projects.entity.Project;
+
+/*
+ * ProjectServiceAsync class
+ *  - A non-blocking companion to ProjectService. Each method runs the matching ProjectService
+ *    call on a background thread and returns a CompletableFuture.
+ *  - Calls run on virtual threads when the JVM provides them (Java 21+), otherwise on a fixed
+ *    pool of maxConcurrency platform threads. Either way a semaphore sized to the connection
+ *    limit bounds how many calls touch the database at once, so any number of callers can
+ *    queue without exhausting MySQL connections.
+ *  - Calls share the wrapped ProjectService and so its read session: a read submitted after a
+ *    write completes sees that write, whichever thread runs it.
+ *  - Every call completes with a TimeoutException after its timeout. Cancelling the future, or
+ *    a timeout, cancels the SQL statement the call is running (see QueryCanceller), so MySQL
+ *    stops the query, and fails any later statement of the call. It also interrupts the call
+ *    if it is still waiting for a permit or a connection.
+ */
+
+public class ProjectServiceAsync implements AutoCloseable {
+
+	private final ProjectService projectService;
+	private final ExecutorService executor;
+	private final Semaphore dbPermits;
+	private final long defaultTimeoutMillis;
+
+	public ProjectServiceAsync() {
+		this(new ProjectService(), DbConnection.getPoolStats().getMaxSize(),
+				Long.getLong("projects.async.timeoutMillis", 30_000));
+	}
+
+	public ProjectServiceAsync(ProjectService projectService, int maxConcurrency,
+			long defaultTimeoutMillis) {
+		this.projectService = projectService;
+		this.executor = newExecutor(maxConcurrency);
+		this.dbPermits = new Semaphore(maxConcurrency, true);
+		this.defaultTimeoutMillis = defaultTimeoutMillis;
+	}
+
+	public CompletableFuture<Project> addProject(Project project) {
+		return submit(() -> projectService.addProject(project), defaultTimeoutMillis);
+	}
+
+	public CompletableFuture<List<Project>> fetchAllProjects() {
+		return submit(projectService::fetchAllProjects, defaultTimeoutMillis);
+	}
+
+	public CompletableFuture<Project> fetchProjectById(Integer projectId) {
+		return fetchProjectById(projectId, defaultTimeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * fetchProjectById(Integer x, long y, TimeUnit z) method
+	 *  - Same as fetchProjectById(Integer) with a per-call timeout.
+	 */
+	public CompletableFuture<Project> fetchProjectById(Integer projectId, long timeout,
+			TimeUnit unit) {
+		return submit(() -> projectService.fetchProjectById(projectId), unit.toMillis(timeout));
+	}
+
+	public CompletableFuture<List<Project>> fetchProjectsByIds(Collection<Integer> projectIds) {
+		return fetchProjectsByIds(projectIds, defaultTimeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * fetchProjectsByIds(Collection x, long y, TimeUnit z) method
+	 *  - Same as fetchProjectsByIds(Collection) with a per-call timeout.
+	 */
+	public CompletableFuture<List<Project>> fetchProjectsByIds(Collection<Integer> projectIds,
+			long timeout, TimeUnit unit) {
+		return submit(() -> projectService.fetchProjectsByIds(projectIds), unit.toMillis(timeout));
+	}
+
+	public CompletableFuture<Project> modifyProjectDetails(Project project) {
+		return submit(() -> projectService.modifyProjectDetails(project), defaultTimeoutMillis);
+	}
+
+	public CompletableFuture<Void> deleteProject(Integer projectId) {
+		return submit(() -> {
+			projectService.deleteProject(projectId);
+			return null;
+		}, defaultTimeoutMillis);
+	}
+
+	public int getAvailablePermits() {
+		return dbPermits.availablePermits();
+	}
+
+	public int getQueueLength() {
+		return dbPermits.getQueueLength();
+	}
+
+	/*
+	 * close() method
+	 *  - Stops accepting calls. Calls already submitted are allowed to finish.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	/*
+	 * submit(Callable x, long y) method
+	 *  - Runs the call on the executor once a database permit is free and completes the
+	 *    returned future with its result.
+	 *  - A cancelled or timed-out future cancels the running statement, interrupts the task and
+	 *    releases its permit.
+	 */
+	private <T> CompletableFuture<T> submit(Callable<T> call, long timeoutMillis) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		QueryCanceller canceller = new QueryCanceller();
+
+		Future<?> task = executor.submit(() -> {
+			boolean acquired = false;
+
+			try {
+				dbPermits.acquire();
+				acquired = true;
+
+				if (!future.isDone()) {
+					future.complete(canceller.call(call));
+				}
+			} catch (InterruptedException e) {
+				future.completeExceptionally(new CancellationException("Call was interrupted."));
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			} finally {
+				if (acquired) {
+					dbPermits.release();
+				}
+			}
+		});
+
+		future.whenComplete((result, error) -> {
+			if (future.isCancelled() || error instanceof TimeoutException) {
+				canceller.cancel();
+				task.cancel(true);
+			}
+		});
+
+		return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/*
+	 * newExecutor(int x) method
+	 *  - Returns a virtual-thread-per-task executor if the running JVM supports one, otherwise a
+	 *    fixed pool of daemon platform threads.
+	 */
+	private static ExecutorService newExecutor(int maxConcurrency) {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			return Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+				Thread thread = new Thread(runnable, "projects-async");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+}
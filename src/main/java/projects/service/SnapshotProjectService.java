@@ -0,0 +1,88 @@
+package projects.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import projects.entity.Project;
+import projects.io.ProjectSnapshot;
+import projects.io.ProjectView;
+
+/*
+ * SnapshotProjectService class
+ *  - Answers the read-only ProjectService queries from a snapshot file written by
+ *    ProjectService.writeSnapshot(), without a database connection. Opening it maps the file
+ *    and reads the header, so it is ready as soon as the constructor returns.
+ *  - The data is as of the time the snapshot was written; write a new snapshot and open a
+ *    new service to refresh it.
+ */
+
+public class SnapshotProjectService implements AutoCloseable {
+
+	private final ProjectSnapshot snapshot;
+
+	public SnapshotProjectService(Path file) throws IOException {
+		snapshot = ProjectSnapshot.open(file);
+	}
+
+	/*
+	 * fetchAllProjects() method
+	 *  - Returns every project, ordered by name, without its child lists.
+	 */
+	public List<Project> fetchAllProjects() {
+		List<Project> projects = new ArrayList<>(snapshot.size());
+		
+		snapshot.forEachByName(view -> projects.add(view.toProject(false)));
+		return projects;
+	}
+
+	/*
+	 * fetchProjectById(Integer x) method
+	 *  - Returns the project with its materials, steps and categories.
+	 *  - Throws a NoSuchElementException if the snapshot has no project with the given ID.
+	 */
+	public Project fetchProjectById(Integer projectId) {
+		return findProject(projectId).toProject(true);
+	}
+
+	/*
+	 * findProject(Integer x) method
+	 *  - Returns a view of the project that decodes fields only as they are read.
+	 *  - Throws a NoSuchElementException if the snapshot has no project with the given ID.
+	 */
+	public ProjectView findProject(Integer projectId) {
+		ProjectView view = Objects.isNull(projectId) ? null : snapshot.findById(projectId);
+		
+		if (Objects.isNull(view)) {
+			throw new NoSuchElementException("Project with project ID = " + projectId 
+					+ " does not exist.");
+		}
+		
+		return view;
+	}
+
+	/*
+	 * findProjectsByName(String x) method
+	 *  - Returns views of the projects with exactly the given name, in project ID order.
+	 */
+	public List<ProjectView> findProjectsByName(String projectName) {
+		return snapshot.findByName(projectName);
+	}
+
+	/*
+	 * size() method
+	 *  - Returns the number of projects in the snapshot.
+	 */
+	public int size() {
+		return snapshot.size();
+	}
+
+	@Override
+	public void close() {
+		snapshot.close();
+	}
+
+}
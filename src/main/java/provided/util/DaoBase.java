@@ -3,20 +3,19 @@
  */
 package provided.util;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.sql.Time;
-import java.sql.Timestamp;
 import java.sql.Types;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * This class contains utility methods for the DAO class.
@@ -57,6 +56,83 @@ public abstract class DaoBase {
     conn.rollback();
   }
 
+  /**
+   * Commits the transaction and counts the commit in the operation's metrics.
+   * 
+   * @param conn The connection on which to commit the transaction.
+   * @param metrics The metrics of the operation that owns the transaction.
+   * @throws SQLException Thrown if an error occurs committing the transaction.
+   */
+  protected void commitTransaction(Connection conn, OperationMetrics metrics)
+      throws SQLException {
+    commitTransaction(conn);
+    metrics.recordCommit();
+  }
+
+  /**
+   * Rolls back the transaction and counts the rollback in the operation's metrics.
+   * 
+   * @param conn The connection on which to roll back the transaction.
+   * @param metrics The metrics of the operation that owns the transaction.
+   * @throws SQLException Thrown if an error occurs rolling back the transaction.
+   */
+  protected void rollbackTransaction(Connection conn, OperationMetrics metrics)
+      throws SQLException {
+    rollbackTransaction(conn);
+    metrics.recordRollback();
+  }
+
+  /**
+   * This marks the start of a DAO operation. While the {@link SlowQueryLog} is enabled, it starts
+   * a {@link QueryTrace} on the calling thread. Every call must be matched by
+   * {@link #endOperation(OperationMetrics, long)} in a finally block.
+   * 
+   * @param metrics The metrics of the operation.
+   * @return The start time, to pass to {@link #endOperation(OperationMetrics, long)}.
+   */
+  protected long startOperation(OperationMetrics metrics) {
+    QueryTrace.begin(metrics.getName());
+    return System.nanoTime();
+  }
+
+  /**
+   * This marks the end of a DAO operation. It records the latency and, if the operation was slow,
+   * writes its trace to the {@link SlowQueryLog}.
+   * 
+   * @param metrics The metrics of the operation.
+   * @param startNanos The value returned by {@link #startOperation(OperationMetrics)}.
+   */
+  protected void endOperation(OperationMetrics metrics, long startNanos) {
+    metrics.recordLatency(startNanos);
+    QueryTrace.end();
+  }
+
+  /**
+   * This obtains a connection from the given source and records how long it took in the
+   * operation's metrics. A failure to obtain one is recorded as an error of the operation.
+   * 
+   * @param source Where connections come from, for example a pool.
+   * @param metrics The metrics of the operation that needs the connection.
+   * @return The connection.
+   */
+  protected Connection acquireConnection(Supplier<Connection> source,
+      OperationMetrics metrics) {
+    long start = System.nanoTime();
+
+    try {
+      Connection conn = source.get();
+      long nanos = System.nanoTime() - start;
+
+      metrics.recordAcquire(nanos);
+      QueryTrace.recordAcquire(nanos);
+      return conn;
+    }
+    catch(RuntimeException e) {
+      metrics.recordError(e);
+      throw e;
+    }
+  }
+
   /**
    * This sets a parameter on a prepared statement. If the parameter is null, it is handled
    * correctly.
@@ -141,6 +217,10 @@ public abstract class DaoBase {
    * of a child row. For a *real* application, a more sophisticated approach is desired. This method
    * does not allow for entity reordering and does not allow for an entity to be deleted.
    * 
+   * @deprecated Use {@link #allocateSequenceNumbers(Connection, Integer, String, String, String,
+   *             int, int)}, which allocates any number of values in one query and survives
+   *             deletes.
+   * 
    * @param conn The connection
    * @param id The ID of the parent entity
    * @param tableName The name of the table with the child rows
@@ -148,6 +228,7 @@ public abstract class DaoBase {
    * @return The count of the entities attached to the parent plus one
    * @throws SQLException Thrown if an error occurs.
    */
+  @Deprecated
   protected Integer getNextSequenceNumber(Connection conn, Integer id, String tableName,
       String idName) throws SQLException {
     String sql = "SELECT COUNT(*) FROM " + tableName + " WHERE " + idName + " = ?";
@@ -166,20 +247,69 @@ public abstract class DaoBase {
   }
 
   /**
-   * This returns the integer primary key value of the last row inserted into the given table. It
+   * This allocates sparse order values for child rows appended to the end of a parent's list. The
+   * values start one gap above the current highest order value and are spaced one gap apart, so a
+   * row can later be moved or inserted between two others by taking the midpoint, without
+   * renumbering its neighbors. The highest value is read with FOR UPDATE, so concurrent writers
+   * appending to the same parent wait for this transaction instead of receiving the same values.
+   * 
+   * @param conn The connection. A transaction must be open.
+   * @param id The ID of the parent entity
+   * @param tableName The name of the table with the child rows
+   * @param idName The name of the parent ID field
+   * @param orderName The name of the order field
+   * @param count The number of values to allocate
+   * @param gap The spacing between consecutive values
+   * @return The allocated order values, in ascending order
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected List<Integer> allocateSequenceNumbers(Connection conn, Integer id, String tableName,
+      String idName, String orderName, int count, int gap) throws SQLException {
+    String sql = "SELECT MAX(" + orderName + ") FROM " + tableName + " WHERE " + idName
+        + " = ? FOR UPDATE";
+    long highest = 0;
+
+    try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, id, Integer.class);
+
+      try(ResultSet rs = stmt.executeQuery()) {
+        if(rs.next()) {
+          highest = rs.getLong(1);
+        }
+      }
+    }
+
+    if(highest + (long)count * gap > Integer.MAX_VALUE) {
+      throw new DaoException("Order values for " + tableName + " " + idName + "=" + id
+          + " are exhausted. Renumber the rows first.");
+    }
+
+    List<Integer> values = new ArrayList<>(count);
+
+    for(int index = 1; index <= count; index++) {
+      values.add((int)(highest + (long)index * gap));
+    }
+
+    return values;
+  }
+
+  /**
+   * This returns the integer primary key value of the last row inserted on this connection. It
    * allows the ID to be inserted into the entity object after inserting it into the table.
    * 
-   * The other way of doing this is to call {@link Statement#getGeneratedKeys()}, but this returns a
-   * result set that needs to be parsed for the ID. It's not really any easier than this approach
-   * but should be closer to database-agnostic.
+   * LAST_INSERT_ID() is per connection, so it is selected without a FROM clause. Selecting it from
+   * the table would return one row per row in the table. Prefer
+   * {@link #getGeneratedId(Statement)}, which reads the key the driver already received with the
+   * insert and needs no extra round trip.
    * 
    * @param conn The connection
-   * @param table The name of the table on which to get the last inserted primary key value
+   * @param table The name of the table on which to get the last inserted primary key value. It is
+   *        no longer used and is kept for existing callers.
    * @return The primary key value
    * @throws SQLException Thrown if an error occurs
    */
   protected Integer getLastInsertId(Connection conn, String table) throws SQLException {
-    String sql = String.format("SELECT LAST_INSERT_ID() FROM %s", table);
+    String sql = "SELECT LAST_INSERT_ID()";
 
     try(Statement stmt = conn.createStatement()) {
       try(ResultSet rs = stmt.executeQuery(sql)) {
@@ -192,17 +322,63 @@ public abstract class DaoBase {
     }
   }
 
+  /**
+   * This returns the integer primary key generated by the last insert executed on the statement.
+   * The statement must have been prepared with {@link Statement#RETURN_GENERATED_KEYS}.
+   * 
+   * @param stmt The statement that executed the insert
+   * @return The primary key value
+   * @throws SQLException Thrown if an error occurs or no key was generated
+   */
+  protected Integer getGeneratedId(Statement stmt) throws SQLException {
+    try(ResultSet rs = stmt.getGeneratedKeys()) {
+      if(rs.next()) {
+        return rs.getInt(1);
+      }
+
+      throw new SQLException("Unable to retrieve the primary key value. No generated keys!");
+    }
+  }
+
+  /**
+   * This returns the integer primary keys generated by a batch executed on the statement, in the
+   * order the rows were added to the batch. The statement must have been prepared with
+   * {@link Statement#RETURN_GENERATED_KEYS}.
+   * 
+   * @param stmt The statement that executed the batch
+   * @param expected The number of rows in the batch
+   * @return The primary key values
+   * @throws SQLException Thrown if an error occurs or fewer keys than rows were returned
+   */
+  protected List<Integer> getGeneratedIds(Statement stmt, int expected) throws SQLException {
+    List<Integer> ids = new ArrayList<>(expected);
+
+    try(ResultSet rs = stmt.getGeneratedKeys()) {
+      while(rs.next()) {
+        ids.add(rs.getInt(1));
+      }
+    }
+
+    if(ids.size() != expected) {
+      throw new SQLException(
+          "Expected " + expected + " generated keys but the driver returned " + ids.size());
+    }
+
+    return ids;
+  }
+
   /**
    * This extracts an object of the given type from a result set. The object must have a
-   * zero-argument constructor. It builds an object from a result set using reflection as follows:
+   * zero-argument constructor. The mapping is done by a {@link RowMapper} that is built once for
+   * each class and result set shape and then cached:
    * <ol>
    * <li>The zero-argument constructor is obtained.</li>
-   * <li>An object of the given class type is created.</li>
-   * <li>A list of fields is obtained using reflection.</li>
-   * <li>The field name is converted from Java naming to SQL naming conventions (camel case to snake
-   * case). Obviously, for this to work, the Java name must match the column name. So, if the Java
-   * name is numServings, the column name must be num_servings.</li>
-   * <li>The value is assigned to the field in the object.</li>
+   * <li>The field names are converted from Java naming to SQL naming conventions (camel case to
+   * snake case) and matched to column indexes. Obviously, for this to work, the Java name must
+   * match the column name. So, if the Java name is numServings, the column name must be
+   * num_servings.</li>
+   * <li>For each row, an object of the given class type is created and the value of each matched
+   * column is assigned to its field.</li>
    * </ol>
    * 
    * Example: if a query returns values for a recipe, a Recipe object is returned. So:
@@ -224,6 +400,9 @@ public abstract class DaoBase {
    * Since the result set does not contain a column named "ingredients", the value is left alone and
    * the list initialization is preserved.
    * 
+   * When extracting many rows, call {@link #rowMapper(ResultSet, Class)} once before the loop
+   * instead. This method looks up the mapper for every row.
+   * 
    * @param <T> The Generic for the type of object to create and return.
    * @param rs The result set in which to extract values. The result set must be positioned on the
    *        correct row by the caller.
@@ -231,59 +410,88 @@ public abstract class DaoBase {
    * @return A populated class.
    */
   protected <T> T extract(ResultSet rs, Class<T> classType) {
+    return rowMapper(rs, classType).map(rs);
+  }
+
+  /**
+   * This returns the cached {@link RowMapper} for the given class and the shape of the result set.
+   * Obtain the mapper once and call {@link RowMapper#map(ResultSet)} for each row.
+   * 
+   * @param <T> The Generic for the type of object to create.
+   * @param rs The result set. Only its metadata is read.
+   * @param classType The actual class type of the object to create.
+   * @return The row mapper.
+   */
+  protected <T> RowMapper<T> rowMapper(ResultSet rs, Class<T> classType) {
     try {
-      /* Obtain the constructor and create an object of the correct type. */
-      Constructor<T> con = classType.getConstructor();
-      T obj = con.newInstance();
-
-      /* Get the list of fields and loop through them. */
-      for(Field field : classType.getDeclaredFields()) {
-        String colName = camelCaseToSnakeCase(field.getName());
-        Class<?> fieldType = field.getType();
-
-        /*
-         * Set the field accessible flag which means that we can populate even private fields
-         * without using the setter.
-         */
-        field.setAccessible(true);
-        Object fieldValue = null;
-
-        try {
-          fieldValue = rs.getObject(colName);
-        }
-        catch(SQLException e) {
-          /*
-           * An exception caught here means that the field name isn't in the result set. Don't take
-           * any action.
-           */
-        }
+      return RowMapper.forResultSet(rs, classType);
+    }
+    catch(SQLException e) {
+      throw new DaoException("Unable to create object of type " + classType.getName(), e);
+    }
+  }
 
-        /*
-         * Only set the value in the object if there is a value with the same name in the result
-         * set. This will preserve instance variables (like lists) that are assigned values when the
-         * object is created.
-         */
-        if(Objects.nonNull(fieldValue)) {
-          /*
-           * Convert the following types: Time -> LocalTime, and Timestamp -> LocalDateTime.
-           */
-          if(fieldValue instanceof Time && fieldType.equals(LocalTime.class)) {
-            fieldValue = ((Time)fieldValue).toLocalTime();
-          }
-          else if(fieldValue instanceof Timestamp && fieldType.equals(LocalDateTime.class)) {
-            fieldValue = ((Timestamp)fieldValue).toLocalDateTime();
-          }
-
-          field.set(obj, fieldValue);
-        }
-      }
+  /**
+   * This extracts every remaining row of a result set into a list. The row mapper is looked up
+   * once for the whole result set.
+   * 
+   * @param <T> The Generic for the type of object to create.
+   * @param rs The result set. It must be positioned before the first row to extract.
+   * @param classType The actual class type of the objects to create.
+   * @return A list of populated objects.
+   * @throws SQLException Thrown if an error occurs reading the result set.
+   */
+  protected <T> List<T> extractAll(ResultSet rs, Class<T> classType) throws SQLException {
+    RowMapper<T> mapper = rowMapper(rs, classType);
+    List<T> results = new LinkedList<>();
+
+    while(rs.next()) {
+      results.add(mapper.map(rs));
+    }
+
+    return results;
+  }
 
-      return obj;
+  /**
+   * This returns a comma-separated list of question marks for use in an IN clause. For example,
+   * a count of 3 returns "?, ?, ?".
+   * 
+   * @param count The number of placeholders. Must be at least one.
+   * @return The placeholder list.
+   */
+  protected String inClausePlaceholders(int count) {
+    StringBuilder placeholders = new StringBuilder("?");
 
+    for(int index = 1; index < count; index++) {
+      placeholders.append(", ?");
     }
-    catch(Exception e) {
-      throw new DaoException("Unable to create object of type " + classType.getName(), e);
+
+    return placeholders.toString();
+  }
+
+  /**
+   * This splits a list into consecutive sublists of at most the given size. It is used to keep IN
+   * clauses and batches to a bounded size.
+   * 
+   * @param <T> The Generic for the list element type.
+   * @param values The values to split.
+   * @param chunkSize The maximum size of each sublist.
+   * @return The sublists, in order.
+   * @throws IllegalArgumentException Thrown if chunkSize is less than 1.
+   */
+  protected <T> List<List<T>> partition(List<T> values, int chunkSize) {
+    if(chunkSize < 1) {
+      throw new IllegalArgumentException("The chunk size must be at least 1 but was "
+          + chunkSize + ".");
     }
+
+    List<List<T>> chunks = new LinkedList<>();
+
+    for(int from = 0; from < values.size(); from += chunkSize) {
+      chunks.add(values.subList(from, Math.min(from + chunkSize, values.size())));
+    }
+
+    return chunks;
   }
 
   /**
@@ -292,7 +500,7 @@ public abstract class DaoBase {
    * @param identifier The name in camel case to convert.
    * @return The name converted to snake case.
    */
-  private String camelCaseToSnakeCase(String identifier) {
+  static String camelCaseToSnakeCase(String identifier) {
     StringBuilder nameBuilder = new StringBuilder();
 
     for(char ch : identifier.toCharArray()) {
@@ -0,0 +1,111 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This is the registry of {@link OperationMetrics}, one per named DAO operation, and of the
+ * {@link MetricsExporter}s that publish them. Operations are usually created once, in static
+ * final fields, so the lookup is off the hot path.
+ *
+ * @author Promineo
+ *
+ */
+public final class DaoMetrics {
+  private static final ConcurrentMap<String, OperationMetrics> OPERATIONS =
+      new ConcurrentHashMap<>();
+  private static final List<MetricsExporter> EXPORTERS = new CopyOnWriteArrayList<>();
+
+  private DaoMetrics() {}
+
+  /**
+   * Returns the recorder for the named operation, creating it and announcing it to the exporters
+   * on first use.
+   *
+   * @param name The operation name.
+   * @return The recorder.
+   */
+  public static OperationMetrics operation(String name) {
+    OperationMetrics metrics = OPERATIONS.get(name);
+
+    if(Objects.nonNull(metrics)) {
+      return metrics;
+    }
+
+    synchronized(DaoMetrics.class) {
+      metrics = OPERATIONS.get(name);
+
+      if(Objects.isNull(metrics)) {
+        metrics = new OperationMetrics(name);
+        OPERATIONS.put(name, metrics);
+
+        for(MetricsExporter exporter : EXPORTERS) {
+          exporter.operationAdded(metrics);
+        }
+      }
+
+      return metrics;
+    }
+  }
+
+  /**
+   * @return Every operation recorded so far.
+   */
+  public static Collection<OperationMetrics> operations() {
+    return Collections.unmodifiableCollection(OPERATIONS.values());
+  }
+
+  /**
+   * Adds an exporter and announces every existing operation to it.
+   *
+   * @param exporter The exporter.
+   */
+  public static synchronized void addExporter(MetricsExporter exporter) {
+    EXPORTERS.add(exporter);
+
+    for(OperationMetrics metrics : OPERATIONS.values()) {
+      exporter.operationAdded(metrics);
+    }
+  }
+
+  /**
+   * Removes and closes an exporter.
+   *
+   * @param exporter The exporter.
+   */
+  public static synchronized void removeExporter(MetricsExporter exporter) {
+    if(EXPORTERS.remove(exporter)) {
+      exporter.close();
+    }
+  }
+
+  /**
+   * Sets every operation's counters back to zero.
+   */
+  public static void resetAll() {
+    OPERATIONS.values().forEach(OperationMetrics::reset);
+  }
+
+  /**
+   * Returns a line per operation with its counters.
+   *
+   * @return The report.
+   */
+  public static String report() {
+    StringBuilder report = new StringBuilder();
+
+    for(OperationMetrics metrics : OPERATIONS.values()) {
+      report.append(metrics).append('\n');
+    }
+
+    return report.toString();
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This registers each {@link OperationMetrics} with the platform MBean server as
+ * {@code <domain>:type=Operation,name=<operation>}. The MBean reads the recorder when an attribute
+ * is read, so the exporter adds no work to the operations themselves.
+ *
+ * @author Promineo
+ *
+ */
+public class JmxMetricsExporter implements MetricsExporter {
+  private final String domain;
+  private final MBeanServer server;
+  private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param domain The JMX domain, for example "projects.dao".
+   */
+  public JmxMetricsExporter(String domain) {
+    this(domain, ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * @param domain The JMX domain.
+   * @param server The MBean server on which to register the operations.
+   */
+  public JmxMetricsExporter(String domain, MBeanServer server) {
+    this.domain = domain;
+    this.server = server;
+  }
+
+  @Override
+  public void operationAdded(OperationMetrics metrics) {
+    try {
+      ObjectName name = new ObjectName(domain + ":type=Operation,name="
+          + ObjectName.quote(metrics.getName()));
+
+      if(!server.isRegistered(name)) {
+        server.registerMBean(metrics, name);
+        registered.add(name);
+      }
+    }
+    catch(JMException e) {
+      throw new DaoBase.DaoException("Unable to register MBean for " + metrics.getName(), e);
+    }
+  }
+
+  @Override
+  public void close() {
+    for(ObjectName name : registered) {
+      try {
+        server.unregisterMBean(name);
+      }
+      catch(JMException e) {
+        /* Already unregistered. */
+      }
+    }
+
+    registered.clear();
+  }
+}
@@ -0,0 +1,27 @@
+/**
+ *
+ */
+package provided.util;
+
+/**
+ * This publishes {@link OperationMetrics} somewhere outside the application. An exporter is added
+ * with {@link DaoMetrics#addExporter(MetricsExporter)} and is told about every operation, those
+ * that exist already and those created later. Exporters should read the recorders when asked for
+ * values (a JMX attribute read, a scrape) rather than on the hot path.
+ *
+ * @author Promineo
+ *
+ */
+public interface MetricsExporter {
+  /**
+   * Called once for each operation.
+   *
+   * @param metrics The recorder for the operation.
+   */
+  void operationAdded(OperationMetrics metrics);
+
+  /**
+   * Called when the exporter is removed. Releases anything the exporter registered.
+   */
+  default void close() {}
+}
@@ -0,0 +1,310 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This records the latency, row counts, connection acquire time, transaction outcomes and errors
+ * of one DAO operation. Obtain an instance with {@link DaoMetrics#operation(String)}, keep it in a
+ * static final field and call the record methods from the operation:
+ *
+ * <pre>
+ * private static final OperationMetrics DELETE = DaoMetrics.operation("deleteRecipe");
+ *
+ * long start = System.nanoTime();
+ * ...
+ * DELETE.recordRowsWritten(stmt.executeUpdate());
+ * ...
+ * DELETE.recordLatency(start);
+ * </pre>
+ *
+ * Every counter is a {@link LongAdder} or {@link LongAccumulator}, so recording takes no lock and
+ * threads recording at the same time do not contend on a shared field. Reads sum the cells and are
+ * not an atomic snapshot across counters.
+ *
+ * @author Promineo
+ *
+ */
+public final class OperationMetrics implements OperationMetricsMXBean {
+  /**
+   * The key under which errors that carry no SQLState are counted.
+   */
+  public static final String NO_SQL_STATE = "none";
+
+  private static final long[] LATENCY_BUCKET_BOUNDS_MICROS = {100, 250, 500, 1_000, 2_500, 5_000,
+      10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000};
+
+  private final String name;
+  private final LongAdder[] latencyHistogram =
+      new LongAdder[LATENCY_BUCKET_BOUNDS_MICROS.length + 1];
+  private final LongAdder latencyTotalNanos = new LongAdder();
+  private final LongAccumulator latencyMaxNanos = new LongAccumulator(Long::max, 0);
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder rowsRead = new LongAdder();
+  private final LongAdder rowsWritten = new LongAdder();
+  private final LongAdder acquires = new LongAdder();
+  private final LongAdder acquireTotalNanos = new LongAdder();
+  private final LongAdder commits = new LongAdder();
+  private final LongAdder rollbacks = new LongAdder();
+  private final ConcurrentMap<String, LongAdder> errorsBySqlState = new ConcurrentHashMap<>();
+
+  OperationMetrics(String name) {
+    this.name = name;
+
+    for(int index = 0; index < latencyHistogram.length; index++) {
+      latencyHistogram[index] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records one completed call that started at the given {@link System#nanoTime()} value.
+   *
+   * @param startNanos The value of {@link System#nanoTime()} when the call started.
+   */
+  public void recordLatency(long startNanos) {
+    long nanos = System.nanoTime() - startNanos;
+    long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+    int bucket = 0;
+
+    while(bucket < LATENCY_BUCKET_BOUNDS_MICROS.length
+        && micros >= LATENCY_BUCKET_BOUNDS_MICROS[bucket]) {
+      bucket++;
+    }
+
+    latencyHistogram[bucket].increment();
+    latencyTotalNanos.add(nanos);
+    latencyMaxNanos.accumulate(nanos);
+  }
+
+  /**
+   * Records the time taken to acquire a connection.
+   *
+   * @param nanos The acquire time in nanoseconds.
+   */
+  public void recordAcquire(long nanos) {
+    acquires.increment();
+    acquireTotalNanos.add(nanos);
+  }
+
+  /**
+   * @param rows The number of rows read.
+   */
+  public void recordRowsRead(long rows) {
+    rowsRead.add(rows);
+  }
+
+  /**
+   * @param rows The number of rows inserted, updated or deleted.
+   */
+  public void recordRowsWritten(long rows) {
+    rowsWritten.add(rows);
+  }
+
+  /**
+   * Records a committed transaction.
+   */
+  public void recordCommit() {
+    commits.increment();
+  }
+
+  /**
+   * Records a rolled back transaction.
+   */
+  public void recordRollback() {
+    rollbacks.increment();
+  }
+
+  /**
+   * Records a failed call. The error is counted under the SQLState of the first
+   * {@link SQLException} in its cause chain, or under {@link #NO_SQL_STATE}.
+   *
+   * @param error The error.
+   */
+  public void recordError(Throwable error) {
+    errors.increment();
+    errorsBySqlState.computeIfAbsent(sqlStateOf(error), key -> new LongAdder()).increment();
+  }
+
+  /**
+   * Returns the SQLState of the first SQLException in the cause chain.
+   */
+  private static String sqlStateOf(Throwable error) {
+    for(Throwable cause = error; Objects.nonNull(cause); cause = cause.getCause()) {
+      if(cause instanceof SQLException && Objects.nonNull(((SQLException)cause).getSQLState())) {
+        return ((SQLException)cause).getSQLState();
+      }
+    }
+
+    return NO_SQL_STATE;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public long getCalls() {
+    long calls = 0;
+
+    for(LongAdder bucket : latencyHistogram) {
+      calls += bucket.sum();
+    }
+
+    return calls;
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public double getMeanLatencyMicros() {
+    long calls = getCalls();
+    return calls == 0 ? 0 : latencyTotalNanos.sum() / 1000.0 / calls;
+  }
+
+  @Override
+  public long getMaxLatencyMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(latencyMaxNanos.get());
+  }
+
+  @Override
+  public long getP50LatencyMicros() {
+    return percentileMicros(0.50);
+  }
+
+  @Override
+  public long getP95LatencyMicros() {
+    return percentileMicros(0.95);
+  }
+
+  @Override
+  public long getP99LatencyMicros() {
+    return percentileMicros(0.99);
+  }
+
+  /**
+   * Returns the upper bound of the bucket that holds the given fraction of calls. Calls past the
+   * last bound report the highest latency seen.
+   */
+  private long percentileMicros(double fraction) {
+    long[] histogram = getLatencyHistogram();
+    long calls = 0;
+
+    for(long count : histogram) {
+      calls += count;
+    }
+
+    if(calls == 0) {
+      return 0;
+    }
+
+    long rank = (long)Math.ceil(calls * fraction);
+    long seen = 0;
+
+    for(int bucket = 0; bucket < LATENCY_BUCKET_BOUNDS_MICROS.length; bucket++) {
+      seen += histogram[bucket];
+
+      if(seen >= rank) {
+        return LATENCY_BUCKET_BOUNDS_MICROS[bucket];
+      }
+    }
+
+    return getMaxLatencyMicros();
+  }
+
+  @Override
+  public long[] getLatencyBucketBoundsMicros() {
+    return LATENCY_BUCKET_BOUNDS_MICROS.clone();
+  }
+
+  @Override
+  public long[] getLatencyHistogram() {
+    long[] histogram = new long[latencyHistogram.length];
+
+    for(int bucket = 0; bucket < histogram.length; bucket++) {
+      histogram[bucket] = latencyHistogram[bucket].sum();
+    }
+
+    return histogram;
+  }
+
+  @Override
+  public long getRowsRead() {
+    return rowsRead.sum();
+  }
+
+  @Override
+  public long getRowsWritten() {
+    return rowsWritten.sum();
+  }
+
+  @Override
+  public long getConnectionAcquires() {
+    return acquires.sum();
+  }
+
+  @Override
+  public double getMeanAcquireMicros() {
+    long count = acquires.sum();
+    return count == 0 ? 0 : acquireTotalNanos.sum() / 1000.0 / count;
+  }
+
+  @Override
+  public long getCommits() {
+    return commits.sum();
+  }
+
+  @Override
+  public long getRollbacks() {
+    return rollbacks.sum();
+  }
+
+  @Override
+  public Map<String, Long> getErrorsBySqlState() {
+    Map<String, Long> counts = new TreeMap<>();
+    errorsBySqlState.forEach((state, count) -> counts.put(state, count.sum()));
+    return Collections.unmodifiableMap(counts);
+  }
+
+  @Override
+  public void reset() {
+    for(LongAdder bucket : latencyHistogram) {
+      bucket.reset();
+    }
+
+    latencyTotalNanos.reset();
+    latencyMaxNanos.reset();
+    errors.reset();
+    rowsRead.reset();
+    rowsWritten.reset();
+    acquires.reset();
+    acquireTotalNanos.reset();
+    commits.reset();
+    rollbacks.reset();
+    errorsBySqlState.clear();
+  }
+
+  @Override
+  public String toString() {
+    return name + ": calls=" + getCalls() + ", errors=" + getErrors() + ", meanLatencyUs="
+        + String.format("%.1f", getMeanLatencyMicros()) + ", p99LatencyUs="
+        + getP99LatencyMicros() + ", maxLatencyUs=" + getMaxLatencyMicros() + ", rowsRead="
+        + getRowsRead() + ", rowsWritten=" + getRowsWritten() + ", meanAcquireUs="
+        + String.format("%.1f", getMeanAcquireMicros()) + ", commits=" + getCommits()
+        + ", rollbacks=" + getRollbacks() + ", errorsBySqlState=" + getErrorsBySqlState();
+  }
+}
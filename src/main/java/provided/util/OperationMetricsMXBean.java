@@ -0,0 +1,108 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link OperationMetrics}. Every value is read from the recorder when
+ * the attribute is read, so a JMX client always sees current totals since startup or the last
+ * {@link #reset()}.
+ *
+ * @author Promineo
+ *
+ */
+public interface OperationMetricsMXBean {
+  /**
+   * @return The operation name.
+   */
+  String getName();
+
+  /**
+   * @return The number of completed calls, successful or not.
+   */
+  long getCalls();
+
+  /**
+   * @return The number of calls that ended with an error.
+   */
+  long getErrors();
+
+  /**
+   * @return The mean call latency in microseconds, or 0 if there have been no calls.
+   */
+  double getMeanLatencyMicros();
+
+  /**
+   * @return The highest call latency in microseconds.
+   */
+  long getMaxLatencyMicros();
+
+  /**
+   * @return The upper bound of the latency bucket that holds the median call, in microseconds.
+   */
+  long getP50LatencyMicros();
+
+  /**
+   * @return The upper bound of the latency bucket that holds the 95th percentile call.
+   */
+  long getP95LatencyMicros();
+
+  /**
+   * @return The upper bound of the latency bucket that holds the 99th percentile call.
+   */
+  long getP99LatencyMicros();
+
+  /**
+   * @return The upper bound of each latency bucket in microseconds. The histogram has one more
+   *         bucket than there are bounds; the last one counts everything slower.
+   */
+  long[] getLatencyBucketBoundsMicros();
+
+  /**
+   * @return The number of calls in each latency bucket.
+   */
+  long[] getLatencyHistogram();
+
+  /**
+   * @return The number of rows read from result sets.
+   */
+  long getRowsRead();
+
+  /**
+   * @return The number of rows inserted, updated or deleted.
+   */
+  long getRowsWritten();
+
+  /**
+   * @return The number of connections acquired.
+   */
+  long getConnectionAcquires();
+
+  /**
+   * @return The mean time to acquire a connection in microseconds.
+   */
+  double getMeanAcquireMicros();
+
+  /**
+   * @return The number of committed transactions.
+   */
+  long getCommits();
+
+  /**
+   * @return The number of rolled back transactions.
+   */
+  long getRollbacks();
+
+  /**
+   * @return The error count keyed by SQLState. Errors with no SQLState are counted under
+   *         {@link OperationMetrics#NO_SQL_STATE}.
+   */
+  Map<String, Long> getErrorsBySqlState();
+
+  /**
+   * Sets every counter back to zero.
+   */
+  void reset();
+}
@@ -0,0 +1,204 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This collects the timing breakdown of one DAO operation on the calling thread so that the
+ * operation can be written to the {@link SlowQueryLog} if it turns out to be slow. A trace is
+ * only started while the slow query log is enabled.
+ *
+ * <ul>
+ * <li>acquire: time spent obtaining the connection.</li>
+ * <li>execute: time spent in the execute methods of prepared statements, which for a buffered
+ * result includes transferring the rows.</li>
+ * <li>fetch: time spent in {@link java.sql.ResultSet#next()}.</li>
+ * <li>map: time spent in {@link RowMapper#map(java.sql.ResultSet)}.</li>
+ * </ul>
+ *
+ * Whatever wraps the JDBC objects (the connection pool) reports statements, executes and row
+ * fetches through the instance returned by {@link #current()}. Operations may nest; only the
+ * outermost one is logged, and it includes the work of the inner ones.
+ *
+ * @author Promineo
+ *
+ */
+public final class QueryTrace {
+  private static final ThreadLocal<QueryTrace> CURRENT = new ThreadLocal<>();
+  private static final int MAX_STATEMENTS = 32;
+
+  private final String operation;
+  private final long startNanos = System.nanoTime();
+  private int depth = 1;
+  private long acquireNanos;
+  private long executeNanos;
+  private long fetchNanos;
+  private long mapNanos;
+  private long rowsRead;
+  private long rowsWritten;
+  private int droppedStatements;
+  private final List<TracedStatement> statements = new ArrayList<>();
+
+  private QueryTrace(String operation) {
+    this.operation = operation;
+  }
+
+  /**
+   * Starts a trace for the named operation on this thread, or joins the one that is already
+   * running. Does nothing if the slow query log is disabled.
+   *
+   * @param operation The operation name.
+   */
+  static void begin(String operation) {
+    if(!SlowQueryLog.isEnabled()) {
+      return;
+    }
+
+    QueryTrace trace = CURRENT.get();
+
+    if(Objects.isNull(trace)) {
+      CURRENT.set(new QueryTrace(operation));
+    }
+    else {
+      trace.depth++;
+    }
+  }
+
+  /**
+   * Ends the trace started by the matching {@link #begin(String)}. When the outermost operation
+   * ends, the trace is offered to the slow query log.
+   */
+  static void end() {
+    QueryTrace trace = CURRENT.get();
+
+    if(Objects.isNull(trace) || --trace.depth > 0) {
+      return;
+    }
+
+    CURRENT.remove();
+    SlowQueryLog.offer(trace, System.nanoTime() - trace.startNanos);
+  }
+
+  /**
+   * @return The trace running on this thread, or null if there is none.
+   */
+  public static QueryTrace current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Adds connection acquire time to the trace running on this thread, if any.
+   *
+   * @param nanos The acquire time in nanoseconds.
+   */
+  static void recordAcquire(long nanos) {
+    QueryTrace trace = CURRENT.get();
+
+    if(Objects.nonNull(trace)) {
+      trace.acquireNanos += nanos;
+    }
+  }
+
+  /**
+   * Records one statement execution.
+   *
+   * @param sql The SQL text.
+   * @param parameters The bound parameter values, by zero-based index. The array is kept, so
+   *        pass a copy.
+   * @param batchSize The number of batched parameter sets, or 0 if the statement was not batched.
+   *        Only the last set is kept.
+   * @param nanos The time spent executing.
+   * @param rowsWritten The update count.
+   */
+  public void recordExecute(String sql, Object[] parameters, int batchSize, long nanos,
+      long rowsWritten) {
+    executeNanos += nanos;
+    this.rowsWritten += rowsWritten;
+
+    if(statements.size() < MAX_STATEMENTS) {
+      statements.add(new TracedStatement(sql, parameters, batchSize));
+    }
+    else {
+      droppedStatements++;
+    }
+  }
+
+  /**
+   * Records one call to {@link java.sql.ResultSet#next()}.
+   *
+   * @param nanos The time spent in the call.
+   * @param found True if the call moved to a row.
+   */
+  public void recordFetch(long nanos, boolean found) {
+    fetchNanos += nanos;
+
+    if(found) {
+      rowsRead++;
+    }
+  }
+
+  /**
+   * Adds row mapping time.
+   *
+   * @param nanos The time spent mapping a row.
+   */
+  void recordMap(long nanos) {
+    mapNanos += nanos;
+  }
+
+  String getOperation() {
+    return operation;
+  }
+
+  long getAcquireNanos() {
+    return acquireNanos;
+  }
+
+  long getExecuteNanos() {
+    return executeNanos;
+  }
+
+  long getFetchNanos() {
+    return fetchNanos;
+  }
+
+  long getMapNanos() {
+    return mapNanos;
+  }
+
+  long getRowsRead() {
+    return rowsRead;
+  }
+
+  long getRowsWritten() {
+    return rowsWritten;
+  }
+
+  int getDroppedStatements() {
+    return droppedStatements;
+  }
+
+  List<TracedStatement> getStatements() {
+    return Collections.unmodifiableList(statements);
+  }
+
+  /**
+   * One executed statement with the parameters it was last bound to.
+   */
+  static final class TracedStatement {
+    final String sql;
+    final Object[] parameters;
+    final int batchSize;
+
+    private TracedStatement(String sql, Object[] parameters, int batchSize) {
+      this.sql = sql;
+      this.parameters = parameters;
+      this.batchSize = batchSize;
+    }
+  }
+}
@@ -0,0 +1,251 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import provided.util.DaoBase.DaoException;
+
+/**
+ * This maps rows of a result set onto objects of a given class. A mapper is built once for each
+ * combination of class and result set shape (the ordered list of column labels) and then cached.
+ * Building the mapper does all of the work that {@link DaoBase#extract(ResultSet, Class)} used to
+ * do for every row:
+ * <ol>
+ * <li>The zero-argument constructor is resolved to a {@link MethodHandle}.</li>
+ * <li>Each column label is matched to a field by converting the field name to snake case.</li>
+ * <li>A setter {@link MethodHandle} and a typed column reader are bound to each matched column
+ * index.</li>
+ * </ol>
+ *
+ * Mapping a row then reads each matched column by index and calls the setter. Columns with no
+ * matching field are skipped, and fields with no matching column are left unchanged so that
+ * initialized collections are preserved. As before, a null column value leaves the field alone.
+ *
+ * @author Promineo
+ *
+ * @param <T> The type of object the mapper creates.
+ */
+public final class RowMapper<T> {
+  private static final ConcurrentMap<Class<?>, Map<String, Field>> FIELDS_BY_COLUMN =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentMap<Class<?>, ConcurrentMap<String, RowMapper<?>>> MAPPERS =
+      new ConcurrentHashMap<>();
+
+  private final Class<T> classType;
+  private final MethodHandle constructor;
+  private final ColumnBinding[] bindings;
+
+  private RowMapper(Class<T> classType, MethodHandle constructor, ColumnBinding[] bindings) {
+    this.classType = classType;
+    this.constructor = constructor;
+    this.bindings = bindings;
+  }
+
+  /**
+   * Returns the cached mapper for the given class and the shape of the result set, building it
+   * the first time the shape is seen.
+   *
+   * @param <T> The type of object to create.
+   * @param rs The result set. Only its metadata is read.
+   * @param classType The class of the object to create.
+   * @return The mapper.
+   * @throws SQLException Thrown if the result set metadata cannot be read.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> RowMapper<T> forResultSet(ResultSet rs, Class<T> classType)
+      throws SQLException {
+    ResultSetMetaData meta = rs.getMetaData();
+    int columnCount = meta.getColumnCount();
+    String[] labels = new String[columnCount];
+    StringBuilder shape = new StringBuilder();
+
+    for(int col = 1; col <= columnCount; col++) {
+      labels[col - 1] = meta.getColumnLabel(col);
+      shape.append(labels[col - 1]).append(',');
+    }
+
+    ConcurrentMap<String, RowMapper<?>> byShape =
+        MAPPERS.computeIfAbsent(classType, type -> new ConcurrentHashMap<>());
+
+    return (RowMapper<T>)byShape.computeIfAbsent(shape.toString(),
+        key -> build(classType, labels));
+  }
+
+  /**
+   * Creates an object from the current row of the result set.
+   *
+   * @param rs The result set, positioned on the row to map.
+   * @return The populated object.
+   */
+  public T map(ResultSet rs) {
+    QueryTrace trace = QueryTrace.current();
+    long start = Objects.isNull(trace) ? 0 : System.nanoTime();
+
+    try {
+      @SuppressWarnings("unchecked")
+      T obj = (T)constructor.invokeExact();
+
+      for(ColumnBinding binding : bindings) {
+        Object value = binding.reader.read(rs, binding.columnIndex);
+
+        if(Objects.nonNull(value)) {
+          binding.setter.invokeExact(obj, value);
+        }
+      }
+
+      return obj;
+    }
+    catch(Throwable e) {
+      throw new DaoException("Unable to create object of type " + classType.getName(), e);
+    }
+    finally {
+      if(Objects.nonNull(trace)) {
+        trace.recordMap(System.nanoTime() - start);
+      }
+    }
+  }
+
+  /**
+   * Builds a mapper for the given column labels.
+   */
+  private static <T> RowMapper<T> build(Class<T> classType, String[] labels) {
+    try {
+      MethodHandles.Lookup lookup =
+          MethodHandles.privateLookupIn(classType, MethodHandles.lookup());
+
+      MethodHandle constructor = lookup.findConstructor(classType, MethodType.methodType(void.class))
+          .asType(MethodType.methodType(Object.class));
+
+      Map<String, Field> fields = FIELDS_BY_COLUMN.computeIfAbsent(classType, RowMapper::columnFields);
+      List<ColumnBinding> bindings = new ArrayList<>();
+      Set<String> bound = new HashSet<>();
+
+      for(int col = 1; col <= labels.length; col++) {
+        String label = labels[col - 1].toLowerCase(Locale.ROOT);
+        Field field = fields.get(label);
+
+        /* Like ResultSet.getObject(label), the first column with a given label wins. */
+        if(Objects.isNull(field) || !bound.add(label)) {
+          continue;
+        }
+
+        MethodHandle setter = lookup.unreflectSetter(field)
+            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+        bindings.add(new ColumnBinding(col, readerFor(field.getType()), setter));
+      }
+
+      return new RowMapper<>(classType, constructor, bindings.toArray(new ColumnBinding[0]));
+    }
+    catch(ReflectiveOperationException e) {
+      throw new DaoException("Unable to create object of type " + classType.getName(), e);
+    }
+  }
+
+  /**
+   * Returns the settable instance fields of a class keyed by their snake case column name.
+   */
+  private static Map<String, Field> columnFields(Class<?> classType) {
+    Map<String, Field> fields = new HashMap<>();
+
+    for(Field field : classType.getDeclaredFields()) {
+      int modifiers = field.getModifiers();
+
+      if(!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+        fields.put(DaoBase.camelCaseToSnakeCase(field.getName()), field);
+      }
+    }
+
+    return fields;
+  }
+
+  /**
+   * Selects a typed column reader for a field type. The reader returns null for SQL NULL.
+   */
+  private static ColumnReader readerFor(Class<?> fieldType) {
+    if(Integer.class.equals(fieldType)) {
+      return (rs, col) -> {
+        int value = rs.getInt(col);
+        return rs.wasNull() ? null : value;
+      };
+    }
+
+    if(Double.class.equals(fieldType)) {
+      return (rs, col) -> {
+        double value = rs.getDouble(col);
+        return rs.wasNull() ? null : value;
+      };
+    }
+
+    if(String.class.equals(fieldType)) {
+      return ResultSet::getString;
+    }
+
+    if(BigDecimal.class.equals(fieldType)) {
+      return ResultSet::getBigDecimal;
+    }
+
+    if(LocalTime.class.equals(fieldType)) {
+      return (rs, col) -> {
+        Time value = rs.getTime(col);
+        return Objects.isNull(value) ? null : value.toLocalTime();
+      };
+    }
+
+    if(LocalDateTime.class.equals(fieldType)) {
+      return (rs, col) -> {
+        Timestamp value = rs.getTimestamp(col);
+        return Objects.isNull(value) ? null : value.toLocalDateTime();
+      };
+    }
+
+    return ResultSet::getObject;
+  }
+
+  /**
+   * Reads a single column by index.
+   */
+  @FunctionalInterface
+  private interface ColumnReader {
+    Object read(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+  /**
+   * A column index bound to its reader and the setter of the matching field.
+   */
+  private static final class ColumnBinding {
+    private final int columnIndex;
+    private final ColumnReader reader;
+    private final MethodHandle setter;
+
+    private ColumnBinding(int columnIndex, ColumnReader reader, MethodHandle setter) {
+      this.columnIndex = columnIndex;
+      this.reader = reader;
+      this.setter = setter;
+    }
+  }
+}
@@ -0,0 +1,365 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import provided.util.QueryTrace.TracedStatement;
+
+/**
+ * This keeps the most recent DAO operations that took longer than a threshold, with their SQL,
+ * bound parameters, row counts and timing breakdown (see {@link QueryTrace}). The log is a
+ * fixed-size ring buffer: once it is full, each new entry replaces the oldest one. Call
+ * {@link #dump()} to print it.
+ *
+ * Parameters are redacted by default and logged as their type only. When an EXPLAIN source is
+ * configured, the plan of each statement of a slow operation is captured on a background thread
+ * and attached to the entry; if the background thread falls behind, plans are skipped rather
+ * than queued without bound.
+ *
+ * The log is disabled until {@link #configure(long, int, boolean, Supplier)} is called with a
+ * threshold of zero or more.
+ *
+ * @author Promineo
+ *
+ */
+public final class SlowQueryLog {
+  private static final int EXPLAIN_QUEUE_SIZE = 16;
+
+  private static volatile long thresholdNanos = -1;
+  private static volatile boolean redactParameters = true;
+  private static volatile Supplier<Connection> explainSource;
+  private static volatile AtomicReferenceArray<Entry> slots = new AtomicReferenceArray<>(0);
+  private static final AtomicLong nextSlot = new AtomicLong();
+  private static volatile ExecutorService explainExecutor;
+
+  private SlowQueryLog() {}
+
+  /**
+   * Configures the log and clears it.
+   *
+   * @param thresholdMillis Operations that take at least this long are logged. A negative value
+   *        disables the log.
+   * @param capacity The number of entries kept.
+   * @param redactParameters True to log parameter types instead of values.
+   * @param explainSource Where to get a connection to run EXPLAIN on, or null to skip EXPLAIN.
+   */
+  public static synchronized void configure(long thresholdMillis, int capacity,
+      boolean redactParameters, Supplier<Connection> explainSource) {
+    /* The executor is published first, so an offer() that sees the source sees it too. */
+    if(Objects.nonNull(explainSource) && Objects.isNull(explainExecutor)) {
+      explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+          }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    SlowQueryLog.redactParameters = redactParameters;
+    SlowQueryLog.explainSource = explainSource;
+    slots = new AtomicReferenceArray<>(Math.max(capacity, 1));
+    nextSlot.set(0);
+    thresholdNanos = thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+  }
+
+  /**
+   * @return True if operations are being traced.
+   */
+  public static boolean isEnabled() {
+    return thresholdNanos >= 0;
+  }
+
+  /**
+   * Logs the trace if the operation took at least the threshold.
+   *
+   * @param trace The finished trace.
+   * @param totalNanos The duration of the operation.
+   */
+  static void offer(QueryTrace trace, long totalNanos) {
+    long threshold = thresholdNanos;
+
+    if(threshold < 0 || totalNanos < threshold) {
+      return;
+    }
+
+    Entry entry = new Entry(trace, totalNanos, redactParameters);
+    AtomicReferenceArray<Entry> ring = slots;
+
+    ring.set((int)(nextSlot.getAndIncrement() % ring.length()), entry);
+
+    Supplier<Connection> source = explainSource;
+    ExecutorService executor = explainExecutor;
+
+    if(Objects.nonNull(source) && Objects.nonNull(executor)) {
+      List<TracedStatement> statements = trace.getStatements();
+      executor.execute(() -> entry.explain = explain(source, statements));
+    }
+  }
+
+  /**
+   * @return The logged entries, oldest first.
+   */
+  public static List<Entry> entries() {
+    AtomicReferenceArray<Entry> ring = slots;
+    long next = nextSlot.get();
+    List<Entry> entries = new ArrayList<>(ring.length());
+
+    for(long slot = Math.max(0, next - ring.length()); slot < next; slot++) {
+      Entry entry = ring.get((int)(slot % ring.length()));
+
+      if(Objects.nonNull(entry)) {
+        entries.add(entry);
+      }
+    }
+
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * @return Every logged entry, oldest first, separated by blank lines.
+   */
+  public static String dump() {
+    StringBuilder dump = new StringBuilder();
+
+    for(Entry entry : entries()) {
+      dump.append(entry).append('\n');
+    }
+
+    return dump.toString();
+  }
+
+  /**
+   * Removes every entry.
+   */
+  public static synchronized void clear() {
+    slots = new AtomicReferenceArray<>(slots.length());
+    nextSlot.set(0);
+  }
+
+  /**
+   * Runs EXPLAIN for each statement and returns the plans as text. A multi-statement SQL string
+   * is explained one statement at a time.
+   */
+  private static String explain(Supplier<Connection> source, List<TracedStatement> statements) {
+    StringBuilder plans = new StringBuilder();
+
+    try(Connection conn = source.get()) {
+      for(TracedStatement statement : statements) {
+        int parameter = 0;
+
+        for(String sql : statement.sql.split(";")) {
+          int count = (int)sql.chars().filter(ch -> ch == '?').count();
+
+          if(!sql.isBlank()) {
+            explain(conn, sql.trim(), statement.parameters, parameter, count, plans);
+          }
+
+          parameter += count;
+        }
+      }
+    }
+    catch(SQLException | RuntimeException e) {
+      plans.append("EXPLAIN failed: ").append(e).append('\n');
+    }
+
+    return plans.toString();
+  }
+
+  /**
+   * Appends the plan of one statement, binding count parameters starting at the given index.
+   */
+  private static void explain(Connection conn, String sql, Object[] parameters, int first,
+      int count, StringBuilder plans) throws SQLException {
+    plans.append("EXPLAIN ").append(sql).append('\n');
+
+    try(PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+      for(int index = 0; index < count; index++) {
+        int position = first + index;
+        stmt.setObject(index + 1, position < parameters.length ? parameters[position] : null);
+      }
+
+      try(ResultSet rs = stmt.executeQuery()) {
+        ResultSetMetaData meta = rs.getMetaData();
+
+        while(rs.next()) {
+          plans.append("   ");
+
+          for(int column = 1; column <= meta.getColumnCount(); column++) {
+            plans.append(' ').append(meta.getColumnLabel(column)).append('=')
+                .append(rs.getString(column));
+          }
+
+          plans.append('\n');
+        }
+      }
+    }
+  }
+
+  /**
+   * One slow operation.
+   */
+  public static final class Entry {
+    private final Instant time = Instant.now();
+    private final String operation;
+    private final long totalNanos;
+    private final long acquireNanos;
+    private final long executeNanos;
+    private final long fetchNanos;
+    private final long mapNanos;
+    private final long rowsRead;
+    private final long rowsWritten;
+    private final List<String> statements;
+    private volatile String explain;
+
+    private Entry(QueryTrace trace, long totalNanos, boolean redact) {
+      this.operation = trace.getOperation();
+      this.totalNanos = totalNanos;
+      this.acquireNanos = trace.getAcquireNanos();
+      this.executeNanos = trace.getExecuteNanos();
+      this.fetchNanos = trace.getFetchNanos();
+      this.mapNanos = trace.getMapNanos();
+      this.rowsRead = trace.getRowsRead();
+      this.rowsWritten = trace.getRowsWritten();
+
+      List<String> lines = new ArrayList<>();
+
+      for(TracedStatement statement : trace.getStatements()) {
+        lines.add(describe(statement, redact));
+      }
+
+      if(trace.getDroppedStatements() > 0) {
+        lines.add("... " + trace.getDroppedStatements() + " more statements");
+      }
+
+      this.statements = Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Formats a statement with its parameters, or their types if redacted.
+     */
+    private static String describe(TracedStatement statement, boolean redact) {
+      StringBuilder line = new StringBuilder(statement.sql).append(" [");
+
+      for(int index = 0; index < statement.parameters.length; index++) {
+        Object value = statement.parameters[index];
+
+        if(index > 0) {
+          line.append(", ");
+        }
+
+        if(Objects.isNull(value)) {
+          line.append("null");
+        }
+        else if(redact) {
+          line.append('<').append(value.getClass().getSimpleName()).append('>');
+        }
+        else {
+          line.append(value);
+        }
+      }
+
+      line.append(']');
+
+      if(statement.batchSize > 0) {
+        line.append(" x").append(statement.batchSize).append(" batched");
+      }
+
+      return line.toString();
+    }
+
+    public Instant getTime() {
+      return time;
+    }
+
+    public String getOperation() {
+      return operation;
+    }
+
+    public long getTotalMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(totalNanos);
+    }
+
+    public long getAcquireMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(acquireNanos);
+    }
+
+    public long getExecuteMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(executeNanos);
+    }
+
+    public long getFetchMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(fetchNanos);
+    }
+
+    public long getMapMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(mapNanos);
+    }
+
+    public long getRowsRead() {
+      return rowsRead;
+    }
+
+    public long getRowsWritten() {
+      return rowsWritten;
+    }
+
+    public List<String> getStatements() {
+      return statements;
+    }
+
+    /**
+     * @return The EXPLAIN output, or null if it was not captured or is not ready yet.
+     */
+    public String getExplain() {
+      return explain;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder text = new StringBuilder();
+
+      text.append(time).append(' ').append(operation).append(' ')
+          .append(millis(totalNanos)).append(" ms (acquire ").append(millis(acquireNanos))
+          .append(", execute ").append(millis(executeNanos)).append(", fetch ")
+          .append(millis(fetchNanos)).append(", map ").append(millis(mapNanos))
+          .append(") rowsRead=").append(rowsRead).append(" rowsWritten=").append(rowsWritten)
+          .append('\n');
+
+      for(String statement : statements) {
+        text.append("  ").append(statement).append('\n');
+      }
+
+      String plan = explain;
+
+      if(Objects.nonNull(plan)) {
+        for(String line : plan.split("\n")) {
+          text.append("  ").append(line).append('\n');
+        }
+      }
+
+      return text.toString();
+    }
+
+    private static String millis(long nanos) {
+      return String.format("%.3f", nanos / 1_000_000.0);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/**
+ *
+ */
+package provided.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is the central registry of named SQL statements. A DAO registers each fixed statement once,
+ * usually in a static final field, and prepares it by the returned SQL text:
+ *
+ * <pre>
+ * private static final String DELETE_RECIPE_SQL =
+ *     SqlRegistry.register("deleteRecipe", "DELETE FROM recipe WHERE recipe_id = ?");
+ * </pre>
+ *
+ * The registry does no caching itself. Whatever caches prepared statements (the connection pool)
+ * reports each prepare through {@link #recordPrepare(String, boolean)}, and the registry keeps
+ * the prepare and cache hit counts per statement name. SQL that was never registered is counted
+ * under {@link #UNREGISTERED}.
+ *
+ * @author Promineo
+ *
+ */
+public final class SqlRegistry {
+  /**
+   * The name under which prepares of unregistered SQL are counted.
+   */
+  public static final String UNREGISTERED = "<unregistered>";
+
+  private static final ConcurrentMap<String, Entry> BY_NAME = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, Entry> BY_SQL = new ConcurrentHashMap<>();
+  private static final Entry UNREGISTERED_ENTRY = new Entry(UNREGISTERED, null);
+
+  private SqlRegistry() {}
+
+  /**
+   * Registers a named SQL statement.
+   *
+   * @param name The statement name. It must be unique unless the SQL is identical.
+   * @param sql The SQL text.
+   * @return The SQL text, so the call can initialize a constant.
+   */
+  public static String register(String name, String sql) {
+    Entry entry = BY_NAME.computeIfAbsent(name, key -> new Entry(name, sql));
+
+    if(!entry.sql.equals(sql)) {
+      throw new IllegalArgumentException("SQL statement " + name + " is already registered.");
+    }
+
+    BY_SQL.putIfAbsent(sql, entry);
+    return sql;
+  }
+
+  /**
+   * Returns the SQL text registered under the given name.
+   *
+   * @param name The statement name.
+   * @return The SQL text.
+   */
+  public static String sql(String name) {
+    Entry entry = BY_NAME.get(name);
+
+    if(Objects.isNull(entry)) {
+      throw new IllegalArgumentException("No SQL statement named " + name + " is registered.");
+    }
+
+    return entry.sql;
+  }
+
+  /**
+   * Records one prepare of the given SQL.
+   *
+   * @param sql The SQL text that was prepared.
+   * @param cacheHit True if an already-prepared statement was reused.
+   */
+  public static void recordPrepare(String sql, boolean cacheHit) {
+    Entry entry = BY_SQL.getOrDefault(sql, UNREGISTERED_ENTRY);
+
+    entry.prepares.increment();
+
+    if(cacheHit) {
+      entry.hits.increment();
+    }
+  }
+
+  /**
+   * Returns the statement cache hit rate for each registered name, plus {@link #UNREGISTERED}.
+   * The rate is hits divided by prepares, or 0 if the statement has not been prepared.
+   *
+   * @return The hit rate keyed by statement name.
+   */
+  public static Map<String, Double> getHitRates() {
+    Map<String, Double> rates = new LinkedHashMap<>();
+
+    for(Entry entry : BY_NAME.values()) {
+      rates.put(entry.name, entry.hitRate());
+    }
+
+    rates.put(UNREGISTERED, UNREGISTERED_ENTRY.hitRate());
+    return Collections.unmodifiableMap(rates);
+  }
+
+  /**
+   * Returns a line per statement with its prepare count, hit count and hit rate.
+   *
+   * @return The report.
+   */
+  public static String report() {
+    StringBuilder report = new StringBuilder();
+
+    for(Entry entry : BY_NAME.values()) {
+      entry.appendTo(report);
+    }
+
+    UNREGISTERED_ENTRY.appendTo(report);
+    return report.toString();
+  }
+
+  /**
+   * The counters for one named statement.
+   */
+  private static final class Entry {
+    private final String name;
+    private final String sql;
+    private final LongAdder prepares = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    private Entry(String name, String sql) {
+      this.name = name;
+      this.sql = sql;
+    }
+
+    private double hitRate() {
+      long total = prepares.sum();
+      return total == 0 ? 0 : (double)hits.sum() / total;
+    }
+
+    private void appendTo(StringBuilder report) {
+      report.append(name).append(": prepares=").append(prepares.sum()).append(", hits=")
+          .append(hits.sum()).append(", hitRate=").append(String.format("%.3f", hitRate()))
+          .append('\n');
+    }
+  }
+}
@@ -1,3 +1,4 @@
+DROP TABLE IF EXISTS project_summary;
 DROP TABLE IF EXISTS project_category;
 DROP TABLE IF EXISTS category;
 DROP TABLE IF EXISTS step;
@@ -11,7 +12,10 @@ CREATE TABLE project (
 	actual_hours DECIMAL(7, 2),
 	difficulty INT, 
 	notes TEXT, 
-	PRIMARY KEY (project_id)
+	version INT NOT NULL DEFAULT 0,
+	PRIMARY KEY (project_id),
+	KEY project_name_id (project_name, project_id),
+	FULLTEXT KEY project_text (project_name, notes)
 );
 
 CREATE TABLE material (
@@ -30,13 +34,15 @@ CREATE TABLE step (
 	step_text TEXT NOT NULL,
 	step_order INT NOT NULL,
 	PRIMARY KEY (step_id),
+	FULLTEXT KEY step_text (step_text),
 	FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
 );
 
 CREATE TABLE category (
 	category_id INT AUTO_INCREMENT NOT NULL,
 	category_name VARCHAR(128) NOT NULL,
-	PRIMARY KEY (category_id)
+	PRIMARY KEY (category_id),
+	UNIQUE KEY category_name (category_name)
 );
 
 CREATE TABLE project_category (
@@ -47,6 +53,69 @@ CREATE TABLE project_category (
 	UNIQUE KEY (project_id, category_id)
 );
 
+-- Per-project rollups, kept up to date by the triggers below. Trigger bodies are single
+-- statements so the script can be run one statement at a time.
+CREATE TABLE project_summary (
+	project_id INT NOT NULL,
+	material_cost DECIMAL(12, 2) NOT NULL DEFAULT 0,
+	material_count INT NOT NULL DEFAULT 0,
+	step_count INT NOT NULL DEFAULT 0,
+	category_count INT NOT NULL DEFAULT 0,
+	hours_variance DECIMAL(8, 2),
+	PRIMARY KEY (project_id),
+	KEY material_cost_id (material_cost, project_id),
+	KEY hours_variance_id (hours_variance, project_id),
+	FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
+);
+
+CREATE TRIGGER project_summary_project_insert AFTER INSERT ON project FOR EACH ROW
+	INSERT INTO project_summary (project_id, hours_variance)
+	VALUES (NEW.project_id, NEW.actual_hours - NEW.estimated_hours);
+
+CREATE TRIGGER project_summary_project_update AFTER UPDATE ON project FOR EACH ROW
+	UPDATE project_summary SET hours_variance = NEW.actual_hours - NEW.estimated_hours
+	WHERE project_id = NEW.project_id;
+
+CREATE TRIGGER project_summary_material_insert AFTER INSERT ON material FOR EACH ROW
+	UPDATE project_summary
+	SET material_cost = material_cost + COALESCE(NEW.cost * NEW.num_required, 0),
+		material_count = material_count + 1
+	WHERE project_id = NEW.project_id;
+
+CREATE TRIGGER project_summary_material_update AFTER UPDATE ON material FOR EACH ROW
+	UPDATE project_summary
+	SET material_cost = material_cost
+			- IF(project_id = OLD.project_id, COALESCE(OLD.cost * OLD.num_required, 0), 0)
+			+ IF(project_id = NEW.project_id, COALESCE(NEW.cost * NEW.num_required, 0), 0),
+		material_count = material_count - (project_id = OLD.project_id)
+			+ (project_id = NEW.project_id)
+	WHERE project_id IN (OLD.project_id, NEW.project_id);
+
+CREATE TRIGGER project_summary_material_delete AFTER DELETE ON material FOR EACH ROW
+	UPDATE project_summary
+	SET material_cost = material_cost - COALESCE(OLD.cost * OLD.num_required, 0),
+		material_count = material_count - 1
+	WHERE project_id = OLD.project_id;
+
+CREATE TRIGGER project_summary_step_insert AFTER INSERT ON step FOR EACH ROW
+	UPDATE project_summary SET step_count = step_count + 1 WHERE project_id = NEW.project_id;
+
+CREATE TRIGGER project_summary_step_update AFTER UPDATE ON step FOR EACH ROW
+	UPDATE project_summary
+	SET step_count = step_count - (project_id = OLD.project_id) + (project_id = NEW.project_id)
+	WHERE project_id IN (OLD.project_id, NEW.project_id) AND OLD.project_id <> NEW.project_id;
+
+CREATE TRIGGER project_summary_step_delete AFTER DELETE ON step FOR EACH ROW
+	UPDATE project_summary SET step_count = step_count - 1 WHERE project_id = OLD.project_id;
+
+CREATE TRIGGER project_summary_category_insert AFTER INSERT ON project_category FOR EACH ROW
+	UPDATE project_summary SET category_count = category_count + 1
+	WHERE project_id = NEW.project_id;
+
+CREATE TRIGGER project_summary_category_delete AFTER DELETE ON project_category FOR EACH ROW
+	UPDATE project_summary SET category_count = category_count - 1
+	WHERE project_id = OLD.project_id;
+
 -- Add some data
 INSERT INTO project (project_name, estimated_hours, actual_hours, difficulty, notes) 
 	VALUES ('Paint bedroom walls', 8, 6, 2, 'Buy blue paint and paint brushes');
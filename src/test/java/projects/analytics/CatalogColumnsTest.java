@@ -0,0 +1,179 @@
+package projects.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * CatalogColumnsTest class
+ *  - Checks the group sums on a small catalog with hand-worked totals, and on a catalog large
+ *    enough to be split across fork-join tasks against a sequential reference.
+ */
+
+class CatalogColumnsTest {
+
+	private static final int UNKNOWN = CatalogColumns.UNKNOWN_DIFFICULTY;
+
+	/*
+	 * Project 10: difficulty 1, 2.00 estimated, 3.50 actual, Nails 4 x 0.25 + Wood 2 x 10.00
+	 * Project 20: difficulty 3, no hours, Wood 1 x 10.00 + Paint 0 x 5.00
+	 * Project 30: no difficulty, 5.00 estimated, 4.00 actual, Nails 10 x 0.25
+	 * Project 40: difficulty 1, no materials
+	 */
+	private static CatalogColumns smallCatalog() {
+		return new CatalogColumns.Builder()
+				.addProject(10, "Shed", 1, 200, 350)
+				.addMaterial(10, "Nails", 4, 25)
+				.addMaterial(10, "Wood", 2, 1000)
+				.addProject(20, "Desk", 3, CatalogColumns.NO_HOURS, CatalogColumns.NO_HOURS)
+				.addMaterial(20, "Wood", 1, 1000)
+				.addMaterial(20, "Paint", 0, 500)
+				.addProject(30, "Shed", null, 500, 400)
+				.addMaterial(30, "Nails", 10, 25)
+				.addProject(40, "Rack", 1, 100, CatalogColumns.NO_HOURS)
+				.build();
+	}
+
+	@Test
+	void groupSumsByDifficulty() {
+		CatalogColumns columns = smallCatalog();
+		long[] cost = columns.materialCostCentsByDifficulty();
+		long[] count = columns.projectCountByDifficulty();
+		long[] overrun = columns.hoursOverrunByDifficulty();
+
+		assertEquals(CatalogColumns.DIFFICULTY_BUCKETS, cost.length);
+		assertEquals(2100, cost[1]);
+		assertEquals(1000, cost[3]);
+		assertEquals(250, cost[UNKNOWN]);
+		assertEquals(3350, Arrays.stream(cost).sum());
+
+		assertEquals(2, count[1]);
+		assertEquals(1, count[3]);
+		assertEquals(1, count[UNKNOWN]);
+		assertEquals(4, Arrays.stream(count).sum());
+
+		assertEquals(150, overrun[1]);
+		assertEquals(0, overrun[3]);
+		assertEquals(-100, overrun[UNKNOWN]);
+	}
+
+	@Test
+	void totalCostByDifficultyListsUnknownLast() {
+		Map<Integer, BigDecimal> expected = new LinkedHashMap<>();
+
+		expected.put(1, new BigDecimal("21.00"));
+		expected.put(3, new BigDecimal("10.00"));
+		expected.put(null, new BigDecimal("2.50"));
+
+		assertEquals(expected, smallCatalog().totalCostByDifficulty());
+	}
+
+	@Test
+	void totalCostCentsSkipsUnknownDifficulty() {
+		CatalogColumns columns = smallCatalog();
+
+		assertEquals(3100, columns.totalCostCents(0, CatalogColumns.MAX_DIFFICULTY));
+		assertEquals(2100, columns.totalCostCents(1, 1));
+		assertEquals(0, columns.totalCostCents(4, 9));
+	}
+
+	@Test
+	void materialCostByProjectIsIndexedByRow() {
+		CatalogColumns columns = smallCatalog();
+
+		assertArrayEquals(new long[] { 2100, 1000, 250, 0 }, columns.materialCostCentsByProject());
+		assertEquals(30, columns.getProjectId(2));
+		assertEquals("Shed", columns.getProjectName(2));
+	}
+
+	@Test
+	void topMaterialsByCost() {
+		List<Map.Entry<String, BigDecimal>> top = smallCatalog().topMaterialsByCost(2);
+
+		assertEquals(List.of(Map.entry("Wood", new BigDecimal("30.00")),
+				Map.entry("Nails", new BigDecimal("3.50"))), top);
+		assertEquals(3, smallCatalog().topMaterialsByCost(10).size());
+	}
+
+	@Test
+	void emptyCatalogSumsToZero() {
+		CatalogColumns columns = new CatalogColumns.Builder().build();
+
+		assertEquals(0, Arrays.stream(columns.materialCostCentsByDifficulty()).sum());
+		assertEquals(0, columns.materialCostCentsByProject().length);
+		assertEquals(0, columns.totalCostCents(0, 10));
+		assertEquals(Map.of(), columns.totalCostByDifficulty());
+		assertEquals(List.of(), columns.topMaterialsByCost(5));
+	}
+
+	/*
+	 * Enough materials to split into many ranges, with a few projects that hold tens of
+	 * thousands of materials so range boundaries land inside them.
+	 */
+	@Test
+	void parallelSumsMatchSequentialReference() {
+		Random random = new Random(42);
+		CatalogColumns.Builder builder = new CatalogColumns.Builder();
+		int projects = 2_000;
+		long[] costByProject = new long[projects];
+		long[] costByDifficulty = new long[CatalogColumns.DIFFICULTY_BUCKETS];
+		long[] countByDifficulty = new long[CatalogColumns.DIFFICULTY_BUCKETS];
+		List<String> materialNames = new ArrayList<>();
+
+		for (int name = 0; name < 50; name++) {
+			materialNames.add("Material " + name);
+		}
+
+		for (int row = 0; row < projects; row++) {
+			Integer difficulty = random.nextInt(10) == 0 ? null : random.nextInt(6);
+			int bucket = Objects.isNull(difficulty) ? UNKNOWN : difficulty;
+			int materials = row % 500 == 7 ? 20_000 + random.nextInt(20_000) : random.nextInt(40);
+
+			builder.addProject(row * 3 + 1, "Project " + row, difficulty, 100, 200);
+			countByDifficulty[bucket]++;
+
+			for (int material = 0; material < materials; material++) {
+				int required = random.nextInt(5);
+				long cents = random.nextInt(100_000);
+
+				builder.addMaterial(row * 3 + 1,
+						materialNames.get(random.nextInt(materialNames.size())), required, cents);
+				costByProject[row] += required * cents;
+				costByDifficulty[bucket] += required * cents;
+			}
+		}
+
+		CatalogColumns columns = builder.build();
+
+		assertArrayEquals(costByProject, columns.materialCostCentsByProject());
+		assertArrayEquals(costByDifficulty, columns.materialCostCentsByDifficulty());
+		assertArrayEquals(countByDifficulty, columns.projectCountByDifficulty());
+		assertEquals(Arrays.stream(costByDifficulty).sum() - costByDifficulty[UNKNOWN],
+				columns.totalCostCents(0, CatalogColumns.MAX_DIFFICULTY));
+	}
+
+	@Test
+	void builderRejectsOutOfOrderRows() {
+		CatalogColumns.Builder builder = new CatalogColumns.Builder()
+				.addProject(1, "A", null, 0, 0)
+				.addProject(2, "B", null, 0, 0)
+				.addMaterial(2, "Nails", 1, 1);
+
+		assertThrows(IllegalArgumentException.class, () -> builder.addProject(2, "C", null, 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> builder.addMaterial(1, "Wood", 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> builder.addMaterial(5, "Wood", 1, 1));
+		assertThrows(IllegalArgumentException.class,
+				() -> builder.addProject(3, "D", CatalogColumns.MAX_DIFFICULTY + 1, 0, 0));
+	}
+}
@@ -0,0 +1,144 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import projects.entity.Category;
+import projects.entity.Project;
+
+/*
+ * ProjectFilterTest class
+ *  - Checks that test() selects the same projects as the WHERE clause deleteProjectsWhere()
+ *    builds from the filter, so cached copies of deleted projects are dropped.
+ */
+
+class ProjectFilterTest {
+
+	@Test
+	void emptyFilterMatchesEverything() {
+		ProjectFilter filter = new ProjectFilter();
+
+		assertTrue(filter.test(new Project()));
+		assertTrue(filter.test(project("Deck", 3, "2.00", "Outdoor")));
+	}
+
+	@Test
+	void nameLikeWildcardsIgnoreCase() {
+		ProjectFilter filter = nameLike("b%_shed");
+
+		assertTrue(filter.test(project("Big shed", null, null)));
+		assertTrue(filter.test(project("BIG SHED", null, null)));
+		assertTrue(filter.test(project("B\nshed", null, null)));
+		assertFalse(filter.test(project("Bshed", null, null)));
+		assertFalse(filter.test(project("Big shed 2", null, null)));
+		assertFalse(filter.test(project(null, null, null)));
+	}
+
+	@Test
+	void nameLikeQuotesRegexCharacters() {
+		ProjectFilter filter = nameLike("a.b (c)*");
+
+		assertTrue(filter.test(project("A.B (C)*", null, null)));
+		assertFalse(filter.test(project("axb (c)", null, null)));
+	}
+
+	@Test
+	void nameLikeBackslashEscapesWildcards() {
+		ProjectFilter filter = nameLike("100\\%_off\\_");
+
+		assertTrue(filter.test(project("100%xoff_", null, null)));
+		assertFalse(filter.test(project("1000xoff_", null, null)));
+		assertFalse(filter.test(project("100%xoffx", null, null)));
+		assertTrue(nameLike("a\\\\b").test(project("a\\b", null, null)));
+		assertTrue(nameLike("end\\").test(project("end\\", null, null)));
+	}
+
+	@Test
+	void nameLikeChangesAreSeen() {
+		ProjectFilter filter = nameLike("a%");
+
+		assertTrue(filter.test(project("apple", null, null)));
+		filter.setNameLike("b%");
+		assertFalse(filter.test(project("apple", null, null)));
+	}
+
+	@Test
+	void difficultyRangeIsInclusiveAndSkipsNull() {
+		ProjectFilter filter = new ProjectFilter();
+
+		filter.setMinDifficulty(2);
+		filter.setMaxDifficulty(4);
+
+		assertFalse(filter.test(project("A", 1, null)));
+		assertTrue(filter.test(project("A", 2, null)));
+		assertTrue(filter.test(project("A", 4, null)));
+		assertFalse(filter.test(project("A", 5, null)));
+		assertFalse(filter.test(project("A", null, null)));
+	}
+
+	@Test
+	void maxActualHoursComparesByValue() {
+		ProjectFilter filter = new ProjectFilter();
+
+		filter.setMaxActualHours(new BigDecimal("2.5"));
+
+		assertTrue(filter.test(project("A", null, "2.50")));
+		assertTrue(filter.test(project("A", null, "0")));
+		assertFalse(filter.test(project("A", null, "2.51")));
+		assertFalse(filter.test(project("A", null, null)));
+	}
+
+	@Test
+	void categoryNameMatchesAnyCategoryIgnoringCase() {
+		ProjectFilter filter = new ProjectFilter();
+
+		filter.setCategoryName("outdoor");
+
+		assertTrue(filter.test(project("A", null, null, "Garage", "Outdoor")));
+		assertFalse(filter.test(project("A", null, null, "Garage")));
+		assertFalse(filter.test(project("A", null, null)));
+	}
+
+	@Test
+	void everyCriterionMustMatch() {
+		ProjectFilter filter = nameLike("deck%");
+
+		filter.setMaxDifficulty(3);
+		filter.setCategoryName("Outdoor");
+
+		assertTrue(filter.test(project("Deck rails", 2, null, "Outdoor")));
+		assertFalse(filter.test(project("Deck rails", 4, null, "Outdoor")));
+		assertFalse(filter.test(project("Deck rails", 2, null, "Indoor")));
+		assertFalse(filter.test(project("Fence", 2, null, "Outdoor")));
+	}
+
+	private static ProjectFilter nameLike(String pattern) {
+		ProjectFilter filter = new ProjectFilter();
+
+		filter.setNameLike(pattern);
+		return filter;
+	}
+
+	private static Project project(String projectName, Integer difficulty, String actualHours,
+			String... categoryNames) {
+		Project project = new Project();
+
+		project.setProjectName(projectName);
+		project.setDifficulty(difficulty);
+		project.setActualHours(Objects.isNull(actualHours) ? null : new BigDecimal(actualHours));
+
+		for (String categoryName : categoryNames) {
+			Category category = new Category();
+
+			category.setCategoryName(categoryName);
+			project.getCategories().add(category);
+		}
+
+		return project;
+	}
+}
@@ -0,0 +1,99 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * QueryCancellerTest class
+ *  - Checks that a canceller is bound only while its call runs, that cancel() reaches the
+ *    statement being executed, and that nothing executes after a cancel.
+ */
+
+class QueryCancellerTest {
+
+	@Test
+	void boundOnlyDuringCall() throws Exception {
+		QueryCanceller canceller = new QueryCanceller();
+
+		assertNull(QueryCanceller.current());
+		assertSame(canceller, canceller.call(QueryCanceller::current));
+		assertNull(QueryCanceller.current());
+	}
+
+	@Test
+	void nestedCallRestoresOuterCanceller() throws Exception {
+		QueryCanceller outer = new QueryCanceller();
+		QueryCanceller inner = new QueryCanceller();
+
+		QueryCanceller seen = outer.call(() -> {
+			inner.call(QueryCanceller::current);
+			return QueryCanceller.current();
+		});
+
+		assertSame(outer, seen);
+	}
+
+	@Test
+	void cancelReachesRunningStatement() throws SQLException {
+		AtomicInteger cancels = new AtomicInteger();
+		Statement stmt = statement(cancels);
+		QueryCanceller canceller = new QueryCanceller();
+
+		canceller.starting(stmt);
+		canceller.cancel();
+		canceller.finished();
+		canceller.cancel();
+
+		assertEquals(1, cancels.get());
+		assertTrue(canceller.isCancelled());
+	}
+
+	@Test
+	void finishedStatementIsNotCancelled() throws SQLException {
+		AtomicInteger cancels = new AtomicInteger();
+		QueryCanceller canceller = new QueryCanceller();
+
+		canceller.starting(statement(cancels));
+		canceller.finished();
+		canceller.cancel();
+
+		assertEquals(0, cancels.get());
+	}
+
+	@Test
+	void nothingStartsAfterCancel() {
+		AtomicInteger cancels = new AtomicInteger();
+		QueryCanceller canceller = new QueryCanceller();
+
+		assertFalse(canceller.isCancelled());
+		canceller.cancel();
+
+		SQLException e = assertThrows(SQLException.class,
+				() -> canceller.starting(statement(cancels)));
+
+		assertEquals("70100", e.getSQLState());
+		assertEquals(0, cancels.get());
+	}
+
+	private static Statement statement(AtomicInteger cancels) {
+		return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+				new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+					if (method.getName().equals("cancel")) {
+						cancels.incrementAndGet();
+					}
+
+					return null;
+				});
+	}
+}
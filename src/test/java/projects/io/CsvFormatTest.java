@@ -0,0 +1,206 @@
+package projects.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/*
+ * CsvFormatTest class
+ *  - Round trips project graphs through CsvFormat and reads hand-written records to cover
+ *    quoting, multi-line fields and the empty versus null distinction.
+ */
+
+class CsvFormatTest {
+
+	@Test
+	void roundTripKeepsEveryField() throws IOException {
+		Project project = project(7, "Paint, \"blue\" walls");
+
+		project.setEstimatedHours(new BigDecimal("8.50"));
+		project.setActualHours(new BigDecimal("6.25"));
+		project.setDifficulty(2);
+		project.setNotes("First line\r\nSecond line\nThird, \"quoted\"");
+		project.getMaterials().add(material("Paint", 3, "75.00"));
+		project.getSteps().add(step("Cover the floor", 1));
+		project.getCategories().add(category("Walls and Ceiling"));
+
+		List<Project> read = roundTrip(project, project(8, "Second"));
+
+		assertEquals(2, read.size());
+		assertProjectEquals(project, read.get(0));
+		assertEquals("Second", read.get(1).getProjectName());
+		assertTrue(read.get(1).getMaterials().isEmpty());
+	}
+
+	@Test
+	void emptyStringsAndNullsSurviveRoundTrip() throws IOException {
+		Project project = project(1, "");
+
+		project.setNotes(null);
+		project.getSteps().add(step("", 1));
+		project.getMaterials().add(material(null, null, null));
+
+		Project read = roundTrip(project).get(0);
+
+		assertEquals("", read.getProjectName());
+		assertNull(read.getNotes());
+		assertNull(read.getEstimatedHours());
+		assertNull(read.getDifficulty());
+		assertEquals("", read.getSteps().get(0).getStepText());
+		assertNull(read.getMaterials().get(0).getMaterialName());
+		assertNull(read.getMaterials().get(0).getNumRequired());
+		assertNull(read.getMaterials().get(0).getCost());
+	}
+
+	@Test
+	void quotedFieldMaySpanLines() throws IOException {
+		String csv = "project,1,Deck,,,,\"one\r\ntwo\nthree\"\r\n"
+				+ "step,1,1,\"say \"\"hi\"\"\"\r\n";
+
+		Project project = read(csv).get(0);
+
+		assertEquals("one\r\ntwo\nthree", project.getNotes());
+		assertEquals("say \"hi\"", project.getSteps().get(0).getStepText());
+	}
+
+	@Test
+	void emptyUnquotedFieldIsNullAndQuotedIsEmpty() throws IOException {
+		Project project = read("project,1,\"\",,,,\n").get(0);
+
+		assertEquals("", project.getProjectName());
+		assertNull(project.getNotes());
+	}
+
+	@Test
+	void blankLinesAreSkipped() throws IOException {
+		List<Project> projects = read("\r\nproject,1,A,,,,\r\n\r\nproject,2,B,,,,\r\n\r\n");
+
+		assertEquals(2, projects.size());
+		assertEquals("B", projects.get(1).getProjectName());
+	}
+
+	@Test
+	void childOfAnotherProjectIsRejected() {
+		IOException e = assertThrows(IOException.class,
+				() -> read("project,1,A,,,,\nmaterial,2,Nails,1,1.00\n"));
+
+		assertTrue(e.getMessage().contains("belongs to project 2"), e.getMessage());
+	}
+
+	@Test
+	void unterminatedQuoteIsRejected() {
+		assertThrows(IOException.class, () -> read("project,1,\"A,,,,\n"));
+	}
+
+	@Test
+	void nonNumericFieldIsRejected() {
+		assertThrows(IOException.class, () -> read("project,1,A,lots,,,\n"));
+	}
+
+	static void assertProjectEquals(Project expected, Project actual) {
+		assertEquals(expected.getProjectId(), actual.getProjectId());
+		assertEquals(expected.getProjectName(), actual.getProjectName());
+		assertEquals(expected.getEstimatedHours(), actual.getEstimatedHours());
+		assertEquals(expected.getActualHours(), actual.getActualHours());
+		assertEquals(expected.getDifficulty(), actual.getDifficulty());
+		assertEquals(expected.getNotes(), actual.getNotes());
+		assertEquals(expected.getMaterials().size(), actual.getMaterials().size());
+
+		for (int index = 0; index < expected.getMaterials().size(); index++) {
+			Material material = expected.getMaterials().get(index);
+			Material other = actual.getMaterials().get(index);
+
+			assertEquals(material.getMaterialName(), other.getMaterialName());
+			assertEquals(material.getNumRequired(), other.getNumRequired());
+			assertEquals(material.getCost(), other.getCost());
+		}
+
+		assertEquals(expected.getSteps().size(), actual.getSteps().size());
+
+		for (int index = 0; index < expected.getSteps().size(); index++) {
+			assertEquals(expected.getSteps().get(index).getStepText(),
+					actual.getSteps().get(index).getStepText());
+			assertEquals(expected.getSteps().get(index).getStepOrder(),
+					actual.getSteps().get(index).getStepOrder());
+		}
+
+		assertEquals(expected.getCategories().size(), actual.getCategories().size());
+
+		for (int index = 0; index < expected.getCategories().size(); index++) {
+			assertEquals(expected.getCategories().get(index).getCategoryName(),
+					actual.getCategories().get(index).getCategoryName());
+		}
+	}
+
+	static Project project(Integer projectId, String projectName) {
+		Project project = new Project();
+
+		project.setProjectId(projectId);
+		project.setProjectName(projectName);
+		return project;
+	}
+
+	static Material material(String materialName, Integer numRequired, String cost) {
+		Material material = new Material();
+
+		material.setMaterialName(materialName);
+		material.setNumRequired(numRequired);
+		material.setCost(Objects.isNull(cost) ? null : new BigDecimal(cost));
+		return material;
+	}
+
+	static Step step(String stepText, Integer stepOrder) {
+		Step step = new Step();
+
+		step.setStepText(stepText);
+		step.setStepOrder(stepOrder);
+		return step;
+	}
+
+	static Category category(String categoryName) {
+		Category category = new Category();
+
+		category.setCategoryName(categoryName);
+		return category;
+	}
+
+	private static List<Project> roundTrip(Project... projects) throws IOException {
+		StringWriter out = new StringWriter();
+		ProjectGraphWriter writer = ExportFormat.CSV.newWriter(out);
+
+		for (Project project : projects) {
+			writer.write(project);
+		}
+
+		writer.flush();
+		return read(out.toString());
+	}
+
+	private static List<Project> read(String csv) throws IOException {
+		ProjectGraphReader reader = ExportFormat.CSV.newReader(new StringReader(csv));
+		List<Project> projects = new ArrayList<>();
+		Project project;
+
+		while (Objects.nonNull(project = reader.read())) {
+			projects.add(project);
+		}
+
+		return projects;
+	}
+}
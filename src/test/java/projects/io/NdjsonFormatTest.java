@@ -0,0 +1,140 @@
+package projects.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static projects.io.CsvFormatTest.assertProjectEquals;
+import static projects.io.CsvFormatTest.category;
+import static projects.io.CsvFormatTest.material;
+import static projects.io.CsvFormatTest.project;
+import static projects.io.CsvFormatTest.step;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import projects.entity.Project;
+
+/*
+ * NdjsonFormatTest class
+ *  - Round trips project graphs through NdjsonFormat and parses hand-written JSON to cover
+ *    string escapes, nulls and malformed input.
+ */
+
+class NdjsonFormatTest {
+
+	@Test
+	void roundTripKeepsEveryField() throws IOException {
+		Project project = project(7, "Paint \"blue\" walls \\ trim");
+
+		project.setEstimatedHours(new BigDecimal("8.50"));
+		project.setActualHours(new BigDecimal("6.25"));
+		project.setDifficulty(2);
+		project.setNotes("tab\there\r\nnew line\u0001 caf\u00e9 \ud83d\udee0");
+		project.getMaterials().add(material("Paint", 3, "75.00"));
+		project.getSteps().add(step("Cover the floor", 1));
+		project.getCategories().add(category("Walls and Ceiling"));
+
+		String ndjson = write(project, project(8, "Second"));
+		List<Project> read = read(ndjson);
+
+		assertEquals(2, ndjson.split("\n").length, "one line per project");
+		assertEquals(2, read.size());
+		assertProjectEquals(project, read.get(0));
+		assertEquals("Second", read.get(1).getProjectName());
+	}
+
+	@Test
+	void emptyStringsAndNullsSurviveRoundTrip() throws IOException {
+		Project project = project(1, "");
+
+		project.getSteps().add(step("", null));
+		project.getMaterials().add(material(null, null, null));
+
+		Project read = read(write(project)).get(0);
+
+		assertEquals("", read.getProjectName());
+		assertNull(read.getNotes());
+		assertNull(read.getDifficulty());
+		assertEquals("", read.getSteps().get(0).getStepText());
+		assertNull(read.getSteps().get(0).getStepOrder());
+		assertNull(read.getMaterials().get(0).getMaterialName());
+		assertNull(read.getMaterials().get(0).getCost());
+	}
+
+	@Test
+	void parserDecodesEveryEscape() {
+		Map<String, Object> json = JsonLines.parseObject(
+				"{\"s\":\"q\\\" b\\\\ s\\/ \\b\\f\\n\\r\\t \\u00e9\\u0041\"}");
+
+		assertEquals("q\" b\\ s/ \b\f\n\r\t \u00e9A", json.get("s"));
+	}
+
+	@Test
+	void parserReadsNestedValues() {
+		Map<String, Object> json = JsonLines.parseObject(
+				" { \"n\" : -1.50e2 , \"a\" : [ true , false , null , {} ] , \"e\" : [ ] } ");
+
+		assertEquals(0, new BigDecimal("-150").compareTo((BigDecimal) json.get("n")));
+		assertEquals(Arrays.asList(true, false, null, Map.of()), json.get("a"));
+		assertEquals(List.of(), json.get("e"));
+	}
+
+	@Test
+	void unknownFieldsAndBlankLinesAreIgnored() throws IOException {
+		List<Project> projects = read("\n  \n{\"projectName\":\"A\",\"extra\":{\"x\":[1]}}\n\n");
+
+		assertEquals(1, projects.size());
+		assertEquals("A", projects.get(0).getProjectName());
+	}
+
+	@Test
+	void malformedLineNamesTheLine() {
+		IOException e = assertThrows(IOException.class,
+				() -> read("{\"projectName\":\"A\"}\n{\"projectName\":\"B\n"));
+
+		assertTrue(e.getMessage().startsWith("Line 2:"), e.getMessage());
+	}
+
+	@Test
+	void parserRejectsInvalidDocuments() {
+		assertThrows(IllegalArgumentException.class, () -> JsonLines.parseObject("[1]"));
+		assertThrows(IllegalArgumentException.class, () -> JsonLines.parseObject("{} x"));
+		assertThrows(IllegalArgumentException.class,
+				() -> JsonLines.parseObject("{\"a\":\"\\u12\"}"));
+		assertThrows(IllegalArgumentException.class, () -> JsonLines.parseObject("{\"a\":1,}"));
+	}
+
+	private static String write(Project... projects) throws IOException {
+		StringWriter out = new StringWriter();
+		ProjectGraphWriter writer = ExportFormat.NDJSON.newWriter(out);
+
+		for (Project project : projects) {
+			writer.write(project);
+		}
+
+		writer.flush();
+		return out.toString();
+	}
+
+	private static List<Project> read(String ndjson) throws IOException {
+		ProjectGraphReader reader = ExportFormat.NDJSON.newReader(new StringReader(ndjson));
+		List<Project> projects = new ArrayList<>();
+		Project project;
+
+		while (Objects.nonNull(project = reader.read())) {
+			projects.add(project);
+		}
+
+		return projects;
+	}
+}
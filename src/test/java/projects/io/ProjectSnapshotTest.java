@@ -0,0 +1,158 @@
+package projects.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static projects.io.CsvFormatTest.assertProjectEquals;
+import static projects.io.CsvFormatTest.category;
+import static projects.io.CsvFormatTest.material;
+import static projects.io.CsvFormatTest.project;
+import static projects.io.CsvFormatTest.step;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import projects.entity.Project;
+
+/*
+ * ProjectSnapshotTest class
+ *  - Writes small snapshots and reads them back through the ID and name indexes, including
+ *    duplicate, empty, null and non-ASCII names.
+ */
+
+class ProjectSnapshotTest {
+
+	/* Names by project ID; written in ID order, so the name index has to sort them. */
+	private static final String[] NAMES = { "alpha", "Zeta", null, "alpha", "", "\u00c4lpha",
+			"alph", "alpha2", null, "alpha", "Alpha" };
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void findByNameReturnsEveryDuplicateInIdOrder() throws IOException {
+		try (ProjectSnapshot snapshot = write(NAMES)) {
+			assertEquals(List.of(1, 4, 10), ids(snapshot.findByName("alpha")));
+			assertEquals(List.of(11), ids(snapshot.findByName("Alpha")));
+			assertEquals(List.of(7), ids(snapshot.findByName("alph")));
+			assertEquals(List.of(6), ids(snapshot.findByName("\u00c4lpha")));
+			assertTrue(snapshot.findByName("alpha1").isEmpty());
+			assertTrue(snapshot.findByName("zzz").isEmpty());
+		}
+	}
+
+	@Test
+	void findByNameTellsNullFromEmpty() throws IOException {
+		try (ProjectSnapshot snapshot = write(NAMES)) {
+			assertEquals(List.of(3, 9), ids(snapshot.findByName(null)));
+			assertEquals(List.of(5), ids(snapshot.findByName("")));
+			assertNull(snapshot.findByName(null).get(0).getProjectName());
+			assertEquals("", snapshot.findByName("").get(0).getProjectName());
+		}
+	}
+
+	@Test
+	void findByNameWithOnlyNullNames() throws IOException {
+		try (ProjectSnapshot snapshot = write(null, null)) {
+			assertEquals(List.of(1, 2), ids(snapshot.findByName(null)));
+			assertTrue(snapshot.findByName("").isEmpty());
+		}
+	}
+
+	@Test
+	void forEachByNamePutsNullsFirstThenCodePointOrder() throws IOException {
+		List<String> names = new ArrayList<>();
+
+		try (ProjectSnapshot snapshot = write(NAMES)) {
+			snapshot.forEachByName(view -> names.add(view.getProjectName()));
+		}
+
+		assertEquals(List.of("null", "null", "", "Alpha", "Zeta", "alph", "alpha", "alpha",
+				"alpha", "alpha2", "\u00c4lpha"),
+				names.stream().map(String::valueOf).collect(Collectors.toList()));
+	}
+
+	@Test
+	void findByIdReturnsTheWholeGraph() throws IOException {
+		Project project = project(42, "Deck");
+
+		project.setEstimatedHours(new BigDecimal("12.50"));
+		project.setDifficulty(4);
+		project.setNotes("Notes \u20ac");
+		project.getMaterials().add(material("Boards", 20, "8.75"));
+		project.getMaterials().add(material(null, null, null));
+		project.getSteps().add(step("Build it", 1));
+		project.getCategories().add(category("Outdoor"));
+
+		Path file = directory.resolve("graph.snap");
+
+		try (ProjectSnapshotWriter writer = new ProjectSnapshotWriter(file)) {
+			writer.write(project(1, "Before"));
+			writer.write(project);
+		}
+
+		try (ProjectSnapshot snapshot = ProjectSnapshot.open(file)) {
+			assertEquals(2, snapshot.size());
+			assertProjectEquals(project, snapshot.findById(42).toProject(true));
+			assertTrue(snapshot.findById(42).toProject(false).getMaterials().isEmpty());
+			assertNull(snapshot.findById(2));
+			assertNull(snapshot.findById(43));
+		}
+	}
+
+	@Test
+	void emptySnapshotFindsNothing() throws IOException {
+		try (ProjectSnapshot snapshot = write()) {
+			assertEquals(0, snapshot.size());
+			assertNull(snapshot.findById(1));
+			assertTrue(snapshot.findByName("alpha").isEmpty());
+			assertTrue(snapshot.findByName(null).isEmpty());
+		}
+	}
+
+	@Test
+	void writerRejectsIdsOutOfOrder() throws IOException {
+		try (ProjectSnapshotWriter writer = new ProjectSnapshotWriter(directory.resolve("x"))) {
+			writer.write(project(2, "B"));
+			assertThrows(IOException.class, () -> writer.write(project(2, "C")));
+			assertThrows(IOException.class, () -> writer.write(project(1, "A")));
+		}
+	}
+
+	@Test
+	void unclosedSnapshotIsRejected() throws IOException {
+		Path file = directory.resolve("partial.snap");
+
+		Files.write(file, new byte[256]);
+		assertThrows(IOException.class, () -> ProjectSnapshot.open(file));
+	}
+
+	/*
+	 * write() method
+	 *  - Writes one project per name, with IDs 1, 2, 3 and so on, and opens the snapshot.
+	 */
+	private ProjectSnapshot write(String... names) throws IOException {
+		Path file = directory.resolve("catalog.snap");
+
+		try (ProjectSnapshotWriter writer = new ProjectSnapshotWriter(file)) {
+			for (int index = 0; index < names.length; index++) {
+				writer.write(project(index + 1, names[index]));
+			}
+		}
+
+		return ProjectSnapshot.open(file);
+	}
+
+	private static List<Integer> ids(List<ProjectView> views) {
+		return views.stream().map(ProjectView::getProjectId).collect(Collectors.toList());
+	}
+}